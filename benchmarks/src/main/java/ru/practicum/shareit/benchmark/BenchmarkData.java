@@ -0,0 +1,51 @@
+package ru.practicum.shareit.benchmark;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.Status;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.dto.ItemWithBookingsCommentsDto;
+import ru.practicum.shareit.user.User;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Сущности в памяти для бенчмарков мапперов и сериализации.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public class BenchmarkData {
+    static final LocalDateTime BASE = LocalDateTime.of(2025, 1, 1, 12, 0);
+
+    public static User user(long id) {
+        return new User(id, "User " + id, "user" + id + "@example.com");
+    }
+
+    public static Item item(long id, User owner) {
+        return new Item(id, "Item " + id, "Description of item " + id, true, owner, null);
+    }
+
+    public static List<Booking> bookings(Item item, User booker, int count, long firstId) {
+        List<Booking> bookings = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            LocalDateTime start = BASE.plusDays(i);
+            bookings.add(new Booking(firstId + i, start, start.plusHours(12), item, booker, Status.APPROVED));
+        }
+        return bookings;
+    }
+
+    // Строка проекции findWithBookingSummaryByOwnerId, как её собирает Hibernate из плоских колонок:
+    // последнее бронирование — середина истории, следующее — сразу за ним
+    public static ItemWithBookingsCommentsDto itemWithBookingSummary(Item item, List<Booking> bookings,
+                                                                     long comments) {
+        Booking last = bookings.get(bookings.size() / 2 - 1);
+        Booking next = bookings.get(bookings.size() / 2);
+        return new ItemWithBookingsCommentsDto(item.getId(), item.getName(), item.getDescription(),
+                item.getAvailable(), item.getOwner().getId(),
+                last.getId(), last.getBooker().getId(), last.getStart(), last.getEnd(),
+                next.getId(), next.getBooker().getId(), next.getStart(), next.getEnd(),
+                (long) bookings.size(), comments);
+    }
+}
@@ -0,0 +1,84 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.ShareItServer;
+import ru.practicum.shareit.item.ItemService;
+import ru.practicum.shareit.item.dto.ItemCreateDto;
+import ru.practicum.shareit.item.dto.ItemDto;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Массовое создание вещей на H2: одна транзакция с пакетными вставками против создания по одной.
+ * Каждый вызов создаёт {@code items} новых вещей одного владельца.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+public class BulkImportBenchmark {
+    private static final long OWNER_ID = 1;
+
+    @Param({"10000", "100000"})
+    int items;
+
+    ConfigurableApplicationContext context;
+    ItemService itemService;
+    List<ItemCreateDto> itemDtos;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(ShareItServer.class)
+                .web(WebApplicationType.NONE)
+                .profiles("test")
+                .properties("spring.datasource.url=jdbc:h2:mem:bulk;DB_CLOSE_DELAY=-1",
+                        "logging.level.root=WARN")
+                .run();
+        itemService = context.getBean(ItemService.class);
+        context.getBean(JdbcTemplate.class).update("INSERT INTO users (id, name, email) VALUES (?, ?, ?)",
+                OWNER_ID, "Owner", "owner@example.com");
+        itemDtos = new ArrayList<>(items);
+        for (int i = 0; i < items; i++) {
+            itemDtos.add(new ItemCreateDto("Item " + i, "Description of item " + i, true, null));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<ItemDto> createAll() {
+        return itemService.createAll(itemDtos, OWNER_ID);
+    }
+
+    @Benchmark
+    public List<ItemDto> createOneByOne() {
+        List<ItemDto> created = new ArrayList<>(items);
+        for (ItemCreateDto itemDto : itemDtos) {
+            created.add(itemService.create(itemDto, OWNER_ID));
+        }
+        return created;
+    }
+}
@@ -0,0 +1,69 @@
+package ru.practicum.shareit.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import ru.practicum.shareit.booking.BookingMapper;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.dto.ItemWithBookingsCommentsDto;
+import ru.practicum.shareit.user.User;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сериализация списков DTO в JSON тем же ObjectMapper, что собирает Spring Boot для контроллеров.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonBenchmark {
+    @Param({"10", "100", "1000"})
+    int size;
+
+    ObjectMapper objectMapper;
+    List<ItemWithBookingsCommentsDto> items;
+    List<BookingDto> bookings;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        User owner = BenchmarkData.user(1);
+        User booker = BenchmarkData.user(2);
+        items = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Item item = BenchmarkData.item(i, owner);
+            items.add(BenchmarkData.itemWithBookingSummary(item,
+                    BenchmarkData.bookings(item, booker, 10, (long) i * 10), 2));
+        }
+        bookings = BenchmarkData.bookings(BenchmarkData.item(1, owner), booker, size, 1).stream()
+                .map(BookingMapper::mapToBookingDto)
+                .toList();
+    }
+
+    @Benchmark
+    public byte[] itemsWithBookingsComments() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(items);
+    }
+
+    @Benchmark
+    public byte[] bookings() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(bookings);
+    }
+}
@@ -0,0 +1,60 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.BookingMapper;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.dto.ItemWithBookingsCommentsDto;
+import ru.practicum.shareit.user.User;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Пропускная способность мапперов сущностей в DTO на вещи с разным числом бронирований
+ * и конструктора проекции, которым Hibernate собирает строки списка вещей владельца.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MapperBenchmark {
+    @Param({"10", "100", "1000"})
+    int bookingsPerItem;
+
+    Item item;
+    List<Booking> bookings;
+
+    @Setup
+    public void setUp() {
+        User owner = BenchmarkData.user(1);
+        User booker = BenchmarkData.user(2);
+        item = BenchmarkData.item(1, owner);
+        bookings = BenchmarkData.bookings(item, booker, bookingsPerItem, 1);
+    }
+
+    @Benchmark
+    public ItemWithBookingsCommentsDto itemWithBookingsComments() {
+        return BenchmarkData.itemWithBookingSummary(item, bookings, 5);
+    }
+
+    @Benchmark
+    public void bookingDtos(Blackhole blackhole) {
+        for (Booking booking : bookings) {
+            blackhole.consume(BookingMapper.mapToBookingDto(booking));
+        }
+    }
+}
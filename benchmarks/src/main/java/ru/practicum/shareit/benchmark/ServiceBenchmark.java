@@ -0,0 +1,163 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.ShareItServer;
+import ru.practicum.shareit.booking.BookingService;
+import ru.practicum.shareit.booking.BookingState;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.item.ItemService;
+import ru.practicum.shareit.item.dto.ItemWithBookingsCommentsDto;
+import ru.practicum.shareit.item.dto.ItemWithCommentsDto;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+/**
+ * Сервисы сервера на H2 с растущим числом бронирований.
+ * У каждого владельца 10 вещей по 100 бронирований, поэтому ответ одного вызова не зависит от размера БД,
+ * а меняется только объём таблиц, по которым ищут запросы.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+public class ServiceBenchmark {
+    private static final int BOOKINGS_PER_ITEM = 100;
+    private static final int ITEMS_PER_OWNER = 10;
+    private static final int BOOKERS = 100;
+    private static final int BATCH_SIZE = 10_000;
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    int bookings;
+
+    ConfigurableApplicationContext context;
+    ItemService itemService;
+    BookingService bookingService;
+    int items;
+    int owners;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(ShareItServer.class)
+                .web(WebApplicationType.NONE)
+                .profiles("test")
+                .properties("spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1",
+                        "logging.level.root=WARN")
+                .run();
+        itemService = context.getBean(ItemService.class);
+        bookingService = context.getBean(BookingService.class);
+        items = bookings / BOOKINGS_PER_ITEM;
+        owners = Math.max(1, items / ITEMS_PER_OWNER);
+        seed(context.getBean(JdbcTemplate.class));
+        refreshBookingSummary(context.getBean(ItemRepository.class));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<ItemWithBookingsCommentsDto> findAllFromUser() {
+        return itemService.findAllFromUser(randomOwner());
+    }
+
+    @Benchmark
+    public ItemWithCommentsDto findItemByOwner() {
+        long itemId = ThreadLocalRandom.current().nextLong(items) + 1;
+        return itemService.findById(itemId, ownerOf(itemId));
+    }
+
+    @Benchmark
+    public List<BookingDto> findOwnerBookingsFirstPage() {
+        return bookingService.findOwnerBookings(BookingState.ALL, randomOwner(), 0, 10, null);
+    }
+
+    private long randomOwner() {
+        return ThreadLocalRandom.current().nextLong(owners) + 1;
+    }
+
+    private long ownerOf(long itemId) {
+        return Math.min((itemId - 1) / ITEMS_PER_OWNER, owners - 1) + 1;
+    }
+
+    private void seed(JdbcTemplate jdbc) {
+        // Владельцы получают id 1..owners, бронирующие — следующие BOOKERS id
+        List<Object[]> users = new ArrayList<>();
+        for (int i = 1; i <= owners + BOOKERS; i++) {
+            users.add(new Object[]{i, "User " + i, "user" + i + "@example.com"});
+        }
+        jdbc.batchUpdate("INSERT INTO users (id, name, email) VALUES (?, ?, ?)", users);
+
+        List<Object[]> itemRows = new ArrayList<>();
+        List<Object[]> comments = new ArrayList<>();
+        for (long itemId = 1; itemId <= items; itemId++) {
+            itemRows.add(new Object[]{itemId, "Item " + itemId, "Description of item " + itemId, true,
+                    ownerOf(itemId)});
+            comments.add(new Object[]{itemId, "Comment " + itemId, itemId, owners + 1,
+                    Timestamp.valueOf(BenchmarkData.BASE)});
+        }
+        jdbc.batchUpdate("INSERT INTO items (id, name, description, is_available, owner_id) VALUES (?, ?, ?, ?, ?)",
+                itemRows);
+        jdbc.batchUpdate("INSERT INTO comments (id, text, item_id, author_id, created) VALUES (?, ?, ?, ?, ?)",
+                comments);
+
+        // Половина бронирований каждой вещи в прошлом, половина в будущем
+        LocalDateTime firstStart = LocalDateTime.now().minusDays(BOOKINGS_PER_ITEM / 2);
+        List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+        long bookingId = 1;
+        for (long itemId = 1; itemId <= items; itemId++) {
+            for (int i = 0; i < BOOKINGS_PER_ITEM; i++) {
+                LocalDateTime start = firstStart.plusDays(i);
+                batch.add(new Object[]{bookingId++, Timestamp.valueOf(start), Timestamp.valueOf(start.plusHours(12)),
+                        itemId, owners + 1 + (i % BOOKERS), "APPROVED"});
+                if (batch.size() == BATCH_SIZE) {
+                    insertBookings(jdbc, batch);
+                    batch.clear();
+                }
+            }
+        }
+        insertBookings(jdbc, batch);
+    }
+
+    // Строки вставлены мимо сервисов, поэтому сводку бронирований вещей пересчитываем явно
+    private void refreshBookingSummary(ItemRepository itemRepository) {
+        List<Long> itemIds = LongStream.rangeClosed(1, items).boxed().toList();
+        LocalDateTime now = LocalDateTime.now();
+        for (int from = 0; from < itemIds.size(); from += BATCH_SIZE) {
+            itemRepository.refreshBookingSummary(itemIds.subList(from, Math.min(from + BATCH_SIZE, itemIds.size())),
+                    now);
+        }
+        context.getBean(JdbcTemplate.class).update("UPDATE items SET booking_count = ?, comment_count = 1",
+                BOOKINGS_PER_ITEM);
+    }
+
+    private static void insertBookings(JdbcTemplate jdbc, List<Object[]> batch) {
+        jdbc.batchUpdate("INSERT INTO bookings (id, start_date, end_date, item_id, booker_id, status) " +
+                "VALUES (?, ?, ?, ?, ?, ?)", batch);
+    }
+}
@@ -1,44 +1,52 @@
 package ru.practicum.shareit.booking;
 
+import java.util.HashMap;
 import java.util.Map;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.web.util.DefaultUriBuilderFactory;
 
+import ru.practicum.shareit.booking.dto.BookingExportFormat;
 import ru.practicum.shareit.booking.dto.BookingRequestDto;
 import ru.practicum.shareit.booking.dto.BookingState;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.GetCoalescer;
+import ru.practicum.shareit.client.ResponseCache;
+import ru.practicum.shareit.client.ServerCallGuards;
 
 @Service
 public class BookingClient extends BaseClient {
     private static final String API_PREFIX = "/bookings";
 
     @Autowired
-    public BookingClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public BookingClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder,
+                         ClientHttpRequestFactory serverRequestFactory, GetCoalescer getCoalescer,
+                         ResponseCache responseCache,
+                         ServerCallGuards serverCallGuards) {
         super(
                 builder
                         .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(() -> new HttpComponentsClientHttpRequestFactory())
-                        .build()
+                        .requestFactory(() -> serverRequestFactory)
+                        .build(),
+                getCoalescer,
+                responseCache,
+                serverCallGuards.forClient("bookings")
         );
     }
 
-    public ResponseEntity<Object> findBookerBookings(long userId, BookingState state, Integer from, Integer size) {
-        Map<String, Object> parameters = Map.of(
-                "state", state.name(),
-                "from", from,
-                "size", size
-        );
-        return get("?state={state}&from={from}&size={size}", userId, parameters);
+    public ResponseEntity<Object> findBookerBookings(long userId, BookingState state, Integer from, Integer size,
+                                                     String cursor) {
+        return get("?state={state}&from={from}&size={size}" + cursorQuery(cursor), userId,
+                pageParameters(state, from, size, cursor));
     }
 
-    public ResponseEntity<Object> createBooking(long userId, BookingRequestDto requestDto) {
-        return post("", userId, requestDto);
+    public ResponseEntity<Object> createBooking(long userId, BookingRequestDto requestDto, String idempotencyKey) {
+        return postIdempotent("", userId, requestDto, idempotencyKey);
     }
 
     public ResponseEntity<Object> findBooking(long userId, Long bookingId) {
@@ -52,12 +60,29 @@ public class BookingClient extends BaseClient {
         return patch("/" + bookingId + "?approved={approved}", ownerId, parameters, null);
     }
 
-    public ResponseEntity<Object> findOwnerBookings(long userId, BookingState state, Integer from, Integer size) {
-        Map<String, Object> parameters = Map.of(
-                "state", state.name(),
-                "from", from,
-                "size", size
-        );
-        return get("/owner?state={state}&from={from}&size={size}", userId, parameters);
+    public ResponseEntity<Object> findOwnerBookings(long userId, BookingState state, Integer from, Integer size,
+                                                    String cursor) {
+        return get("/owner?state={state}&from={from}&size={size}" + cursorQuery(cursor), userId,
+                pageParameters(state, from, size, cursor));
+    }
+
+    public ResponseEntity<Object> exportOwnerBookings(Long userId, BookingExportFormat format) {
+        // Выгрузка может быть большой: передаётся потоком и в памяти шлюза не собирается
+        return get("/owner/export?format={format}", userId, Map.of("format", format.name()));
+    }
+
+    private static String cursorQuery(String cursor) {
+        return cursor == null ? "" : "&cursor={cursor}";
+    }
+
+    private static Map<String, Object> pageParameters(BookingState state, Integer from, Integer size, String cursor) {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("state", state.name());
+        parameters.put("from", from);
+        parameters.put("size", size);
+        if (cursor != null) {
+            parameters.put("cursor", cursor);
+        }
+        return parameters;
     }
 }
\ No newline at end of file
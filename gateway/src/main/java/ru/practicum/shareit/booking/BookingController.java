@@ -3,6 +3,8 @@ package ru.practicum.shareit.booking;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.booking.dto.BookingExportFormat;
+import ru.practicum.shareit.client.BaseClient;
 import ru.practicum.shareit.booking.dto.BookingRequestDto;
 import ru.practicum.shareit.booking.dto.BookingState;
 
@@ -12,13 +14,17 @@ import ru.practicum.shareit.booking.dto.BookingState;
 public class BookingController {
     private final String bookingIdPath = "/{bookingId}";
     private final String ownerIdPath = "/owner";
+    private final String ownerExportPath = "/owner/export";
     private final String userIdHeader = "X-Sharer-User-Id";
+    private final String idempotencyKeyHeader = BaseClient.IDEMPOTENCY_KEY_HEADER;
     private final BookingClient bookingClient;
 
     @PostMapping()
     public ResponseEntity<Object> createBooking(@RequestBody BookingRequestDto bookingRequestDto,
-                                                @RequestHeader(value = userIdHeader, required = false) Long bookerId) {
-        return bookingClient.createBooking(bookerId, bookingRequestDto);
+                                                @RequestHeader(value = userIdHeader, required = false) Long bookerId,
+                                                @RequestHeader(value = idempotencyKeyHeader, required = false)
+                                                String idempotencyKey) {
+        return bookingClient.createBooking(bookerId, bookingRequestDto, idempotencyKey);
     }
 
     @PatchMapping(bookingIdPath)
@@ -35,23 +41,37 @@ public class BookingController {
     }
 
     @GetMapping()
-    public ResponseEntity<Object> findBookerBookings(@RequestParam(defaultValue = "ALL") String stateParam,
+    public ResponseEntity<Object> findBookerBookings(@RequestParam(name = "state", defaultValue = "ALL")
+                                                     String stateParam,
                                                      @RequestHeader(value = userIdHeader, required = false) Long userId,
                                                      @RequestParam(name = "from", defaultValue = "0") Integer from,
-                                                     @RequestParam(name = "size", defaultValue = "10") Integer size) {
+                                                     @RequestParam(name = "size", defaultValue = "10") Integer size,
+                                                     @RequestParam(name = "cursor", required = false) String cursor) {
         BookingState state = BookingState.from(stateParam)
                 .orElseThrow(() -> new IllegalArgumentException("Unknown state: " + stateParam));
-        return bookingClient.findBookerBookings(userId, state, from, size);
+        return bookingClient.findBookerBookings(userId, state, from, size, cursor);
     }
 
     @GetMapping(ownerIdPath)
-    public ResponseEntity<Object> findOwnerBookings(@RequestParam(defaultValue = "ALL") String stateParam,
+    public ResponseEntity<Object> findOwnerBookings(@RequestParam(name = "state", defaultValue = "ALL")
+                                                    String stateParam,
                                                     @RequestHeader(value = userIdHeader, required = false) Long userId,
                                                     @RequestParam(name = "from", defaultValue = "0") Integer from,
-                                                    @RequestParam(name = "size", defaultValue = "10") Integer size) {
+                                                    @RequestParam(name = "size", defaultValue = "10") Integer size,
+                                                    @RequestParam(name = "cursor", required = false) String cursor) {
         BookingState state = BookingState.from(stateParam)
                 .orElseThrow(() -> new IllegalArgumentException("Unknown state: " + stateParam));
-        return bookingClient.findOwnerBookings(userId, state, from, size);
+        return bookingClient.findOwnerBookings(userId, state, from, size, cursor);
     }
-}
 
+    // Выгрузка отдаётся клиенту потоком по мере чтения ответа сервера
+    @GetMapping(ownerExportPath)
+    public ResponseEntity<Object> exportOwnerBookings(@RequestParam(name = "format", defaultValue = "ndjson")
+                                                      String formatParam,
+                                                      @RequestHeader(value = userIdHeader, required = false)
+                                                      Long userId) {
+        BookingExportFormat format = BookingExportFormat.from(formatParam)
+                .orElseThrow(() -> new IllegalArgumentException("Unknown format: " + formatParam));
+        return bookingClient.exportOwnerBookings(userId, format);
+    }
+}
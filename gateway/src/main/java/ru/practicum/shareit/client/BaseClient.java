@@ -1,24 +1,59 @@
 package ru.practicum.shareit.client;
 
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 
-import org.springframework.http.HttpEntity;
+import org.springframework.core.io.InputStreamResource;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.ClientHttpResponse;
 import org.springframework.lang.Nullable;
-import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.RestClient;
 import org.springframework.web.client.RestTemplate;
 
 public class BaseClient {
+    // Ключ идемпотентности запроса на создание: сервер отвечает на повтор сохранённым ответом
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
+    // Пользователь, от имени которого выполняется запрос; по нему же выбирается экземпляр сервера
+    static final String USER_ID_HEADER = "X-Sharer-User-Id";
+
+    // Заголовки, относящиеся к соединению с сервером, а не к ответу: их не пересылаем клиенту
+    private static final Set<String> HOP_BY_HOP_HEADERS = Set.of("connection", "keep-alive", "proxy-authenticate",
+            "proxy-authorization", "te", "trailer", "transfer-encoding", "upgrade");
+
     // Поле для хранения экземпляра RestTemplate, используемого для выполнения HTTP-запросов
     protected final RestTemplate rest;
 
-    // Конструктор, принимающий RestTemplate и инициализирующий поле rest
-    public BaseClient(RestTemplate rest) {
+    // Клиент поверх того же RestTemplate: та же фабрика запросов, конвертеры и базовый URL
+    private final RestClient restClient;
+
+    // Склейка одинаковых одновременных GET-запросов, общая для всех клиентов шлюза
+    private final GetCoalescer getCoalescer;
+
+    // Кэш ответов, не зависящих от пользователя, общий для всех клиентов шлюза
+    private final ResponseCache responseCache;
+
+    // Лимиты одновременных вызовов и выключатель этого клиента: медленный сервер не занимает все потоки шлюза
+    private final ServerCallGuard serverCallGuard;
+
+    // Конструктор, принимающий RestTemplate и инициализирующий поля rest и restClient
+    public BaseClient(RestTemplate rest, GetCoalescer getCoalescer, ResponseCache responseCache,
+                      ServerCallGuard serverCallGuard) {
         this.rest = rest;
+        this.restClient = RestClient.create(rest);
+        this.getCoalescer = getCoalescer;
+        this.responseCache = responseCache;
+        this.serverCallGuard = serverCallGuard;
     }
 
     // Метод для выполнения GET запроса без параметров и идентификатора пользователя
@@ -31,11 +66,41 @@ public class BaseClient {
         return get(path, userId, null);
     }
 
-    // Метод для выполнения GET запроса с идентификатором пользователя и параметрами запроса
+    // Метод для выполнения GET запроса с идентификатором пользователя и параметрами запроса.
+    // Ответ передаётся клиенту потоком без склейки и буферизации: списки могут быть большими
     protected ResponseEntity<Object> get(String path, Long userId, @Nullable Map<String, Object> parameters) {
         return makeAndSendRequest(HttpMethod.GET, path, userId, parameters, null);
     }
 
+    // Метод для выполнения GET запроса с небольшим ответом, который часто запрашивают одновременно.
+    // Одинаковые запросы, пришедшие пока такой же ждёт сервер, получают его ответ; ответ читается в память
+    protected ResponseEntity<Object> getCoalesced(String path, Long userId) {
+        Map<String, Object> uriVariables = Map.of();
+        // Ключ — полный URI и пользователь: ответ сервера может зависеть от того, кто спрашивает
+        String key = rest.getUriTemplateHandler().expand(path, uriVariables) + " " + userId;
+        return getCoalescer.execute(key, () -> fetch(path, userId, uriVariables)).toResponseEntity();
+    }
+
+    // Метод для выполнения GET запроса, ответ на который не зависит от пользователя и берётся из кэша группы region
+    protected ResponseEntity<Object> getCached(ResponseCache.Region region, String path,
+                                               @Nullable Map<String, Object> parameters) {
+        Map<String, Object> uriVariables = parameters != null ? parameters : Map.of();
+        String uri = rest.getUriTemplateHandler().expand(path, uriVariables).toString();
+        // Промах кэша и фоновое обновление тоже склеиваются с одновременными такими же запросами
+        return responseCache.get(region, uri,
+                () -> getCoalescer.execute(uri + " null", () -> fetch(path, null, uriVariables)))
+                .toResponseEntity();
+    }
+
+    // Метод для сброса кэшированных ответов групп regions после успешной записи
+    protected ResponseEntity<Object> invalidateOnSuccess(ResponseEntity<Object> response,
+                                                         ResponseCache.Region... regions) {
+        if (response.getStatusCode().is2xxSuccessful()) {
+            responseCache.invalidate(regions);
+        }
+        return response;
+    }
+
     // Метод для выполнения POST запроса с телом запроса
     protected <T> ResponseEntity<Object> post(String path, T body) {
         return post(path, null, null, body);
@@ -52,6 +117,12 @@ public class BaseClient {
         return makeAndSendRequest(HttpMethod.POST, path, userId, parameters, body);
     }
 
+    // Метод для выполнения POST запроса с ключом идемпотентности клиента, если он передан
+    protected <T> ResponseEntity<Object> postIdempotent(String path, Long userId, T body,
+                                                        @Nullable String idempotencyKey) {
+        return makeAndSendRequest(HttpMethod.POST, path, userId, null, body, idempotencyKey);
+    }
+
     // Метод для выполнения PUT запроса с идентификатором пользователя и телом запроса
     protected <T> ResponseEntity<Object> put(String path, long userId, T body) {
         return put(path, userId, null, body);
@@ -99,26 +170,57 @@ public class BaseClient {
         return makeAndSendRequest(HttpMethod.DELETE, path, userId, parameters, null);
     }
 
-    // Приватный метод для создания и отправки HTTP-запроса
+    // Метод для выполнения POST запроса, тело которого передаётся серверу потоком без буферизации в шлюзе
+    protected ResponseEntity<Object> postStream(String path, Long userId, MediaType contentType, InputStream body) {
+        RestClient.RequestBodySpec request = restClient.post()
+                .uri(path)
+                .headers(headers -> {
+                    headers.addAll(defaultHeaders(userId));
+                    headers.setContentType(contentType);
+                })
+                .body(body::transferTo);
+        return serverCallGuard.call(true, () -> request.exchange((clientRequest, response) -> passthrough(response),
+                false), BaseClient::isServerError);
+    }
+
+    // Приватный метод для выполнения GET запроса с чтением ответа сервера целиком.
+    // Тело читается уже после вызова: лимит и выключатель учитывают только ожидание статуса и заголовков
+    private GetCoalescer.BufferedResponse fetch(String path, Long userId, Map<String, Object> uriVariables) {
+        ResponseEntity<Object> response = makeAndSendRequest(HttpMethod.GET, path, userId, uriVariables, null);
+        try (InputStream body = ((InputStreamResource) Objects.requireNonNull(response.getBody())).getInputStream()) {
+            return new GetCoalescer.BufferedResponse(response.getStatusCode(), response.getHeaders(),
+                    body.readAllBytes());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Приватный метод для создания и отправки HTTP-запроса.
+    // Тело ответа сервера не разбирается: байты, статус и заголовки передаются клиенту потоком
     private <T> ResponseEntity<Object> makeAndSendRequest(HttpMethod method, String path, Long userId,
                                                           @Nullable Map<String, Object> parameters, @Nullable T body) {
-        // Создание HttpEntity с телом запроса и заголовками
-        HttpEntity<T> requestEntity = new HttpEntity<>(body, defaultHeaders(userId));
+        return makeAndSendRequest(method, path, userId, parameters, body, null);
+    }
 
-        ResponseEntity<Object> shareitServerResponse;
-        try {
-            // Выполнение запроса с параметрами или без них
-            if (parameters != null) {
-                shareitServerResponse = rest.exchange(path, method, requestEntity, Object.class, parameters);
-            } else {
-                shareitServerResponse = rest.exchange(path, method, requestEntity, Object.class);
-            }
-        } catch (HttpStatusCodeException e) {
-            // Обработка исключений и возврат ответа с кодом ошибки
-            return ResponseEntity.status(e.getStatusCode()).body(e.getResponseBodyAsByteArray());
+    private <T> ResponseEntity<Object> makeAndSendRequest(HttpMethod method, String path, Long userId,
+                                                          @Nullable Map<String, Object> parameters, @Nullable T body,
+                                                          @Nullable String idempotencyKey) {
+        RestClient.RequestBodySpec request = restClient.method(method)
+                .uri(path, parameters != null ? parameters : Map.of())
+                .headers(headers -> {
+                    headers.addAll(defaultHeaders(userId));
+                    if (idempotencyKey != null) {
+                        headers.set(IDEMPOTENCY_KEY_HEADER, idempotencyKey);
+                    }
+                });
+        // Тело запроса уже провалидировано контроллером и сериализуется как обычно
+        if (body != null) {
+            request.body(body);
         }
-        // Подготовка и возврат ответа
-        return prepareGatewayResponse(shareitServerResponse);
+        // Ответ не закрывается после обмена: его закроет поток, отдающий тело клиенту.
+        // Место в лимите одновременных вызовов освобождается, как только сервер ответил статусом и заголовками
+        return serverCallGuard.call(method != HttpMethod.GET, () -> request.exchange((clientRequest, response) ->
+                passthrough(response), false), BaseClient::isServerError);
     }
 
     // Приватный метод для создания заголовков по умолчанию
@@ -128,26 +230,43 @@ public class BaseClient {
         headers.setAccept(List.of(MediaType.APPLICATION_JSON));
         // Добавление идентификатора пользователя в заголовок, если он передан
         if (userId != null) {
-            headers.set("X-Sharer-User-Id", String.valueOf(userId));
+            headers.set(USER_ID_HEADER, String.valueOf(userId));
         }
         return headers;
     }
 
-    // Приватный метод для подготовки ответа
-    private static ResponseEntity<Object> prepareGatewayResponse(ResponseEntity<Object> response) {
-        // Если статус ответа успешный, возвращаем его как есть
-        if (response.getStatusCode().is2xxSuccessful()) {
-            return response;
+    // Приватный метод для подготовки ответа: статус и заголовки сервера, тело — поток без буферизации
+    private static ResponseEntity<Object> passthrough(ClientHttpResponse response) throws IOException {
+        try {
+            HttpHeaders headers = responseHeaders(response);
+            InputStream body = new FilterInputStream(response.getBody()) {
+                @Override
+                public void close() {
+                    response.close();
+                }
+            };
+            return ResponseEntity.status(response.getStatusCode())
+                    .headers(headers)
+                    .body(new InputStreamResource(body));
+        } catch (IOException | RuntimeException e) {
+            response.close();
+            throw e;
         }
+    }
 
-        ResponseEntity.BodyBuilder responseBuilder = ResponseEntity.status(response.getStatusCode());
-
-        // Если ответ содержит тело, добавляем его в ответ
-        if (response.hasBody()) {
-            return responseBuilder.body(response.getBody());
-        }
+    // Ответ 5xx — неудачный вызов сервера для выключателя
+    private static boolean isServerError(ResponseEntity<Object> response) {
+        return response.getStatusCode().is5xxServerError();
+    }
 
-        // Возвращаем ответ без тела
-        return responseBuilder.build();
+    // Приватный метод для копирования заголовков ответа сервера без заголовков соединения
+    private static HttpHeaders responseHeaders(ClientHttpResponse response) {
+        HttpHeaders headers = new HttpHeaders();
+        response.getHeaders().forEach((name, values) -> {
+            if (!HOP_BY_HOP_HEADERS.contains(name.toLowerCase(Locale.ROOT))) {
+                headers.addAll(name, values);
+            }
+        });
+        return headers;
     }
-}
\ No newline at end of file
+}
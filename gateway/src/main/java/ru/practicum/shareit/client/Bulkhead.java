@@ -0,0 +1,76 @@
+package ru.practicum.shareit.client;
+
+import ru.practicum.shareit.exception.ServiceUnavailableException;
+
+import java.time.Duration;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.IntSupplier;
+
+// Ограничение одновременных вызовов сервера: сверх лимита запрос сразу получает отказ,
+// а не занимает поток и соединение в ожидании медленного сервера.
+// Лимит задан на один экземпляр сервера и умножается на число доступных экземпляров:
+// при добавлении экземпляра пропускная способность шлюза растёт, при исключении — снижается.
+// Не Semaphore: число разрешений меняется вместе с составом экземпляров
+class Bulkhead {
+    private final String name;
+    private final int maxConcurrentPerInstance;
+    private final IntSupplier instances;
+    private final Duration maxWait;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition released = lock.newCondition();
+    private int active;
+
+    Bulkhead(String name, int maxConcurrentPerInstance, IntSupplier instances, Duration maxWait) {
+        this.name = name;
+        this.maxConcurrentPerInstance = maxConcurrentPerInstance;
+        this.instances = instances;
+        this.maxWait = maxWait;
+    }
+
+    void acquire() {
+        boolean acquired = false;
+        lock.lock();
+        try {
+            long remaining = maxWait.toNanos();
+            while (active >= limit() && remaining > 0) {
+                remaining = released.awaitNanos(remaining);
+            }
+            if (active < limit()) {
+                active++;
+                acquired = true;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            lock.unlock();
+        }
+        if (!acquired) {
+            throw new ServiceUnavailableException(String.format("Превышено число одновременных запросов %s к серверу",
+                    name), Duration.ofSeconds(1));
+        }
+    }
+
+    void release() {
+        lock.lock();
+        try {
+            active--;
+            released.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int active() {
+        lock.lock();
+        try {
+            return active;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int limit() {
+        return maxConcurrentPerInstance * Math.max(1, instances.getAsInt());
+    }
+}
@@ -0,0 +1,121 @@
+package ru.practicum.shareit.client;
+
+import lombok.extern.slf4j.Slf4j;
+import ru.practicum.shareit.exception.ServiceUnavailableException;
+
+import java.time.Duration;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Автоматический выключатель вызовов сервера.
+// CLOSED: вызовы проходят, по последним вызовам считается доля неудачных; при превышении порога — OPEN.
+// OPEN: вызовы сразу отклоняются, пока не истечёт waitInOpenState; затем HALF_OPEN.
+// HALF_OPEN: проходит halfOpenCalls пробных вызовов, остальные отклоняются;
+// все пробы успешны — снова CLOSED, любая неудача — снова OPEN.
+// Состояние защищено ReentrantLock, а не synchronized: виртуальные потоки не закрепляются на носителе
+@Slf4j
+class CircuitBreaker {
+    enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final String name;
+    private final ResilienceProperties.CircuitBreakerSettings settings;
+    private final ReentrantLock lock = new ReentrantLock();
+    // Кольцо результатов последних вызовов: true — неудача
+    private final boolean[] window;
+    private int windowNext;
+    private int windowCalls;
+    private int windowFailures;
+    private volatile State state = State.CLOSED;
+    private long openedAt;
+    private int probesStarted;
+    private int probesSucceeded;
+
+    CircuitBreaker(String name, ResilienceProperties.CircuitBreakerSettings settings) {
+        this.name = name;
+        this.settings = settings;
+        this.window = new boolean[settings.getSlidingWindowSize()];
+    }
+
+    State state() {
+        return state;
+    }
+
+    // Разрешение на вызов; каждый разрешённый вызов обязан сообщить результат через onResult
+    void acquirePermission() {
+        lock.lock();
+        try {
+            if (state == State.OPEN) {
+                long waited = System.nanoTime() - openedAt;
+                long wait = settings.getWaitInOpenState().toNanos();
+                if (waited < wait) {
+                    throw rejected(Duration.ofNanos(wait - waited));
+                }
+                transition(State.HALF_OPEN);
+            }
+            if (state == State.HALF_OPEN) {
+                if (probesStarted >= settings.getHalfOpenCalls()) {
+                    throw rejected(Duration.ofSeconds(1));
+                }
+                probesStarted++;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void onResult(boolean success) {
+        lock.lock();
+        try {
+            switch (state) {
+                case CLOSED -> record(!success);
+                case HALF_OPEN -> {
+                    if (!success) {
+                        transition(State.OPEN);
+                    } else if (++probesSucceeded >= settings.getHalfOpenCalls()) {
+                        transition(State.CLOSED);
+                    }
+                }
+                // Вызовы, начатые до размыкания, на состояние уже не влияют
+                case OPEN -> { }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void record(boolean failure) {
+        if (windowCalls == window.length) {
+            windowFailures -= window[windowNext] ? 1 : 0;
+        } else {
+            windowCalls++;
+        }
+        window[windowNext] = failure;
+        windowFailures += failure ? 1 : 0;
+        windowNext = (windowNext + 1) % window.length;
+        if (windowCalls >= settings.getMinimumCalls()
+                && windowFailures * 100 >= settings.getFailureRateThreshold() * windowCalls) {
+            transition(State.OPEN);
+        }
+    }
+
+    private void transition(State next) {
+        log.warn("Цепь вызовов сервера {}: {} -> {}", name, state, next);
+        state = next;
+        switch (next) {
+            case OPEN -> openedAt = System.nanoTime();
+            case HALF_OPEN -> {
+                probesStarted = 0;
+                probesSucceeded = 0;
+            }
+            case CLOSED -> {
+                windowNext = 0;
+                windowCalls = 0;
+                windowFailures = 0;
+            }
+        }
+    }
+
+    private ServiceUnavailableException rejected(Duration retryAfter) {
+        return new ServiceUnavailableException(String.format("Вызовы сервера %s временно приостановлены", name),
+                retryAfter);
+    }
+}
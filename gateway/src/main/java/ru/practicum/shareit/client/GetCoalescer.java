@@ -0,0 +1,77 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+// Одинаковые GET-запросы, пришедшие пока первый ещё ждёт сервер, получают его ответ без своего запроса.
+// Ответ не кэшируется: после завершения запроса следующий такой же снова идёт на сервер
+@Component
+public class GetCoalescer {
+    private final Map<String, CompletableFuture<BufferedResponse>> inFlight = new ConcurrentHashMap<>();
+    private final Counter upstream;
+    private final Counter collapsed;
+
+    public GetCoalescer(MeterRegistry meterRegistry) {
+        upstream = Counter.builder("shareit.gateway.coalescing.requests")
+                .description("GET-запросы, отправленные на сервер")
+                .tag("result", "upstream")
+                .register(meterRegistry);
+        collapsed = Counter.builder("shareit.gateway.coalescing.requests")
+                .description("GET-запросы, получившие ответ уже выполняющегося такого же запроса")
+                .tag("result", "collapsed")
+                .register(meterRegistry);
+        Gauge.builder("shareit.gateway.coalescing.in-flight", inFlight, Map::size)
+                .description("GET-запросы к серверу, выполняющиеся сейчас")
+                .register(meterRegistry);
+    }
+
+    public BufferedResponse execute(String key, Supplier<BufferedResponse> request) {
+        CompletableFuture<BufferedResponse> own = new CompletableFuture<>();
+        CompletableFuture<BufferedResponse> existing = inFlight.putIfAbsent(key, own);
+        if (existing != null) {
+            collapsed.increment();
+            try {
+                return existing.join();
+            } catch (CompletionException e) {
+                // Ошибка соединения с сервером достаётся всем ожидавшим
+                if (e.getCause() instanceof Error error) {
+                    throw error;
+                }
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+        }
+        upstream.increment();
+        try {
+            BufferedResponse response = request.get();
+            own.complete(response);
+            return response;
+        } catch (Throwable e) {
+            // Любая ошибка, в том числе Error, должна завершить ожидание остальных
+            own.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, own);
+        }
+    }
+
+    // Ответ сервера целиком в памяти: его тело отдаётся каждому ожидавшему запросу
+    public record BufferedResponse(HttpStatusCode status, HttpHeaders headers, byte[] body) {
+        ResponseEntity<Object> toResponseEntity() {
+            return ResponseEntity.status(status)
+                    .headers(headers)
+                    .body(new ByteArrayResource(body));
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package ru.practicum.shareit.client;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.StreamingHttpOutputMessage;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.lang.Nullable;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Фабрика запросов к серверу, отправляющая каждый запрос на экземпляр, выбранный балансировщиком.
+// Экземпляр выбирается при отправке, когда известны заголовки: по X-Sharer-User-Id запросы пользователя
+// идут на его экземпляр. Запрос считается незавершённым, пока не закрыт ответ:
+// потоковый ответ занимает экземпляр до конца передачи
+class LoadBalancingRequestFactory implements ClientHttpRequestFactory {
+    private final ClientHttpRequestFactory delegate;
+    private final ServerBalancer balancer;
+
+    LoadBalancingRequestFactory(ClientHttpRequestFactory delegate, ServerBalancer balancer) {
+        this.delegate = delegate;
+        this.balancer = balancer;
+    }
+
+    @Override
+    public ClientHttpRequest createRequest(URI uri, HttpMethod httpMethod) {
+        return new BalancedRequest(uri, httpMethod);
+    }
+
+    // Заголовки и тело копятся до отправки. Потоковое тело передаётся запросу к экземпляру как есть:
+    // без этого тело запроса собиралось бы в памяти целиком
+    private final class BalancedRequest implements ClientHttpRequest, StreamingHttpOutputMessage {
+        private final URI uri;
+        private final HttpMethod method;
+        private final HttpHeaders headers = new HttpHeaders();
+        @Nullable
+        private Body body;
+        @Nullable
+        private ByteArrayOutputStream bufferedBody;
+
+        private BalancedRequest(URI uri, HttpMethod method) {
+            this.uri = uri;
+            this.method = method;
+        }
+
+        @Override
+        public ClientHttpResponse execute() throws IOException {
+            ServerInstance instance = balancer.choose(headers.getFirst(BaseClient.USER_ID_HEADER));
+            ClientHttpRequest request = delegate.createRequest(balancer.resolve(uri, instance), method);
+            request.getHeaders().putAll(headers);
+            instance.started();
+            ClientHttpResponse response;
+            HttpStatusCode status;
+            try {
+                writeBody(request);
+                response = request.execute();
+            } catch (IOException | RuntimeException e) {
+                instance.finished();
+                balancer.onFailure(instance);
+                throw e;
+            }
+            try {
+                status = response.getStatusCode();
+            } catch (IOException | RuntimeException e) {
+                response.close();
+                instance.finished();
+                balancer.onFailure(instance);
+                throw e;
+            }
+            if (status.is5xxServerError()) {
+                balancer.onFailure(instance);
+            } else {
+                balancer.onSuccess(instance);
+            }
+            return new BalancedResponse(response, instance);
+        }
+
+        private void writeBody(ClientHttpRequest request) throws IOException {
+            if (body != null) {
+                if (request instanceof StreamingHttpOutputMessage streaming) {
+                    streaming.setBody(body);
+                } else {
+                    body.writeTo(request.getBody());
+                }
+            } else if (bufferedBody != null) {
+                bufferedBody.writeTo(request.getBody());
+            }
+        }
+
+        @Override
+        public void setBody(Body body) {
+            this.body = body;
+        }
+
+        @Override
+        public OutputStream getBody() {
+            if (bufferedBody == null) {
+                bufferedBody = new ByteArrayOutputStream();
+            }
+            return bufferedBody;
+        }
+
+        @Override
+        public HttpMethod getMethod() {
+            return method;
+        }
+
+        @Override
+        public URI getURI() {
+            return uri;
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return headers;
+        }
+    }
+
+    private static final class BalancedResponse implements ClientHttpResponse {
+        private final ClientHttpResponse response;
+        private final ServerInstance instance;
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        private BalancedResponse(ClientHttpResponse response, ServerInstance instance) {
+            this.response = response;
+            this.instance = instance;
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() throws IOException {
+            return response.getStatusCode();
+        }
+
+        @Override
+        public String getStatusText() throws IOException {
+            return response.getStatusText();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return response.getHeaders();
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            return response.getBody();
+        }
+
+        @Override
+        public void close() {
+            response.close();
+            if (closed.compareAndSet(false, true)) {
+                instance.finished();
+            }
+        }
+    }
+}
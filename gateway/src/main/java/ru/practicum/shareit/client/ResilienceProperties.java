@@ -0,0 +1,62 @@
+package ru.practicum.shareit.client;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.experimental.FieldDefaults;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+// Настройки изоляции вызовов сервера (префикс shareit-gateway.resilience)
+@Getter
+@Setter
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@ConfigurationProperties(prefix = "shareit-gateway.resilience")
+public class ResilienceProperties {
+    // Одновременные вызовы сервера по клиентам шлюза (items, bookings, users, requests) на один экземпляр
+    // сервера; общий лимит — это значение, умноженное на число доступных экземпляров.
+    // Сумма лимитов на экземпляр не должна превышать shareit-server.http.max-per-route:
+    // иначе вызовы в пределах лимита ждут соединения из пула HTTP-клиента
+    Map<String, BulkheadLimits> bulkheads = new HashMap<>();
+    // Столько запрос ждёт свободного места, прежде чем получить отказ: дольше обычного вызова сервера,
+    // чтобы всплески вставали в очередь
+    Duration bulkheadMaxWait = Duration.ofSeconds(2);
+    CircuitBreakerSettings circuitBreaker = new CircuitBreakerSettings();
+
+    public BulkheadLimits bulkhead(String client) {
+        return bulkheads.getOrDefault(client, new BulkheadLimits());
+    }
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @FieldDefaults(level = AccessLevel.PRIVATE)
+    public static class BulkheadLimits {
+        // Чтение и запись ограничиваются отдельно: поток чтений не занимает места записей
+        int maxConcurrentReads = 10;
+        int maxConcurrentWrites = 5;
+    }
+
+    @Getter
+    @Setter
+    @FieldDefaults(level = AccessLevel.PRIVATE)
+    public static class CircuitBreakerSettings {
+        // Доля неудачных вызовов в процентах среди последних slidingWindowSize, при которой цепь размыкается
+        int failureRateThreshold = 50;
+        int slidingWindowSize = 20;
+        // Меньше вызовов в окне — доля ошибок ещё не показательна
+        int minimumCalls = 10;
+        // Вызов дольше этого считается неудачным, даже если сервер ответил
+        Duration slowCallDuration = Duration.ofSeconds(5);
+        // Столько разомкнутая цепь отклоняет вызовы до пробных
+        Duration waitInOpenState = Duration.ofSeconds(10);
+        // Столько пробных вызовов должно пройти успешно, чтобы цепь замкнулась
+        int halfOpenCalls = 3;
+    }
+}
@@ -0,0 +1,126 @@
+package ru.practicum.shareit.client;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+// Кэш ответов на GET-запросы, не зависящие от пользователя.
+// Свежий ответ отдаётся из памяти. Устаревший тоже отдаётся сразу, а новый запрашивается в фоне
+// (stale-while-revalidate). Записи вытесняются по суммарному размеру тел,
+// запись данных сбрасывает ответы своей группы
+@Slf4j
+@Component
+@EnableConfigurationProperties(ResponseCacheProperties.class)
+public class ResponseCache {
+    private final Cache<Key, Entry> entries;
+    // Номер версии группы растёт при каждом сбросе: ответ, запрошенный до сброса, в кэш уже не попадает
+    private final Map<Region, AtomicLong> generations = new EnumMap<>(Region.class);
+    private final long ttlNanos;
+    private final TaskExecutor refreshExecutor;
+    private final Counter stale;
+
+    public ResponseCache(ResponseCacheProperties properties, TaskExecutor taskExecutor, MeterRegistry meterRegistry) {
+        this.entries = Caffeine.newBuilder()
+                .maximumWeight(properties.getMaxSize().toBytes())
+                .weigher((Key key, Entry entry) -> entry.response().body().length)
+                .expireAfterWrite(properties.getTtl().plus(properties.getStaleWhileRevalidate()))
+                .recordStats()
+                .build();
+        for (Region region : Region.values()) {
+            generations.put(region, new AtomicLong());
+        }
+        this.ttlNanos = properties.getTtl().toNanos();
+        this.refreshExecutor = taskExecutor;
+        CaffeineCacheMetrics.monitor(meterRegistry, entries, "gateway-responses");
+        stale = Counter.builder("shareit.gateway.response-cache.stale")
+                .description("Устаревшие ответы, отданные из кэша на время фонового обновления")
+                .register(meterRegistry);
+    }
+
+    // Ответ на запрос uri из группы region: из кэша или от сервера, если в кэше его нет
+    public GetCoalescer.BufferedResponse get(Region region, String uri,
+                                             Supplier<GetCoalescer.BufferedResponse> request) {
+        Key key = new Key(region, uri);
+        Entry entry = entries.getIfPresent(key);
+        if (entry == null) {
+            return load(key, request);
+        }
+        if (System.nanoTime() - entry.loadedAt() > ttlNanos) {
+            stale.increment();
+            // Обновление запускает только первый запрос, заставший ответ устаревшим
+            if (entry.refreshing().compareAndSet(false, true)) {
+                refreshExecutor.execute(() -> refresh(key, entry, request));
+            }
+        }
+        return entry.response();
+    }
+
+    // Сбрасывает ответы групп после записи данных, от которых они зависят
+    public void invalidate(Region... regions) {
+        for (Region region : regions) {
+            generations.get(region).incrementAndGet();
+            entries.asMap().keySet().removeIf(key -> key.region() == region);
+        }
+    }
+
+    private GetCoalescer.BufferedResponse load(Key key, Supplier<GetCoalescer.BufferedResponse> request) {
+        long generation = generations.get(key.region()).get();
+        GetCoalescer.BufferedResponse response = request.get();
+        store(key, generation, response);
+        return response;
+    }
+
+    private void refresh(Key key, Entry entry, Supplier<GetCoalescer.BufferedResponse> request) {
+        try {
+            load(key, request);
+        } catch (RuntimeException e) {
+            // Устаревший ответ остаётся в кэше, следующий запрос попробует обновить его снова
+            log.warn("Не удалось обновить ответ {} в кэше: {}", key.uri(), e.getMessage());
+        } finally {
+            entry.refreshing().set(false);
+        }
+    }
+
+    // Кэшируются только успешные ответы
+    private void store(Key key, long generation, GetCoalescer.BufferedResponse response) {
+        if (!response.status().is2xxSuccessful()) {
+            return;
+        }
+        AtomicLong current = generations.get(key.region());
+        if (current.get() != generation) {
+            return;
+        }
+        Entry entry = new Entry(response, System.nanoTime(), new AtomicBoolean());
+        entries.put(key, entry);
+        // Сброс мог пройти между проверкой и записью: тогда убираем только что записанный ответ
+        if (current.get() != generation) {
+            entries.asMap().remove(key, entry);
+        }
+    }
+
+    // Группы ответов, которые сбрасываются вместе
+    public enum Region {
+        // Поиск вещей
+        ITEM_SEARCH,
+        // Запросы вещей с ответами на них
+        ITEM_REQUESTS
+    }
+
+    private record Key(Region region, String uri) {
+    }
+
+    private record Entry(GetCoalescer.BufferedResponse response, long loadedAt, AtomicBoolean refreshing) {
+    }
+}
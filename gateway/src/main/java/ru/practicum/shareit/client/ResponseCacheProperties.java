@@ -0,0 +1,24 @@
+package ru.practicum.shareit.client;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.experimental.FieldDefaults;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+// Настройки кэша ответов шлюза (префикс shareit-gateway.response-cache)
+@Getter
+@Setter
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@ConfigurationProperties(prefix = "shareit-gateway.response-cache")
+public class ResponseCacheProperties {
+    // Столько ответ считается свежим и отдаётся без обращения к серверу
+    Duration ttl = Duration.ofSeconds(10);
+    // Столько после этого устаревший ответ ещё отдаётся, пока в фоне запрашивается новый
+    Duration staleWhileRevalidate = Duration.ofSeconds(50);
+    // Суммарный размер тел ответов в кэше, сверх него вытесняются редко используемые
+    DataSize maxSize = DataSize.ofMegabytes(64);
+}
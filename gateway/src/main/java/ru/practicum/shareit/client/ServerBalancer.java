@@ -0,0 +1,271 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Распределение запросов шлюза между экземплярами сервера без внешнего балансировщика.
+// Запросы пользователя идут на его экземпляр по кольцу согласованного хеширования: там его данные уже в кэшах.
+// Если экземпляр недоступен или загружен сильнее среднего, запрос уходит на следующий по кольцу.
+// Запросы без пользователя — на менее загруженный из двух случайных доступных экземпляров.
+// Экземпляр, на котором запросы подряд завершаются неудачей, на время исключается из выбора.
+// Файл экземпляров перечитывается в фоне: запрос, заметивший, что пора проверить файл, не ждёт чтения
+@Slf4j
+@Component
+@EnableConfigurationProperties(ServerInstancesProperties.class)
+public class ServerBalancer {
+    private final ServerInstancesProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final TaskExecutor reloadExecutor;
+    private final long ejectionNanos;
+    // Список меняют перечитывание файла и конструктор; ReentrantLock, а не synchronized,
+    // чтобы виртуальные потоки не закреплялись на носителе
+    private final ReentrantLock updateLock = new ReentrantLock();
+    private final AtomicLong nextFileCheck = new AtomicLong(System.nanoTime());
+    private final Counter affinityHome;
+    private final Counter affinitySpilled;
+    private final Counter affinityFallback;
+    private volatile Topology topology = new Topology(List.of(), new long[0], new ServerInstance[0]);
+    private volatile long instancesFileModified;
+
+    public ServerBalancer(ServerInstancesProperties properties, TaskExecutor taskExecutor,
+                          MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.reloadExecutor = taskExecutor;
+        this.ejectionNanos = properties.getEjectionTime().toNanos();
+        affinityHome = affinityCounter(meterRegistry, "home");
+        affinitySpilled = affinityCounter(meterRegistry, "spilled");
+        affinityFallback = affinityCounter(meterRegistry, "fallback");
+        if (properties.getInstancesFile() != null) {
+            reloadInstancesFile();
+        }
+        if (topology.instances().isEmpty()) {
+            update(properties.getInstances().isEmpty() ? List.of(properties.getUrl()) : properties.getInstances());
+        }
+    }
+
+    // Экземпляр для запроса пользователя routingKey; без пользователя — менее загруженный
+    ServerInstance choose(@Nullable String routingKey) {
+        checkInstancesFile();
+        Topology current = topology;
+        long now = System.nanoTime();
+        if (routingKey != null && properties.getRouting() == ServerInstancesProperties.Routing.USER_AFFINITY
+                && current.instances().size() > 1) {
+            ServerInstance instance = chooseByKey(current, routingKey, now);
+            if (instance != null) {
+                return instance;
+            }
+            affinityFallback.increment();
+        }
+        return chooseLeastOutstanding(current.instances(), now);
+    }
+
+    // Обход кольца от точки ключа: первый доступный экземпляр, у которого незавершённых запросов меньше
+    // ceil(loadFactor * (всего + 1) / доступных). Хотя бы один экземпляр всегда ниже этой границы,
+    // а ключи перегруженного экземпляра расходятся по разным соседям, а не все на один
+    @Nullable
+    private ServerInstance chooseByKey(Topology topology, String key, long now) {
+        List<ServerInstance> available = topology.instances().stream()
+                .filter(instance -> instance.isAvailable(now))
+                .toList();
+        if (available.isEmpty()) {
+            return null;
+        }
+        int total = available.stream().mapToInt(ServerInstance::outstanding).sum();
+        double limit = Math.ceil(properties.getLoadFactor() * (total + 1) / available.size());
+        long[] points = topology.points();
+        ServerInstance[] owners = topology.owners();
+        int start = Arrays.binarySearch(points, hash(key));
+        if (start < 0) {
+            start = -start - 1;
+        }
+        for (int step = 0; step < points.length; step++) {
+            ServerInstance candidate = owners[(start + step) % points.length];
+            if (candidate.isAvailable(now) && candidate.outstanding() < limit) {
+                (candidate == owners[start % points.length] ? affinityHome : affinitySpilled).increment();
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    // Из двух случайных доступных экземпляров — тот, у кого меньше незавершённых запросов
+    private static ServerInstance chooseLeastOutstanding(List<ServerInstance> instances, long now) {
+        List<ServerInstance> candidates = instances.stream().filter(instance -> instance.isAvailable(now)).toList();
+        // Исключены все — пробуем все: лучше запрос к, возможно, восстановившемуся экземпляру, чем отказ
+        if (candidates.isEmpty()) {
+            candidates = instances;
+        }
+        if (candidates.size() == 1) {
+            return candidates.getFirst();
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(candidates.size());
+        int second = random.nextInt(candidates.size() - 1);
+        if (second >= first) {
+            second++;
+        }
+        ServerInstance a = candidates.get(first);
+        ServerInstance b = candidates.get(second);
+        return a.outstanding() <= b.outstanding() ? a : b;
+    }
+
+    // Адрес запроса на выбранном экземпляре: адрес shareit-server.url в начале заменяется адресом экземпляра
+    URI resolve(URI uri, ServerInstance instance) {
+        String value = uri.toString();
+        if (!value.startsWith(properties.getUrl())) {
+            return uri;
+        }
+        return URI.create(instance.url() + value.substring(properties.getUrl().length()));
+    }
+
+    void onSuccess(ServerInstance instance) {
+        instance.onSuccess();
+    }
+
+    void onFailure(ServerInstance instance) {
+        if (instance.onFailure(properties.getFailuresToEject(), ejectionNanos)) {
+            log.warn("Экземпляр сервера {} исключён из балансировки после {} неудачных запросов подряд",
+                    instance.url(), properties.getFailuresToEject());
+        }
+    }
+
+    // Доступные сейчас экземпляры; исключены все — считаем все, как и при выборе экземпляра
+    int availableInstances() {
+        List<ServerInstance> instances = topology.instances();
+        long now = System.nanoTime();
+        int available = (int) instances.stream().filter(instance -> instance.isAvailable(now)).count();
+        return available > 0 ? available : instances.size();
+    }
+
+    public List<InstanceStats> stats() {
+        return topology.instances().stream().map(ServerInstance::stats).toList();
+    }
+
+    private void checkInstancesFile() {
+        if (properties.getInstancesFile() == null) {
+            return;
+        }
+        long now = System.nanoTime();
+        long next = nextFileCheck.get();
+        // Проверку запускает один запрос за интервал, чтение файла идёт в фоне
+        if (now - next >= 0 && nextFileCheck.compareAndSet(next,
+                now + properties.getInstancesFileCheckInterval().toNanos())) {
+            reloadExecutor.execute(this::reloadInstancesFile);
+        }
+    }
+
+    // Под блокировкой списка: перечитывания, запущенные подряд, применяют файл по очереди
+    private void reloadInstancesFile() {
+        updateLock.lock();
+        try {
+            readInstancesFile();
+        } finally {
+            updateLock.unlock();
+        }
+    }
+
+    private void readInstancesFile() {
+        Path file = Path.of(properties.getInstancesFile());
+        try {
+            long modified = Files.getLastModifiedTime(file).toMillis();
+            if (modified == instancesFileModified) {
+                return;
+            }
+            List<String> urls = Files.readAllLines(file).stream()
+                    .map(String::strip)
+                    .filter(line -> !line.isEmpty() && !line.startsWith("#"))
+                    .toList();
+            if (urls.isEmpty()) {
+                log.warn("Файл экземпляров сервера {} пуст, список не изменён", file);
+                return;
+            }
+            instancesFileModified = modified;
+            update(urls);
+        } catch (IOException e) {
+            log.warn("Не удалось прочитать файл экземпляров сервера {}, список не изменён: {}", file, e.getMessage());
+        }
+    }
+
+    // Экземпляры, оставшиеся в списке, сохраняют свою статистику и свои точки на кольце:
+    // при добавлении или удалении экземпляра меняется экземпляр только у части пользователей
+    private void update(List<String> urls) {
+        updateLock.lock();
+        try {
+            replaceTopology(urls);
+        } finally {
+            updateLock.unlock();
+        }
+    }
+
+    private void replaceTopology(List<String> urls) {
+        Map<String, ServerInstance> existing = topology.instances().stream()
+                .collect(Collectors.toMap(ServerInstance::url, Function.identity()));
+        List<ServerInstance> updated = new ArrayList<>();
+        TreeMap<Long, ServerInstance> ring = new TreeMap<>();
+        for (String url : urls.stream().distinct().toList()) {
+            ServerInstance instance = existing.remove(url);
+            instance = instance != null ? instance : new ServerInstance(url, meterRegistry);
+            updated.add(instance);
+            for (int node = 0; node < properties.getVirtualNodes(); node++) {
+                ring.put(hash(url + "#" + node), instance);
+            }
+        }
+        existing.values().forEach(instance -> instance.removeMeters(meterRegistry));
+        topology = new Topology(List.copyOf(updated),
+                ring.keySet().stream().mapToLong(Long::longValue).toArray(),
+                ring.values().toArray(ServerInstance[]::new));
+        log.info("Экземпляры сервера: {}", urls);
+    }
+
+    // 64-битный FNV-1a с перемешиванием финализатором MurmurHash3: соседние ключи расходятся по всему кольцу
+    private static long hash(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b;
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    private static Counter affinityCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("shareit.gateway.server.affinity")
+                .description("Запросы пользователей: на свой экземпляр, на следующий по кольцу или без привязки")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    // Экземпляры и кольцо меняются вместе одной записью
+    private record Topology(List<ServerInstance> instances, long[] points, ServerInstance[] owners) {
+    }
+
+    public record InstanceStats(String url, boolean available, int outstanding, long succeeded, long failed,
+                                long ejections, long ejectedForMillis) {
+    }
+}
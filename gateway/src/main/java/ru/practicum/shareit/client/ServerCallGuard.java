@@ -0,0 +1,122 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import ru.practicum.shareit.exception.ServiceUnavailableException;
+
+import java.util.Locale;
+import java.util.function.IntSupplier;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+// Изоляция вызовов сервера одним клиентом шлюза: отдельные лимиты одновременных чтений и записей
+// на каждый доступный экземпляр сервера и отдельные выключатели чтений и записей.
+// Медленные списки и поиск размыкают только цепь чтений: записи клиента продолжают проходить
+// Медленным вызов считается по времени до получения заголовков ответа: клиенты, отдающие тело потоком,
+// читают его уже после возврата из call, и медленный клиент шлюза не размыкает цепь
+public class ServerCallGuard {
+    private final Bulkhead reads;
+    private final Bulkhead writes;
+    private final CircuitBreaker readBreaker;
+    private final CircuitBreaker writeBreaker;
+    private final long slowCallNanos;
+    private final CallCounters readCalls;
+    private final CallCounters writeCalls;
+    private final Counter readsRejected;
+    private final Counter writesRejected;
+
+    ServerCallGuard(String client, ResilienceProperties properties, IntSupplier instances,
+                    MeterRegistry meterRegistry) {
+        ResilienceProperties.BulkheadLimits limits = properties.bulkhead(client);
+        reads = new Bulkhead(client + " (чтение)", limits.getMaxConcurrentReads(), instances,
+                properties.getBulkheadMaxWait());
+        writes = new Bulkhead(client + " (запись)", limits.getMaxConcurrentWrites(), instances,
+                properties.getBulkheadMaxWait());
+        readBreaker = new CircuitBreaker(client + " (чтение)", properties.getCircuitBreaker());
+        writeBreaker = new CircuitBreaker(client + " (запись)", properties.getCircuitBreaker());
+        slowCallNanos = properties.getCircuitBreaker().getSlowCallDuration().toNanos();
+
+        readCalls = breakerMeters(meterRegistry, client, "read", readBreaker);
+        writeCalls = breakerMeters(meterRegistry, client, "write", writeBreaker);
+        readsRejected = bulkheadMeters(meterRegistry, client, "read", reads);
+        writesRejected = bulkheadMeters(meterRegistry, client, "write", writes);
+    }
+
+    // Выполняет вызов сервера в пределах лимита и при замкнутой цепи.
+    // Неудача — исключение, ответ, признанный failure неудачным, или слишком долгий вызов
+    <T> T call(boolean write, Supplier<T> call, Predicate<T> failure) {
+        Bulkhead bulkhead = write ? writes : reads;
+        CircuitBreaker circuitBreaker = write ? writeBreaker : readBreaker;
+        CallCounters calls = write ? writeCalls : readCalls;
+        try {
+            bulkhead.acquire();
+        } catch (ServiceUnavailableException e) {
+            (write ? writesRejected : readsRejected).increment();
+            throw e;
+        }
+        try {
+            circuitBreaker.acquirePermission();
+        } catch (ServiceUnavailableException e) {
+            bulkhead.release();
+            calls.rejected().increment();
+            throw e;
+        }
+        long start = System.nanoTime();
+        boolean success = false;
+        try {
+            T result = call.get();
+            success = !failure.test(result) && System.nanoTime() - start < slowCallNanos;
+            return result;
+        } finally {
+            circuitBreaker.onResult(success);
+            (success ? calls.succeeded() : calls.failed()).increment();
+            bulkhead.release();
+        }
+    }
+
+    CircuitBreaker.State state(boolean write) {
+        return (write ? writeBreaker : readBreaker).state();
+    }
+
+    private static CallCounters breakerMeters(MeterRegistry meterRegistry, String client, String kind,
+                                              CircuitBreaker circuitBreaker) {
+        for (CircuitBreaker.State state : CircuitBreaker.State.values()) {
+            Gauge.builder("shareit.gateway.circuit-breaker.state", circuitBreaker, cb -> cb.state() == state ? 1 : 0)
+                    .description("Текущее состояние выключателя: 1 у действующего состояния")
+                    .tag("client", client)
+                    .tag("kind", kind)
+                    .tag("state", state.name().toLowerCase(Locale.ROOT))
+                    .register(meterRegistry);
+        }
+        return new CallCounters(callCounter(meterRegistry, client, kind, "success"),
+                callCounter(meterRegistry, client, kind, "failure"),
+                callCounter(meterRegistry, client, kind, "rejected"));
+    }
+
+    private static Counter callCounter(MeterRegistry meterRegistry, String client, String kind, String result) {
+        return Counter.builder("shareit.gateway.circuit-breaker.calls")
+                .description("Вызовы сервера: успешные, неудачные и отклонённые разомкнутой цепью")
+                .tag("client", client)
+                .tag("kind", kind)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private static Counter bulkheadMeters(MeterRegistry meterRegistry, String client, String kind,
+                                          Bulkhead bulkhead) {
+        Gauge.builder("shareit.gateway.bulkhead.active", bulkhead, Bulkhead::active)
+                .description("Вызовы сервера, выполняющиеся сейчас")
+                .tag("client", client)
+                .tag("kind", kind)
+                .register(meterRegistry);
+        return Counter.builder("shareit.gateway.bulkhead.rejected")
+                .description("Вызовы сервера, отклонённые из-за лимита одновременных вызовов")
+                .tag("client", client)
+                .tag("kind", kind)
+                .register(meterRegistry);
+    }
+
+    private record CallCounters(Counter succeeded, Counter failed, Counter rejected) {
+    }
+}
@@ -0,0 +1,21 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+// Создаёт изоляцию вызовов сервера для каждого клиента шлюза по общим настройкам.
+// Лимиты одновременных вызовов растут и снижаются вместе с числом доступных экземпляров сервера
+@Component
+@RequiredArgsConstructor
+@EnableConfigurationProperties(ResilienceProperties.class)
+public class ServerCallGuards {
+    private final ResilienceProperties properties;
+    private final ServerBalancer serverBalancer;
+    private final MeterRegistry meterRegistry;
+
+    public ServerCallGuard forClient(String client) {
+        return new ServerCallGuard(client, properties, serverBalancer::availableInstances, meterRegistry);
+    }
+}
@@ -0,0 +1,31 @@
+package ru.practicum.shareit.client;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.experimental.FieldDefaults;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+// Настройки пула HTTP-соединений шлюза с сервером (префикс shareit-server.http)
+@Getter
+@Setter
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@ConfigurationProperties(prefix = "shareit-server.http")
+public class ServerHttpClientProperties {
+    // Максимум соединений в пуле и на один адрес сервера
+    int maxTotal = 200;
+    int maxPerRoute = 100;
+    // Время на установку соединения и на ожидание ответа сервера
+    Duration connectTimeout = Duration.ofSeconds(2);
+    Duration responseTimeout = Duration.ofSeconds(10);
+    // Сколько запрос ждёт свободного соединения из пула
+    Duration connectionRequestTimeout = Duration.ofSeconds(1);
+    // Простаивающее дольше соединение проверяется перед повторным использованием
+    Duration validateAfterInactivity = Duration.ofSeconds(2);
+    // Простаивающее дольше соединение закрывается фоновым потоком
+    Duration idleEviction = Duration.ofSeconds(30);
+    // Срок жизни keep-alive, если сервер не указал свой
+    Duration keepAlive = Duration.ofSeconds(30);
+}
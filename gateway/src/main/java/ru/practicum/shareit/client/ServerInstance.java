@@ -0,0 +1,105 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Экземпляр сервера: незавершённые запросы, неудачи подряд и исключение из балансировки
+class ServerInstance {
+    private static final int MAX_EJECTION_MULTIPLIER = 10;
+
+    private final String url;
+    private final AtomicInteger outstanding = new AtomicInteger();
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private final AtomicInteger consecutiveEjections = new AtomicInteger();
+    private volatile boolean ejected;
+    private volatile long ejectedUntil;
+    private final Counter succeeded;
+    private final Counter failed;
+    private final Counter ejections;
+    private final List<Meter> meters;
+
+    ServerInstance(String url, MeterRegistry meterRegistry) {
+        this.url = url;
+        succeeded = requestCounter(meterRegistry, "success");
+        failed = requestCounter(meterRegistry, "failure");
+        ejections = Counter.builder("shareit.gateway.server.ejections")
+                .description("Исключения экземпляра сервера из балансировки")
+                .tag("instance", url)
+                .register(meterRegistry);
+        Gauge outstandingGauge = Gauge.builder("shareit.gateway.server.outstanding", outstanding, AtomicInteger::get)
+                .description("Незавершённые запросы к экземпляру сервера")
+                .tag("instance", url)
+                .register(meterRegistry);
+        Gauge availableGauge = Gauge.builder("shareit.gateway.server.available", this,
+                        instance -> instance.isAvailable(System.nanoTime()) ? 1 : 0)
+                .description("1, если экземпляр сервера участвует в балансировке")
+                .tag("instance", url)
+                .register(meterRegistry);
+        meters = List.of(succeeded, failed, ejections, outstandingGauge, availableGauge);
+    }
+
+    String url() {
+        return url;
+    }
+
+    int outstanding() {
+        return outstanding.get();
+    }
+
+    boolean isAvailable(long now) {
+        return !ejected || now - ejectedUntil >= 0;
+    }
+
+    void started() {
+        outstanding.incrementAndGet();
+    }
+
+    void finished() {
+        outstanding.decrementAndGet();
+    }
+
+    void onSuccess() {
+        succeeded.increment();
+        consecutiveFailures.set(0);
+        consecutiveEjections.set(0);
+        ejected = false;
+    }
+
+    // Возвращает true, если экземпляр только что исключён
+    boolean onFailure(int failuresToEject, long ejectionNanos) {
+        failed.increment();
+        if (consecutiveFailures.incrementAndGet() < failuresToEject) {
+            return false;
+        }
+        consecutiveFailures.set(0);
+        int multiplier = Math.min(consecutiveEjections.incrementAndGet(), MAX_EJECTION_MULTIPLIER);
+        ejectedUntil = System.nanoTime() + ejectionNanos * multiplier;
+        ejected = true;
+        ejections.increment();
+        return true;
+    }
+
+    ServerBalancer.InstanceStats stats() {
+        long now = System.nanoTime();
+        boolean available = isAvailable(now);
+        return new ServerBalancer.InstanceStats(url, available, outstanding.get(), (long) succeeded.count(),
+                (long) failed.count(), (long) ejections.count(), available ? 0 : (ejectedUntil - now) / 1_000_000);
+    }
+
+    void removeMeters(MeterRegistry meterRegistry) {
+        meters.forEach(meterRegistry::remove);
+    }
+
+    private Counter requestCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("shareit.gateway.server.requests")
+                .description("Запросы к экземпляру сервера по результату")
+                .tag("instance", url)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
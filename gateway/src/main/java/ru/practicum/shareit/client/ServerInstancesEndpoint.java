@@ -0,0 +1,21 @@
+package ru.practicum.shareit.client;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+// Состояние экземпляров сервера: /actuator/servers
+@Component
+@Endpoint(id = "servers")
+@RequiredArgsConstructor
+public class ServerInstancesEndpoint {
+    private final ServerBalancer serverBalancer;
+
+    @ReadOperation
+    public List<ServerBalancer.InstanceStats> servers() {
+        return serverBalancer.stats();
+    }
+}
@@ -0,0 +1,47 @@
+package ru.practicum.shareit.client;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.experimental.FieldDefaults;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+// Экземпляры сервера, между которыми шлюз распределяет запросы (префикс shareit-server)
+@Getter
+@Setter
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@ConfigurationProperties(prefix = "shareit-server")
+public class ServerInstancesProperties {
+    // Адрес, от которого клиенты строят запросы; без списка экземпляров запросы идут на него
+    String url = "http://localhost:9090";
+    // Адреса экземпляров сервера
+    List<String> instances = new ArrayList<>();
+    // Файл со списком экземпляров по одному адресу в строке; если задан, заменяет instances
+    // и перечитывается после изменения
+    String instancesFile;
+    // Как часто проверять, изменился ли файл
+    Duration instancesFileCheckInterval = Duration.ofSeconds(5);
+    // Столько неудачных запросов подряд (ошибка соединения, таймаут, ответ 5xx) исключают экземпляр
+    int failuresToEject = 3;
+    // На столько экземпляр исключается; каждое следующее исключение подряд — на это время больше, до 10 раз
+    Duration ejectionTime = Duration.ofSeconds(30);
+    // Выбор экземпляра для запроса
+    Routing routing = Routing.USER_AFFINITY;
+    // Точек на кольце у каждого экземпляра: чем больше, тем ровнее делятся пользователи
+    int virtualNodes = 160;
+    // Во сколько раз незавершённых запросов у экземпляра может быть больше среднего,
+    // прежде чем запросы его пользователей уйдут на следующий по кольцу
+    double loadFactor = 1.25;
+
+    public enum Routing {
+        // Из двух случайных экземпляров — менее загруженный
+        LEAST_OUTSTANDING,
+        // Запросы одного пользователя — на один экземпляр по кольцу согласованного хеширования,
+        // запросы без пользователя — как LEAST_OUTSTANDING
+        USER_AFFINITY
+    }
+}
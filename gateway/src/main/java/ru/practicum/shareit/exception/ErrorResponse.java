@@ -0,0 +1,11 @@
+package ru.practicum.shareit.exception;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class ErrorResponse {
+    private final String error;
+    private final String message;
+}
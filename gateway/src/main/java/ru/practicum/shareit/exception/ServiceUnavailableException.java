@@ -0,0 +1,16 @@
+package ru.practicum.shareit.exception;
+
+import lombok.Getter;
+
+import java.time.Duration;
+
+@Getter
+public class ServiceUnavailableException extends RuntimeException {
+    // Через сколько можно повторить запрос
+    private final Duration retryAfter;
+
+    public ServiceUnavailableException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+}
@@ -3,15 +3,20 @@ package ru.practicum.shareit.item;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.GetCoalescer;
+import ru.practicum.shareit.client.ResponseCache;
+import ru.practicum.shareit.client.ServerCallGuards;
 import ru.practicum.shareit.item.dto.CommentCreateDto;
 import ru.practicum.shareit.item.dto.ItemCreateDto;
 import ru.practicum.shareit.item.dto.ItemUpdateDto;
 
+import java.io.InputStream;
 import java.util.Map;
 
 @Service
@@ -19,12 +24,18 @@ public class ItemClient extends BaseClient {
     private static final String API_PREFIX = "/items";
 
     @Autowired
-    public ItemClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public ItemClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder,
+                      ClientHttpRequestFactory serverRequestFactory, GetCoalescer getCoalescer,
+                      ResponseCache responseCache,
+                      ServerCallGuards serverCallGuards) {
         super(
                 builder
                         .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(() -> new HttpComponentsClientHttpRequestFactory())
-                        .build()
+                        .requestFactory(() -> serverRequestFactory)
+                        .build(),
+                getCoalescer,
+                responseCache,
+                serverCallGuards.forClient("items")
         );
     }
 
@@ -33,22 +44,33 @@ public class ItemClient extends BaseClient {
     }
 
     public ResponseEntity<Object> findById(Long itemId, Long userId) {
-        return get("/" + itemId, userId);
+        return getCoalesced("/" + itemId, userId);
     }
 
-    public ResponseEntity<Object> findByText(String text, Long userId) {
+    // Результат поиска не зависит от пользователя и отдаётся из кэша
+    public ResponseEntity<Object> findByText(String text, Integer from, Integer size) {
         Map<String, Object> parameters = Map.of(
-                "text", text
+                "text", text == null ? "" : text,
+                "from", from,
+                "size", size
         );
-        return get("/search?text={text}", userId, parameters);
+        return getCached(ResponseCache.Region.ITEM_SEARCH, "/search?text={text}&from={from}&size={size}", parameters);
     }
 
-    public ResponseEntity<Object> create(ItemCreateDto itemDto, Long userId) {
-        return post("", userId, itemDto);
+    public ResponseEntity<Object> create(ItemCreateDto itemDto, Long userId, String idempotencyKey) {
+        // Новая вещь может попасть в поиск и в ответы на запрос
+        return invalidateOnSuccess(postIdempotent("", userId, itemDto, idempotencyKey),
+                ResponseCache.Region.ITEM_SEARCH, ResponseCache.Region.ITEM_REQUESTS);
+    }
+
+    public ResponseEntity<Object> importItems(InputStream items, Long userId) {
+        return invalidateOnSuccess(postStream("/import", userId, MediaType.APPLICATION_NDJSON, items),
+                ResponseCache.Region.ITEM_SEARCH, ResponseCache.Region.ITEM_REQUESTS);
     }
 
     public ResponseEntity<Object> update(ItemUpdateDto itemDto, Long userId, Long itemId) {
-        return patch("/" + itemId, userId, itemDto);
+        return invalidateOnSuccess(patch("/" + itemId, userId, itemDto),
+                ResponseCache.Region.ITEM_SEARCH, ResponseCache.Region.ITEM_REQUESTS);
     }
 
     public ResponseEntity<Object> createComment(CommentCreateDto comment, Long userId, Long itemId) {
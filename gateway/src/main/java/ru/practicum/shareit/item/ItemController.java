@@ -2,10 +2,14 @@ package ru.practicum.shareit.item;
 
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.client.BaseClient;
 import ru.practicum.shareit.item.dto.*;
 
+import java.io.InputStream;
+
 @RestController
 @RequestMapping("/items")
 @RequiredArgsConstructor
@@ -13,7 +17,9 @@ public class ItemController {
     private final String itemsIdPath = "/{id}";
     private final String searchPath = "/search";
     private final String commentPath = "/{itemId}/comment";
+    private final String importPath = "/import";
     private final String userIdHeader = "X-Sharer-User-Id";
+    private final String idempotencyKeyHeader = BaseClient.IDEMPOTENCY_KEY_HEADER;
     private final ItemClient itemClient;
 
     @GetMapping()
@@ -30,14 +36,24 @@ public class ItemController {
 
     @GetMapping(searchPath)
     public ResponseEntity<Object> findItemByText(@RequestParam(required = false) String text,
-                                                 @RequestHeader(value = userIdHeader, required = false) Long userId) {
-        return itemClient.findByText(text, userId);
+                                                 @RequestParam(name = "from", defaultValue = "0") Integer from,
+                                                 @RequestParam(name = "size", defaultValue = "10") Integer size) {
+        return itemClient.findByText(text, from, size);
     }
 
     @PostMapping()
     public ResponseEntity<Object> create(@Valid @RequestBody ItemCreateDto itemDto,
-                          @RequestHeader(value = userIdHeader, required = false) Long userId) {
-        return itemClient.create(itemDto, userId);
+                          @RequestHeader(value = userIdHeader, required = false) Long userId,
+                          @RequestHeader(value = idempotencyKeyHeader, required = false) String idempotencyKey) {
+        return itemClient.create(itemDto, userId, idempotencyKey);
+    }
+
+    // NDJSON передаётся серверу потоком: сервер сам проверяет строки по правилам ItemCreateDto
+    // и сохраняет их пачками, а в его отчёте ошибки привязаны к номерам строк
+    @PostMapping(value = importPath, consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<Object> importItems(InputStream items,
+                                              @RequestHeader(value = userIdHeader, required = false) Long userId) {
+        return itemClient.importItems(items, userId);
     }
 
     @PatchMapping(itemsIdPath)
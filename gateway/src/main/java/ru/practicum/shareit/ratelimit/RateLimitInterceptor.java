@@ -0,0 +1,51 @@
+package ru.practicum.shareit.ratelimit;
+
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+// Проверяет лимит до вызова контроллера: запрос сверх лимита не доходит до сервера
+@Component
+@RequiredArgsConstructor
+public class RateLimitInterceptor implements HandlerInterceptor {
+    private final String searchPath = "/items/search";
+    private final String userIdHeader = "X-Sharer-User-Id";
+    private final RateLimiter rateLimiter;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // Пересылка на страницу ошибки — тот же запрос, второй раз его не считаем
+        if (request.getDispatcherType() == DispatcherType.REQUEST) {
+            rateLimiter.acquire(client(request), routeClass(request));
+        }
+        return true;
+    }
+
+    // Клиент — пользователь из заголовка, а без него — адрес, с которого пришёл запрос
+    private String client(HttpServletRequest request) {
+        String userId = request.getHeader(userIdHeader);
+        if (userId != null) {
+            try {
+                return "user " + Long.parseLong(userId.trim());
+            } catch (NumberFormatException ignored) {
+                // Некорректный заголовок отклонит контроллер, а считаем такой запрос по адресу
+            }
+        }
+        return "address " + request.getRemoteAddr();
+    }
+
+    private RouteClass routeClass(HttpServletRequest request) {
+        HttpMethod method = HttpMethod.valueOf(request.getMethod());
+        if (method == HttpMethod.GET && searchPath.equals(request.getServletPath())) {
+            return RouteClass.SEARCH;
+        }
+        if (method == HttpMethod.GET || method == HttpMethod.HEAD || method == HttpMethod.OPTIONS) {
+            return RouteClass.READ;
+        }
+        return RouteClass.WRITE;
+    }
+}
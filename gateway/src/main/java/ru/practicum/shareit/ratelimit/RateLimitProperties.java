@@ -0,0 +1,48 @@
+package ru.practicum.shareit.ratelimit;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.experimental.FieldDefaults;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+// Настройки ограничения частоты запросов пользователя (префикс shareit-gateway.rate-limit)
+@Getter
+@Setter
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@ConfigurationProperties(prefix = "shareit-gateway.rate-limit")
+public class RateLimitProperties {
+    boolean enabled = true;
+    // Лимиты по классам маршрутов
+    Limit read = new Limit(50, 100);
+    Limit write = new Limit(10, 20);
+    Limit search = new Limit(5, 10);
+    // Столько корзин пользователей хранится в памяти, сверх этого вытесняются редко используемые
+    long maximumBuckets = 100_000;
+    // Корзина без запросов дольше этого удаляется: к этому времени она всё равно заполнилась бы целиком
+    Duration idleTimeout = Duration.ofMinutes(1);
+
+    public Limit limit(RouteClass routeClass) {
+        return switch (routeClass) {
+            case READ -> read;
+            case WRITE -> write;
+            case SEARCH -> search;
+        };
+    }
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @FieldDefaults(level = AccessLevel.PRIVATE)
+    public static class Limit {
+        // Скорость пополнения корзины
+        double requestsPerSecond;
+        // Ёмкость корзины: столько запросов подряд проходит после простоя
+        int burst;
+    }
+}
@@ -0,0 +1,72 @@
+package ru.practicum.shareit.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.exception.TooManyRequestsException;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Ограничение частоты запросов по клиенту и классу маршрута корзиной токенов.
+// Корзина хранится одним числом — моментом, когда она снова станет полной (алгоритм GCRA):
+// каждый запрос сдвигает этот момент на интервал между токенами одной операцией compareAndSet, без блокировок.
+// Корзины лежат в ограниченном по размеру кэше, простаивающие удаляются
+@Component
+public class RateLimiter {
+    private final Cache<Key, AtomicLong> buckets;
+    private final Map<RouteClass, Rate> rates = new EnumMap<>(RouteClass.class);
+    private final Map<RouteClass, Counter> rejected = new EnumMap<>(RouteClass.class);
+
+    public RateLimiter(RateLimitProperties properties, MeterRegistry meterRegistry) {
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumBuckets())
+                .expireAfterAccess(properties.getIdleTimeout())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, buckets, "rate-limit-buckets");
+        for (RouteClass routeClass : RouteClass.values()) {
+            RateLimitProperties.Limit limit = properties.limit(routeClass);
+            long intervalNanos = (long) (Duration.ofSeconds(1).toNanos() / limit.getRequestsPerSecond());
+            rates.put(routeClass, new Rate(intervalNanos, intervalNanos * limit.getBurst()));
+            rejected.put(routeClass, Counter.builder("shareit.gateway.rate-limit.rejected")
+                    .description("Запросы, отклонённые ограничением частоты")
+                    .tag("route", routeClass.name().toLowerCase(Locale.ROOT))
+                    .register(meterRegistry));
+        }
+    }
+
+    // Пропускает запрос или бросает TooManyRequestsException со временем до появления токена
+    public void acquire(String client, RouteClass routeClass) {
+        Rate rate = rates.get(routeClass);
+        long now = System.nanoTime();
+        // Новая корзина полна
+        AtomicLong bucket = buckets.get(new Key(client, routeClass), key -> new AtomicLong(now));
+        while (true) {
+            long fullAt = bucket.get();
+            long next = (fullAt - now < 0 ? now : fullAt) + rate.intervalNanos();
+            long excess = next - now - rate.burstNanos();
+            if (excess > 0) {
+                rejected.get(routeClass).increment();
+                throw new TooManyRequestsException(String.format("Превышен лимит запросов %s для %s",
+                        routeClass.name().toLowerCase(Locale.ROOT), client), Duration.ofNanos(excess));
+            }
+            if (bucket.compareAndSet(fullAt, next)) {
+                return;
+            }
+        }
+    }
+
+    private record Key(String client, RouteClass routeClass) {
+    }
+
+    // Интервал между токенами и время, за которое пополняется пустая корзина
+    private record Rate(long intervalNanos, long burstNanos) {
+    }
+}
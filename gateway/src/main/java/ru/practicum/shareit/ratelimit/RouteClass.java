@@ -0,0 +1,11 @@
+package ru.practicum.shareit.ratelimit;
+
+// Классы маршрутов шлюза со своими лимитами запросов
+public enum RouteClass {
+    // Чтение
+    READ,
+    // Создание и изменение данных
+    WRITE,
+    // Поиск вещей: самый дорогой для сервера запрос
+    SEARCH
+}
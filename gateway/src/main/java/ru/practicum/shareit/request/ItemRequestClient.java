@@ -4,32 +4,48 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.GetCoalescer;
+import ru.practicum.shareit.client.ResponseCache;
+import ru.practicum.shareit.client.ServerCallGuards;
 import ru.practicum.shareit.request.dto.ItemRequestCreateDto;
 
+import java.util.Map;
+
 @Service
 public class ItemRequestClient extends BaseClient {
     private static final String API_PREFIX = "/requests";
 
     @Autowired
-    public ItemRequestClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public ItemRequestClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder,
+                             ClientHttpRequestFactory serverRequestFactory, GetCoalescer getCoalescer,
+                             ResponseCache responseCache,
+                             ServerCallGuards serverCallGuards) {
         super(
                 builder
                         .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(() -> new HttpComponentsClientHttpRequestFactory())
-                        .build()
+                        .requestFactory(() -> serverRequestFactory)
+                        .build(),
+                getCoalescer,
+                responseCache,
+                serverCallGuards.forClient("requests")
         );
     }
 
-    public ResponseEntity<Object> findAll() {
-        return get("");
+    // Список всех запросов и отдельный запрос не зависят от пользователя и отдаются из кэша
+    public ResponseEntity<Object> findAll(Integer from, Integer size) {
+        Map<String, Object> parameters = Map.of(
+                "from", from,
+                "size", size
+        );
+        return getCached(ResponseCache.Region.ITEM_REQUESTS, "/all?from={from}&size={size}", parameters);
     }
 
     public ResponseEntity<Object> findById(Long requestId) {
-        return get("/" + requestId);
+        return getCached(ResponseCache.Region.ITEM_REQUESTS, "/" + requestId, null);
     }
 
     public ResponseEntity<Object> findByRequestorId(Long requestorId) {
@@ -37,6 +53,6 @@ public class ItemRequestClient extends BaseClient {
     }
 
     public ResponseEntity<Object> createItemRequest(ItemRequestCreateDto itemRequestCreateDto, Long userId) {
-        return post("", userId, itemRequestCreateDto);
+        return invalidateOnSuccess(post("", userId, itemRequestCreateDto), ResponseCache.Region.ITEM_REQUESTS);
     }
 }
@@ -16,8 +16,9 @@ public class ItemRequestController {
     private final ItemRequestClient itemRequestClient;
 
     @GetMapping(allPath)
-    public ResponseEntity<Object> findAll() {
-        return itemRequestClient.findAll();
+    public ResponseEntity<Object> findAll(@RequestParam(name = "from", defaultValue = "0") Integer from,
+                                          @RequestParam(name = "size", defaultValue = "10") Integer size) {
+        return itemRequestClient.findAll(from, size);
     }
 
     @GetMapping(requestsIdPath)
@@ -0,0 +1,104 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.DefaultUriBuilderFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+public class BaseClientTest {
+    private static final String BODY = "[{\"id\":1,\"name\":\"Дрель\"}]";
+
+    private ClientHttpResponse response;
+    private List<MockClientHttpRequest> requests;
+    private TestClient client;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        response = mock(ClientHttpResponse.class);
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.set("X-Next-Cursor", "abc");
+        headers.set(HttpHeaders.TRANSFER_ENCODING, "chunked");
+        headers.set(HttpHeaders.CONNECTION, "keep-alive");
+        when(response.getStatusCode()).thenReturn(HttpStatus.CREATED);
+        when(response.getHeaders()).thenReturn(headers);
+        when(response.getBody()).thenReturn(new ByteArrayInputStream(BODY.getBytes(StandardCharsets.UTF_8)));
+
+        requests = new ArrayList<>();
+        RestTemplate rest = new RestTemplate((URI uri, HttpMethod method) -> {
+            MockClientHttpRequest request = new MockClientHttpRequest(method, uri);
+            request.setResponse(response);
+            requests.add(request);
+            return request;
+        });
+        rest.setUriTemplateHandler(new DefaultUriBuilderFactory("http://localhost:9090/items"));
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        client = new TestClient(rest, new GetCoalescer(meterRegistry),
+                new ResponseCache(new ResponseCacheProperties(), Runnable::run, meterRegistry),
+                new ServerCallGuard("items", new ResilienceProperties(), () -> 1, meterRegistry));
+    }
+
+    @Test
+    void testGetWhenServerRespondsThenPassStatusHeadersAndBodyThrough() throws IOException {
+        ResponseEntity<Object> result = client.get("", 7L, null);
+
+        assertThat(result.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        assertThat(result.getHeaders().getContentType()).isEqualTo(MediaType.APPLICATION_JSON);
+        assertThat(result.getHeaders().getFirst("X-Next-Cursor")).isEqualTo("abc");
+        assertThat(result.getHeaders()).doesNotContainKeys(HttpHeaders.TRANSFER_ENCODING, HttpHeaders.CONNECTION);
+        assertThat(requests.getFirst().getHeaders().getFirst(BaseClient.USER_ID_HEADER)).isEqualTo("7");
+
+        // Тело не прочитано заранее: ответ остаётся открытым, пока клиент не дочитает поток
+        verify(response, never()).close();
+        try (InputStream body = ((InputStreamResource) result.getBody()).getInputStream()) {
+            assertThat(new String(body.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo(BODY);
+        }
+        verify(response).close();
+    }
+
+    @Test
+    void testGetWhenReadingBodyFailsThenCloseResponse() throws IOException {
+        when(response.getBody()).thenThrow(new IOException("Connection reset"));
+
+        assertThatThrownBy(() -> client.get("", 7L, null)).isInstanceOf(RuntimeException.class);
+        verify(response).close();
+    }
+
+    @Test
+    void testGetCoalescedWhenServerRespondsThenBufferBodyAndCloseResponse() {
+        ResponseEntity<Object> result = client.getCoalesced("/1", 7L);
+
+        assertThat(result.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        assertThat(result.getHeaders().getFirst("X-Next-Cursor")).isEqualTo("abc");
+        assertThat(result.getHeaders()).doesNotContainKey(HttpHeaders.TRANSFER_ENCODING);
+        verify(response).close();
+    }
+
+    private static class TestClient extends BaseClient {
+        TestClient(RestTemplate rest, GetCoalescer getCoalescer, ResponseCache responseCache,
+                   ServerCallGuard serverCallGuard) {
+            super(rest, getCoalescer, responseCache, serverCallGuard);
+        }
+    }
+}
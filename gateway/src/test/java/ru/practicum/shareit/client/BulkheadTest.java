@@ -0,0 +1,74 @@
+package ru.practicum.shareit.client;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.exception.ServiceUnavailableException;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class BulkheadTest {
+    private AtomicInteger instances;
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        instances = new AtomicInteger(1);
+        executor = Executors.newSingleThreadExecutor();
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void testAcquireWhenLimitReachedThenRejectAfterMaxWait() {
+        Bulkhead bulkhead = new Bulkhead("users (чтение)", 2, instances::get, Duration.ofMillis(50));
+        bulkhead.acquire();
+        bulkhead.acquire();
+
+        assertThatThrownBy(bulkhead::acquire).isInstanceOf(ServiceUnavailableException.class);
+        assertThat(bulkhead.active()).isEqualTo(2);
+    }
+
+    @Test
+    void testAcquireWhenPlaceReleasedWithinMaxWaitThenProceed() throws Exception {
+        Bulkhead bulkhead = new Bulkhead("users (чтение)", 2, instances::get, Duration.ofSeconds(5));
+        bulkhead.acquire();
+        bulkhead.acquire();
+        Future<?> waiting = executor.submit(bulkhead::acquire);
+        Thread.sleep(50);
+        assertThat(waiting).isNotDone();
+
+        bulkhead.release();
+        waiting.get(5, TimeUnit.SECONDS);
+        assertThat(bulkhead.active()).isEqualTo(2);
+    }
+
+    @Test
+    void testAcquireWhenInstancesChangeThenLimitFollowsThem() {
+        Bulkhead bulkhead = new Bulkhead("users (чтение)", 2, instances::get, Duration.ZERO);
+        instances.set(3);
+        for (int i = 0; i < 6; i++) {
+            bulkhead.acquire();
+        }
+        assertThatThrownBy(bulkhead::acquire).isInstanceOf(ServiceUnavailableException.class);
+
+        // Экземпляр исключён: новые вызовы ждут, пока выполняющихся не станет меньше нового лимита
+        instances.set(2);
+        bulkhead.release();
+        bulkhead.release();
+        assertThatThrownBy(bulkhead::acquire).isInstanceOf(ServiceUnavailableException.class);
+        bulkhead.release();
+        bulkhead.acquire();
+    }
+}
@@ -0,0 +1,107 @@
+package ru.practicum.shareit.client;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.exception.ServiceUnavailableException;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.catchThrowableOfType;
+
+public class CircuitBreakerTest {
+    private static final Duration WAIT_IN_OPEN_STATE = Duration.ofMillis(100);
+
+    private CircuitBreaker circuitBreaker;
+
+    @BeforeEach
+    void setUp() {
+        ResilienceProperties.CircuitBreakerSettings settings = new ResilienceProperties.CircuitBreakerSettings();
+        settings.setSlidingWindowSize(4);
+        settings.setMinimumCalls(4);
+        settings.setFailureRateThreshold(50);
+        settings.setWaitInOpenState(WAIT_IN_OPEN_STATE);
+        settings.setHalfOpenCalls(2);
+        circuitBreaker = new CircuitBreaker("items", settings);
+    }
+
+    @Test
+    void testOnResultWhenFailuresBelowMinimumCallsThenStayClosed() {
+        call(false);
+        call(false);
+        call(false);
+        assertThat(circuitBreaker.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void testOnResultWhenFailureRateReachesThresholdThenOpenAndReject() {
+        call(true);
+        call(true);
+        call(false);
+        call(false);
+
+        assertThat(circuitBreaker.state()).isEqualTo(CircuitBreaker.State.OPEN);
+        ServiceUnavailableException e = catchThrowableOfType(circuitBreaker::acquirePermission,
+                ServiceUnavailableException.class);
+        assertThat(e.getRetryAfter()).isPositive().isLessThanOrEqualTo(WAIT_IN_OPEN_STATE);
+    }
+
+    @Test
+    void testAcquirePermissionWhenOpenWaitPassedThenHalfOpenAllowsOnlyProbes() throws InterruptedException {
+        open();
+        Thread.sleep(WAIT_IN_OPEN_STATE.toMillis() + 20);
+
+        circuitBreaker.acquirePermission();
+        assertThat(circuitBreaker.state()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+        circuitBreaker.acquirePermission();
+        assertThatThrownBy(circuitBreaker::acquirePermission).isInstanceOf(ServiceUnavailableException.class);
+    }
+
+    @Test
+    void testOnResultWhenAllProbesSucceedThenCloseWithEmptyWindow() throws InterruptedException {
+        open();
+        Thread.sleep(WAIT_IN_OPEN_STATE.toMillis() + 20);
+        call(true);
+        assertThat(circuitBreaker.state()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+        call(true);
+        assertThat(circuitBreaker.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+
+        // Неудачи до размыкания забыты: трёх неудач мало для нового размыкания
+        call(false);
+        call(false);
+        call(false);
+        assertThat(circuitBreaker.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void testOnResultWhenProbeFailsThenOpenAgain() throws InterruptedException {
+        open();
+        Thread.sleep(WAIT_IN_OPEN_STATE.toMillis() + 20);
+        call(true);
+        call(false);
+
+        assertThat(circuitBreaker.state()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThatThrownBy(circuitBreaker::acquirePermission).isInstanceOf(ServiceUnavailableException.class);
+    }
+
+    @Test
+    void testOnResultWhenCallStartedBeforeOpeningThenIgnoreIt() {
+        circuitBreaker.acquirePermission();
+        open();
+        circuitBreaker.onResult(true);
+        assertThat(circuitBreaker.state()).isEqualTo(CircuitBreaker.State.OPEN);
+    }
+
+    private void open() {
+        for (int i = 0; i < 4; i++) {
+            call(false);
+        }
+        assertThat(circuitBreaker.state()).isEqualTo(CircuitBreaker.State.OPEN);
+    }
+
+    private void call(boolean success) {
+        circuitBreaker.acquirePermission();
+        circuitBreaker.onResult(success);
+    }
+}
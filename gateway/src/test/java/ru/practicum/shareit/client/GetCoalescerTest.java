@@ -0,0 +1,143 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class GetCoalescerTest {
+    private SimpleMeterRegistry meterRegistry;
+    private GetCoalescer coalescer;
+    private ExecutorService executor;
+    private CountDownLatch release;
+    private AtomicInteger calls;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        coalescer = new GetCoalescer(meterRegistry);
+        executor = Executors.newFixedThreadPool(2);
+        release = new CountDownLatch(1);
+        calls = new AtomicInteger();
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void testExecuteWhenSameKeyInFlightThenShareLeaderResponse() throws Exception {
+        GetCoalescer.BufferedResponse response = response("item");
+        Future<GetCoalescer.BufferedResponse> leader = executor.submit(() ->
+                coalescer.execute("/items/1 7", blockingCall(() -> response)));
+        awaitCalls(1);
+        Future<GetCoalescer.BufferedResponse> follower = executor.submit(() ->
+                coalescer.execute("/items/1 7", blockingCall(() -> response("other"))));
+        awaitCollapsed(1);
+        release.countDown();
+
+        assertThat(leader.get(5, TimeUnit.SECONDS)).isSameAs(response);
+        assertThat(follower.get(5, TimeUnit.SECONDS)).isSameAs(response);
+        assertThat(calls).hasValue(1);
+        assertThat(count("upstream")).isEqualTo(1.0);
+    }
+
+    @Test
+    void testExecuteWhenLeaderFinishedThenNextRequestGoesUpstream() {
+        coalescer.execute("/items/1 7", () -> response("first"));
+        GetCoalescer.BufferedResponse second = coalescer.execute("/items/1 7", () -> response("second"));
+        assertThat(new String(second.body())).isEqualTo("second");
+        assertThat(count("upstream")).isEqualTo(2.0);
+        assertThat(count("collapsed")).isZero();
+    }
+
+    @Test
+    void testExecuteWhenLeaderThrowsRuntimeExceptionThenWaiterGetsSameException() throws Exception {
+        IllegalStateException failure = new IllegalStateException("connection refused");
+        Future<GetCoalescer.BufferedResponse> leader = executor.submit(() ->
+                coalescer.execute("/items/1 7", blockingCall(() -> {
+                    throw failure;
+                })));
+        awaitCalls(1);
+        Future<GetCoalescer.BufferedResponse> follower = executor.submit(() ->
+                coalescer.execute("/items/1 7", () -> response("other")));
+        awaitCollapsed(1);
+        release.countDown();
+
+        assertThatThrownBy(() -> leader.get(5, TimeUnit.SECONDS)).isInstanceOf(ExecutionException.class)
+                .hasCause(failure);
+        assertThatThrownBy(() -> follower.get(5, TimeUnit.SECONDS)).isInstanceOf(ExecutionException.class)
+                .hasCause(failure);
+    }
+
+    @Test
+    void testExecuteWhenLeaderThrowsErrorThenWaiterDoesNotHang() throws Exception {
+        OutOfMemoryError failure = new OutOfMemoryError("Java heap space");
+        Future<GetCoalescer.BufferedResponse> leader = executor.submit(() ->
+                coalescer.execute("/items/1 7", blockingCall(() -> {
+                    throw failure;
+                })));
+        awaitCalls(1);
+        Future<GetCoalescer.BufferedResponse> follower = executor.submit(() ->
+                coalescer.execute("/items/1 7", () -> response("other")));
+        awaitCollapsed(1);
+        release.countDown();
+
+        assertThatThrownBy(() -> leader.get(5, TimeUnit.SECONDS)).hasCause(failure);
+        assertThatThrownBy(() -> follower.get(5, TimeUnit.SECONDS)).hasCause(failure);
+        // Ключ освобождён: следующий запрос снова идёт на сервер
+        assertThat(new String(coalescer.execute("/items/1 7", () -> response("retry")).body()))
+                .isEqualTo("retry");
+    }
+
+    private Supplier<GetCoalescer.BufferedResponse> blockingCall(Supplier<GetCoalescer.BufferedResponse> result) {
+        return () -> {
+            calls.incrementAndGet();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return result.get();
+        };
+    }
+
+    private void awaitCalls(int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (calls.get() < expected && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertThat(calls).hasValue(expected);
+    }
+
+    private void awaitCollapsed(int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (count("collapsed") < expected && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertThat(count("collapsed")).isEqualTo(expected);
+    }
+
+    private double count(String result) {
+        return meterRegistry.get("shareit.gateway.coalescing.requests").tag("result", result).counter().count();
+    }
+
+    private static GetCoalescer.BufferedResponse response(String body) {
+        return new GetCoalescer.BufferedResponse(HttpStatus.OK, new HttpHeaders(), body.getBytes());
+    }
+}
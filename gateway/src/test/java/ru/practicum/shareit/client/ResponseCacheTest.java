@@ -0,0 +1,135 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ResponseCacheTest {
+    private static final String URI = "/items/search?text=drill";
+
+    private ResponseCacheProperties properties;
+    private List<Runnable> refreshes;
+    private AtomicInteger calls;
+
+    @BeforeEach
+    void setUp() {
+        properties = new ResponseCacheProperties();
+        refreshes = new ArrayList<>();
+        calls = new AtomicInteger();
+    }
+
+    @Test
+    void testGetWhenFreshThenServeFromCache() {
+        ResponseCache cache = cache(Duration.ofMinutes(1));
+        cache.get(ResponseCache.Region.ITEM_SEARCH, URI, upstream());
+
+        assertThat(body(cache.get(ResponseCache.Region.ITEM_SEARCH, URI, upstream()))).isEqualTo("response 1");
+        assertThat(calls).hasValue(1);
+        assertThat(refreshes).isEmpty();
+    }
+
+    @Test
+    void testGetWhenNotSuccessfulThenDoNotStore() {
+        ResponseCache cache = cache(Duration.ofMinutes(1));
+        Supplier<GetCoalescer.BufferedResponse> notFound = () -> {
+            calls.incrementAndGet();
+            return new GetCoalescer.BufferedResponse(HttpStatus.NOT_FOUND, new HttpHeaders(), new byte[0]);
+        };
+        cache.get(ResponseCache.Region.ITEM_SEARCH, URI, notFound);
+        cache.get(ResponseCache.Region.ITEM_SEARCH, URI, notFound);
+
+        assertThat(calls).hasValue(2);
+    }
+
+    @Test
+    void testGetWhenInvalidatedDuringLoadThenDoNotStoreResponse() {
+        ResponseCache cache = cache(Duration.ofMinutes(1));
+        // Запись данных завершилась, пока сервер отвечал на запрос: ответ может быть уже устаревшим
+        cache.get(ResponseCache.Region.ITEM_SEARCH, URI, () -> {
+            GetCoalescer.BufferedResponse response = upstream().get();
+            cache.invalidate(ResponseCache.Region.ITEM_SEARCH);
+            return response;
+        });
+
+        assertThat(body(cache.get(ResponseCache.Region.ITEM_SEARCH, URI, upstream()))).isEqualTo("response 2");
+        assertThat(calls).hasValue(2);
+    }
+
+    @Test
+    void testGetWhenOtherRegionInvalidatedThenKeepResponse() {
+        ResponseCache cache = cache(Duration.ofMinutes(1));
+        cache.get(ResponseCache.Region.ITEM_SEARCH, URI, upstream());
+        cache.invalidate(ResponseCache.Region.ITEM_REQUESTS);
+
+        assertThat(body(cache.get(ResponseCache.Region.ITEM_SEARCH, URI, upstream()))).isEqualTo("response 1");
+    }
+
+    @Test
+    void testGetWhenStaleThenServeStaleAndRefreshOnceInBackground() throws InterruptedException {
+        ResponseCache cache = cache(Duration.ofMillis(1));
+        cache.get(ResponseCache.Region.ITEM_SEARCH, URI, upstream());
+        Thread.sleep(5);
+
+        assertThat(body(cache.get(ResponseCache.Region.ITEM_SEARCH, URI, upstream()))).isEqualTo("response 1");
+        assertThat(body(cache.get(ResponseCache.Region.ITEM_SEARCH, URI, upstream()))).isEqualTo("response 1");
+        assertThat(refreshes).hasSize(1);
+        assertThat(calls).hasValue(1);
+
+        refreshes.getFirst().run();
+        assertThat(calls).hasValue(2);
+        assertThat(body(cache.get(ResponseCache.Region.ITEM_SEARCH, URI, upstream()))).isEqualTo("response 2");
+    }
+
+    @Test
+    void testRefreshWhenInvalidatedDuringRequestThenDropRefreshedResponse() throws InterruptedException {
+        ResponseCache cache = cache(Duration.ofMillis(1));
+        cache.get(ResponseCache.Region.ITEM_SEARCH, URI, upstream());
+        Thread.sleep(5);
+        cache.get(ResponseCache.Region.ITEM_SEARCH, URI, () -> {
+            GetCoalescer.BufferedResponse response = upstream().get();
+            cache.invalidate(ResponseCache.Region.ITEM_SEARCH);
+            return response;
+        });
+
+        refreshes.getFirst().run();
+        assertThat(body(cache.get(ResponseCache.Region.ITEM_SEARCH, URI, upstream()))).isEqualTo("response 3");
+    }
+
+    @Test
+    void testRefreshWhenServerFailsThenKeepStaleResponseAndRetryLater() throws InterruptedException {
+        ResponseCache cache = cache(Duration.ofMillis(1));
+        cache.get(ResponseCache.Region.ITEM_SEARCH, URI, upstream());
+        Thread.sleep(5);
+        cache.get(ResponseCache.Region.ITEM_SEARCH, URI, () -> {
+            throw new IllegalStateException("connection refused");
+        });
+        refreshes.getFirst().run();
+
+        assertThat(body(cache.get(ResponseCache.Region.ITEM_SEARCH, URI, upstream()))).isEqualTo("response 1");
+        assertThat(refreshes).hasSize(2);
+    }
+
+    private ResponseCache cache(Duration ttl) {
+        properties.setTtl(ttl);
+        return new ResponseCache(properties, refreshes::add, new SimpleMeterRegistry());
+    }
+
+    private Supplier<GetCoalescer.BufferedResponse> upstream() {
+        return () -> new GetCoalescer.BufferedResponse(HttpStatus.OK, new HttpHeaders(),
+                ("response " + calls.incrementAndGet()).getBytes());
+    }
+
+    private static String body(GetCoalescer.BufferedResponse response) {
+        return new String(response.body());
+    }
+}
@@ -0,0 +1,233 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ServerBalancerTest {
+    private static final int USERS = 3000;
+    private static final List<String> THREE = List.of("http://server-1:9090", "http://server-2:9090",
+            "http://server-3:9090");
+
+    @TempDir
+    private Path dir;
+    private Path instancesFile;
+    private long modified;
+    private ServerInstancesProperties properties;
+    private SimpleMeterRegistry meterRegistry;
+    private ServerBalancer balancer;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        instancesFile = dir.resolve("instances");
+        writeInstances(THREE);
+        properties = new ServerInstancesProperties();
+        properties.setInstancesFile(instancesFile.toString());
+        properties.setInstancesFileCheckInterval(Duration.ZERO);
+        meterRegistry = new SimpleMeterRegistry();
+        // Перечитывание файла выполняется сразу в потоке запроса, чтобы тесты видели новый список
+        balancer = new ServerBalancer(properties, Runnable::run, meterRegistry);
+    }
+
+    @Test
+    void testChooseWhenInstancesFileChangedThenReloadedOnExecutorNotInRequest() throws IOException {
+        List<Runnable> reloads = new ArrayList<>();
+        ServerBalancer background = new ServerBalancer(properties, reloads::add, new SimpleMeterRegistry());
+        writeInstances(List.of(THREE.getFirst()));
+
+        ServerInstance chosen = background.choose(null);
+        assertThat(THREE).contains(chosen.url());
+        assertThat(background.stats()).hasSize(3);
+        assertThat(reloads).hasSize(1);
+
+        reloads.getFirst().run();
+        assertThat(background.stats()).extracting(ServerBalancer.InstanceStats::url).containsExactly(THREE.getFirst());
+    }
+
+    @Test
+    void testChooseWithoutUserWhenInstanceLoadedThenLessLoadedChosen() throws IOException {
+        writeInstances(List.of(THREE.get(0), THREE.get(1)));
+        ServerInstance loaded = balancer.choose(null);
+        loaded.started();
+
+        // Из двух экземпляров оба всегда попадают в пару кандидатов
+        for (int i = 0; i < 100; i++) {
+            assertThat(balancer.choose(null)).isNotSameAs(loaded);
+        }
+    }
+
+    @Test
+    void testChooseWhenInstanceEjectedThenItIsSkippedUntilEjectionTimePasses() throws InterruptedException {
+        properties.setEjectionTime(Duration.ofMillis(100));
+        balancer = new ServerBalancer(properties, Runnable::run, meterRegistry);
+        ServerInstance failing = balancer.choose(null);
+        balancer.onFailure(failing);
+        balancer.onFailure(failing);
+        assertThat(balancer.availableInstances()).isEqualTo(3);
+        balancer.onFailure(failing);
+
+        for (int i = 0; i < 100; i++) {
+            assertThat(balancer.choose(null)).isNotSameAs(failing);
+            assertThat(balancer.choose(String.valueOf(i))).isNotSameAs(failing);
+        }
+        assertThat(balancer.stats()).filteredOn(stats -> stats.url().equals(failing.url()))
+                .singleElement()
+                .satisfies(stats -> {
+                    assertThat(stats.available()).isFalse();
+                    assertThat(stats.ejections()).isEqualTo(1);
+                    assertThat(stats.failed()).isEqualTo(3);
+                });
+
+        Thread.sleep(150);
+        assertThat(balancer.availableInstances()).isEqualTo(3);
+    }
+
+    @Test
+    void testChooseWhenAllInstancesEjectedThenStillChooseOne() {
+        for (ServerInstance instance : instances()) {
+            for (int i = 0; i < 3; i++) {
+                balancer.onFailure(instance);
+            }
+        }
+
+        assertThat(balancer.availableInstances()).isEqualTo(3);
+        assertThat(THREE).contains(balancer.choose(null).url());
+        assertThat(affinity("fallback")).isZero();
+        assertThat(THREE).contains(balancer.choose("7").url());
+        assertThat(affinity("fallback")).isEqualTo(1.0);
+    }
+
+    @Test
+    void testResolveWhenUriOnDefaultUrlThenInstanceUrlSubstituted() {
+        ServerInstance instance = balancer.choose(null);
+        assertThat(balancer.resolve(URI.create("http://localhost:9090/items/1?from=0"), instance))
+                .isEqualTo(URI.create(instance.url() + "/items/1?from=0"));
+        assertThat(balancer.resolve(URI.create("http://elsewhere/items"), instance))
+                .isEqualTo(URI.create("http://elsewhere/items"));
+    }
+
+    @Test
+    void testChooseWhenSameUserThenSameInstance() {
+        assertThat(balancer.choose("7")).isSameAs(balancer.choose("7"));
+        assertThat(affinity("home")).isEqualTo(2.0);
+    }
+
+    @Test
+    void testChooseWhenInstanceAddedThenOnlyUsersMovedToItChangeInstance() throws IOException {
+        Map<String, String> before = assignments();
+        writeInstances(List.of(THREE.get(0), THREE.get(1), THREE.get(2), "http://server-4:9090"));
+        Map<String, String> after = assignments();
+
+        long moved = 0;
+        for (String user : before.keySet()) {
+            if (!before.get(user).equals(after.get(user))) {
+                assertThat(after.get(user)).isEqualTo("http://server-4:9090");
+                moved++;
+            }
+        }
+        // Новый экземпляр забирает около четверти пользователей, а не перемешивает всех
+        assertThat(moved).isBetween(USERS / 8L, USERS * 3 / 8L);
+    }
+
+    @Test
+    void testChooseWhenInstanceRemovedThenOnlyItsUsersChangeInstance() throws IOException {
+        Map<String, String> before = assignments();
+        writeInstances(List.of(THREE.get(0), THREE.get(2)));
+        Map<String, String> after = assignments();
+
+        for (String user : before.keySet()) {
+            if (!before.get(user).equals(THREE.get(1))) {
+                assertThat(after.get(user)).isEqualTo(before.get(user));
+            }
+        }
+        assertThat(after.values()).doesNotContain(THREE.get(1));
+    }
+
+    @Test
+    void testChooseWhenHomeInstanceOverloadedThenSpillToNextOnRing() {
+        ServerInstance home = balancer.choose("7");
+        // Три незавершённых запроса на трёх экземплярах: граница ceil(1.25 * 4 / 3) = 2
+        home.started();
+        home.started();
+        home.started();
+
+        ServerInstance chosen = balancer.choose("7");
+        assertThat(chosen).isNotSameAs(home);
+        assertThat(affinity("spilled")).isEqualTo(1.0);
+
+        home.finished();
+        home.finished();
+        home.finished();
+        assertThat(balancer.choose("7")).isSameAs(home);
+    }
+
+    @Test
+    void testChooseWhenHomeInstanceOverloadedThenItsUsersSpreadOverSeveralNeighbours() {
+        ServerInstance overloaded = balancer.choose("7");
+        for (int i = 0; i < 3; i++) {
+            overloaded.started();
+        }
+        Map<String, Integer> spilledTo = new HashMap<>();
+        for (int user = 0; user < USERS; user++) {
+            ServerInstance home = balancer.choose(String.valueOf(user));
+            assertThat(home).isNotSameAs(overloaded);
+            spilledTo.merge(home.url(), 1, Integer::sum);
+        }
+        assertThat(spilledTo).hasSize(2);
+    }
+
+    @Test
+    void testAvailableInstancesWhenInstanceEjectedThenCountOnlyAvailable() {
+        assertThat(balancer.availableInstances()).isEqualTo(3);
+        ServerInstance instance = balancer.choose("7");
+        for (int i = 0; i < 3; i++) {
+            balancer.onFailure(instance);
+        }
+        assertThat(balancer.availableInstances()).isEqualTo(2);
+    }
+
+    // Экземпляры балансировщика: у пользователей их домашние экземпляры
+    private Collection<ServerInstance> instances() {
+        Map<String, ServerInstance> instances = new HashMap<>();
+        for (int user = 0; user < USERS; user++) {
+            ServerInstance instance = balancer.choose(String.valueOf(user));
+            instances.put(instance.url(), instance);
+        }
+        assertThat(instances).hasSize(THREE.size());
+        return instances.values();
+    }
+
+    private Map<String, String> assignments() {
+        Map<String, String> assignments = new HashMap<>();
+        for (int user = 0; user < USERS; user++) {
+            assignments.put(String.valueOf(user), balancer.choose(String.valueOf(user)).url());
+        }
+        return assignments;
+    }
+
+    // Время изменения задаётся явно: иначе два изменения подряд могут получить одно и то же время
+    private void writeInstances(List<String> urls) throws IOException {
+        Files.write(instancesFile, urls);
+        modified += 1000;
+        Files.setLastModifiedTime(instancesFile, FileTime.fromMillis(modified));
+    }
+
+    private double affinity(String result) {
+        return meterRegistry.get("shareit.gateway.server.affinity").tag("result", result).counter().count();
+    }
+}
@@ -0,0 +1,74 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.exception.ServiceUnavailableException;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class ServerCallGuardTest {
+    private static final Duration SLOW_CALL = Duration.ofMillis(20);
+
+    private SimpleMeterRegistry meterRegistry;
+    private ServerCallGuard guard;
+
+    @BeforeEach
+    void setUp() {
+        ResilienceProperties properties = new ResilienceProperties();
+        properties.getCircuitBreaker().setSlidingWindowSize(4);
+        properties.getCircuitBreaker().setMinimumCalls(4);
+        properties.getCircuitBreaker().setSlowCallDuration(SLOW_CALL);
+        properties.getCircuitBreaker().setWaitInOpenState(Duration.ofMinutes(1));
+        meterRegistry = new SimpleMeterRegistry();
+        guard = new ServerCallGuard("bookings", properties, () -> 1, meterRegistry);
+    }
+
+    @Test
+    void testCallWhenReadsSlowThenReadCircuitOpensAndWritesStillPass() {
+        for (int i = 0; i < 4; i++) {
+            guard.call(false, this::slowList, result -> false);
+        }
+
+        assertThat(guard.state(false)).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThatThrownBy(() -> guard.call(false, () -> "list", result -> false))
+                .isInstanceOf(ServiceUnavailableException.class);
+
+        assertThat(guard.call(true, () -> "created", result -> false)).isEqualTo("created");
+        assertThat(guard.state(true)).isEqualTo(CircuitBreaker.State.CLOSED);
+        assertThat(calls("read", "failure")).isEqualTo(4.0);
+        assertThat(calls("read", "rejected")).isEqualTo(1.0);
+        assertThat(calls("write", "success")).isEqualTo(1.0);
+    }
+
+    @Test
+    void testCallWhenWritesFailThenReadsStillPass() {
+        for (int i = 0; i < 4; i++) {
+            guard.call(true, () -> "error", "error"::equals);
+        }
+
+        assertThat(guard.state(true)).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(guard.call(false, () -> "list", result -> false)).isEqualTo("list");
+        assertThat(guard.state(false)).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    private String slowList() {
+        try {
+            Thread.sleep(SLOW_CALL.toMillis() + 10);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return "list";
+    }
+
+    private double calls(String kind, String result) {
+        return meterRegistry.get("shareit.gateway.circuit-breaker.calls")
+                .tag("client", "bookings")
+                .tag("kind", kind)
+                .tag("result", result)
+                .counter().count();
+    }
+}
@@ -0,0 +1,83 @@
+package ru.practicum.shareit.ratelimit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.exception.TooManyRequestsException;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.catchThrowableOfType;
+
+public class RateLimiterTest {
+    // Токен раз в 500 мс, в корзине 3 токена: запас на медленный первый запуск
+    private static final Duration INTERVAL = Duration.ofMillis(500);
+
+    private SimpleMeterRegistry meterRegistry;
+    private RateLimiter rateLimiter;
+
+    @BeforeEach
+    void setUp() {
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setWrite(new RateLimitProperties.Limit(2, 3));
+        meterRegistry = new SimpleMeterRegistry();
+        rateLimiter = new RateLimiter(properties, meterRegistry);
+        // Прогрев: загрузка классов не должна съедать интервал между токенами в тестах
+        rateLimiter.acquire("warm-up", RouteClass.READ);
+    }
+
+    @Test
+    void testAcquireWhenBurstUsedThenRejectWithRetryAfterUntilNextToken() {
+        for (int i = 0; i < 3; i++) {
+            rateLimiter.acquire("user 1", RouteClass.WRITE);
+        }
+        TooManyRequestsException e = catchThrowableOfType(
+                () -> rateLimiter.acquire("user 1", RouteClass.WRITE), TooManyRequestsException.class);
+
+        // Следующий токен появится не позже чем через интервал после первого запроса
+        assertThat(e.getRetryAfter()).isPositive().isLessThanOrEqualTo(INTERVAL);
+        assertThat(rejected("write")).isEqualTo(1.0);
+    }
+
+    @Test
+    void testAcquireWhenIntervalPassedThenOneTokenIsRefilled() throws InterruptedException {
+        for (int i = 0; i < 3; i++) {
+            rateLimiter.acquire("user 1", RouteClass.WRITE);
+        }
+        Thread.sleep(INTERVAL.toMillis() + 100);
+
+        rateLimiter.acquire("user 1", RouteClass.WRITE);
+        assertThatThrownBy(() -> rateLimiter.acquire("user 1", RouteClass.WRITE))
+                .isInstanceOf(TooManyRequestsException.class);
+    }
+
+    @Test
+    void testAcquireWhenOtherClientOrRouteClassThenUseSeparateBucket() {
+        for (int i = 0; i < 3; i++) {
+            rateLimiter.acquire("user 1", RouteClass.WRITE);
+        }
+        rateLimiter.acquire("user 2", RouteClass.WRITE);
+        rateLimiter.acquire("user 1", RouteClass.READ);
+        assertThat(rejected("write")).isZero();
+    }
+
+    @Test
+    void testAcquireWhenRejectedThenRejectionDoesNotConsumeToken() throws InterruptedException {
+        for (int i = 0; i < 3; i++) {
+            rateLimiter.acquire("user 1", RouteClass.WRITE);
+        }
+        for (int i = 0; i < 5; i++) {
+            assertThatThrownBy(() -> rateLimiter.acquire("user 1", RouteClass.WRITE))
+                    .isInstanceOf(TooManyRequestsException.class);
+        }
+        Thread.sleep(INTERVAL.toMillis() + 100);
+
+        rateLimiter.acquire("user 1", RouteClass.WRITE);
+    }
+
+    private double rejected(String route) {
+        return meterRegistry.get("shareit.gateway.rate-limit.rejected").tag("route", route).counter().count();
+    }
+}
@@ -0,0 +1,196 @@
+package ru.practicum.shareit.booking;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import ru.practicum.shareit.exception.ConflictException;
+import ru.practicum.shareit.exception.ValidationException;
+import ru.practicum.shareit.item.ItemRepository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.UnaryOperator;
+
+import static ru.practicum.shareit.utils.TransactionUtils.afterCommit;
+import static ru.practicum.shareit.utils.TransactionUtils.afterRollback;
+
+/**
+ * Допуск бронирований: не даёт занять вещь на время, пересекающееся с ожидающим или подтверждённым
+ * бронированием.
+ * <p>
+ * Решает БД: в транзакции создания или подтверждения строка вещи блокируется SELECT ... FOR UPDATE,
+ * и пересечение проверяется запросом уже под блокировкой. Так допуск верен и при нескольких экземплярах
+ * сервера: второй экземпляр дождётся коммита первого и увидит его бронирование.
+ * <p>
+ * Расписание вещи в памяти — только быстрый отказ: пересечение с известным бронированием отклоняется
+ * без блокировки строки и запроса. Свободное по расписанию время всё равно проверяется в БД: расписание
+ * не знает о бронированиях, сделанных на других экземплярах после его загрузки. Бронирование, отменённое
+ * на другом экземпляре, остаётся в расписании до его перезагрузки, поэтому расписание живёт ограниченное
+ * время с момента загрузки. Закончившиеся бронирования из расписаний удаляются.
+ * <p>
+ * Допущенное бронирование платит и за проверку в БД. Расписание оставлено ради отказов: конфликтующие
+ * запросы к популярной вещи отклоняются сразу, а не встают в очередь на блокировку строки за транзакцией,
+ * которая её держит, и не выполняют запрос по диапазону.
+ * <p>
+ * Строка вещи блокируется раньше полосатой блокировки расписания: под полосатой блокировкой транзакция
+ * не ждёт чужих блокировок БД, поэтому взаимоблокировка потоков и транзакций невозможна.
+ */
+@Slf4j
+@Service
+public class BookingAdmissionService {
+    static final Set<Status> OCCUPYING = EnumSet.of(Status.WAITING, Status.APPROVED);
+    private static final int STRIPES = 64;
+
+    private final BookingRepository bookingRepository;
+    private final ItemRepository itemRepository;
+    private final Cache<Long, ItemSchedule> schedules;
+    private final ReentrantLock[] locks = createLocks();
+
+    public BookingAdmissionService(BookingRepository bookingRepository,
+                                   ItemRepository itemRepository,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${shareit.bookings.schedules.maximum-size:10000}") long maximumSize,
+                                   @Value("${shareit.bookings.schedules.expire-after-write:1m}")
+                                   Duration expireAfterWrite) {
+        this.bookingRepository = bookingRepository;
+        this.itemRepository = itemRepository;
+        this.schedules = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, schedules, "item-schedules");
+    }
+
+    // Вызывается в транзакции создания бронирования: блокировка строки вещи держится до её конца
+    public Booking admit(Booking booking, UnaryOperator<Booking> save) {
+        checkInterval(booking.getStart(), booking.getEnd());
+        Long itemId = booking.getItem().getId();
+        ReentrantLock lock = lockFor(itemId);
+        lock.lock();
+        try {
+            checkSchedule(scheduleOf(itemId), itemId, booking.getStart(), booking.getEnd());
+        } finally {
+            lock.unlock();
+        }
+        itemRepository.lockByIds(List.of(itemId));
+        lock.lock();
+        try {
+            ItemSchedule schedule = scheduleOf(itemId);
+            checkSchedule(schedule, itemId, booking.getStart(), booking.getEnd());
+            checkDatabase(itemId, null, booking.getStart(), booking.getEnd());
+            Booking saved = save.apply(booking);
+            schedule.add(saved.getId(), saved.getStart(), saved.getEnd());
+            afterRollback(() -> release(itemId, saved.getId()));
+            return saved;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void statusChanged(Booking booking) {
+        Long itemId = booking.getItem().getId();
+        if (!OCCUPYING.contains(booking.getStatus())) {
+            afterCommit(() -> release(itemId, booking.getId()));
+            return;
+        }
+        itemRepository.lockByIds(List.of(itemId));
+        ReentrantLock lock = lockFor(itemId);
+        lock.lock();
+        try {
+            ItemSchedule schedule = scheduleOf(itemId);
+            boolean known = schedule.contains(booking.getId());
+            if (!known) {
+                checkSchedule(schedule, itemId, booking.getStart(), booking.getEnd());
+            }
+            // Расписание могло устареть: бронирование отклонено на другом экземпляре и его время уже занято
+            checkDatabase(itemId, booking.getId(), booking.getStart(), booking.getEnd());
+            if (!known) {
+                schedule.add(booking.getId(), booking.getStart(), booking.getEnd());
+                afterRollback(() -> release(itemId, booking.getId()));
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void release(Long itemId, Long bookingId) {
+        ReentrantLock lock = lockFor(itemId);
+        lock.lock();
+        try {
+            ItemSchedule schedule = schedules.getIfPresent(itemId);
+            if (schedule != null) {
+                schedule.remove(bookingId);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private ItemSchedule scheduleOf(Long itemId) {
+        // Вызывается под блокировкой вещи, поэтому загрузка из БД не держит блокировку корзины карты
+        LocalDateTime now = LocalDateTime.now();
+        ItemSchedule schedule = schedules.getIfPresent(itemId);
+        if (schedule == null) {
+            schedule = new ItemSchedule(bookingRepository.findByItemIdAndStatusInAndEndAfter(itemId, OCCUPYING, now),
+                    now);
+            schedules.put(itemId, schedule);
+            log.debug("Загружено расписание вещи с id = {}: {} интервалов", itemId, schedule.size());
+        } else {
+            schedule.prune(now);
+        }
+        return schedule;
+    }
+
+    private void checkSchedule(ItemSchedule schedule, Long itemId, LocalDateTime start, LocalDateTime end) {
+        if (schedule.overlaps(start, end)) {
+            throw occupied(itemId, start, end);
+        }
+    }
+
+    // Вызывается под блокировкой строки вещи: запрос видит все закоммиченные бронирования
+    private void checkDatabase(Long itemId, Long bookingId, LocalDateTime start, LocalDateTime end) {
+        if (bookingRepository.existsOverlapping(itemId, OCCUPYING, start, end, bookingId)) {
+            throw occupied(itemId, start, end);
+        }
+    }
+
+    private ConflictException occupied(Long itemId, LocalDateTime start, LocalDateTime end) {
+        log.warn("Вещь с id = {} уже забронирована на период {} - {}", itemId, start, end);
+        return new ConflictException(String.format("Вещь с id = %d уже забронирована на период %s - %s",
+                itemId, start, end));
+    }
+
+    private void checkInterval(LocalDateTime start, LocalDateTime end) {
+        if (start == null || end == null) {
+            log.error("Не указано время бронирования: start = {}, end = {}", start, end);
+            throw new ValidationException("Время начала и окончания бронирования должны быть указаны");
+        }
+        if (!start.isBefore(end)) {
+            log.error("Начало бронирования {} не раньше окончания {}", start, end);
+            throw new ValidationException(String.format("Начало бронирования %s должно быть раньше окончания %s",
+                    start, end));
+        }
+    }
+
+    private ReentrantLock lockFor(Long itemId) {
+        int hash = Long.hashCode(itemId);
+        return locks[(hash ^ (hash >>> 16)) & (STRIPES - 1)];
+    }
+
+    private static ReentrantLock[] createLocks() {
+        ReentrantLock[] locks = new ReentrantLock[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        return locks;
+    }
+}
@@ -1,9 +1,14 @@
 package ru.practicum.shareit.booking;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingRequestDto;
+import ru.practicum.shareit.utils.IdempotencyService;
 
 import java.util.List;
 
@@ -13,13 +18,20 @@ import java.util.List;
 public class BookingController {
     private final String bookingIdPath = "/{bookingId}";
     private final String ownerIdPath = "/owner";
+    private final String ownerExportPath = "/owner/export";
     private final String userIdHeader = "X-Sharer-User-Id";
+    private final String nextCursorHeader = "X-Next-Cursor";
     private final BookingService bookingService;
+    private final BookingExportService bookingExportService;
+    private final IdempotencyService idempotencyService;
 
     @PostMapping()
     public BookingDto createBooking(@RequestBody BookingRequestDto bookingRequestDto,
-                                    @RequestHeader(value = userIdHeader, required = false) Long bookerId) {
-        return bookingService.createBooking(bookingRequestDto, bookerId);
+                                    @RequestHeader(value = userIdHeader, required = false) Long bookerId,
+                                    @RequestHeader(value = IdempotencyService.HEADER, required = false)
+                                    String idempotencyKey) {
+        return idempotencyService.execute("createBooking", bookerId, idempotencyKey, bookingRequestDto,
+                () -> bookingService.createBooking(bookingRequestDto, bookerId));
     }
 
     @PatchMapping(bookingIdPath)
@@ -36,15 +48,45 @@ public class BookingController {
     }
 
     @GetMapping()
-    public List<BookingDto> findBookerBookings(@RequestParam(defaultValue = "ALL") BookingState state,
-                                            @RequestHeader(value = userIdHeader, required = false) Long userId) {
-        return bookingService.findBookerBookings(state, userId);
+    public ResponseEntity<List<BookingDto>> findBookerBookings(
+            @RequestParam(defaultValue = "ALL") BookingState state,
+            @RequestHeader(value = userIdHeader, required = false) Long userId,
+            @RequestParam(defaultValue = "0") Integer from,
+            @RequestParam(defaultValue = "10") Integer size,
+            @RequestParam(required = false) String cursor) {
+        return withNextCursor(bookingService.findBookerBookings(state, userId, from, size, cursor), size);
     }
 
     @GetMapping(ownerIdPath)
-    public List<BookingDto> findOwnerBookings(@RequestParam(defaultValue = "ALL") BookingState state,
-                                             @RequestHeader(value = userIdHeader, required = false) Long userId) {
-        return bookingService.findOwnerBookings(state, userId);
+    public ResponseEntity<List<BookingDto>> findOwnerBookings(
+            @RequestParam(defaultValue = "ALL") BookingState state,
+            @RequestHeader(value = userIdHeader, required = false) Long userId,
+            @RequestParam(defaultValue = "0") Integer from,
+            @RequestParam(defaultValue = "10") Integer size,
+            @RequestParam(required = false) String cursor) {
+        return withNextCursor(bookingService.findOwnerBookings(state, userId, from, size, cursor), size);
+    }
+
+    @GetMapping(ownerExportPath)
+    public ResponseEntity<StreamingResponseBody> exportOwnerBookings(
+            @RequestParam(defaultValue = "NDJSON") BookingExportFormat format,
+            @RequestHeader(value = userIdHeader, required = false) Long userId) {
+        // Владелец проверяется до начала ответа, чтобы ошибка пришла обычным статусом, а не оборванным потоком
+        bookingExportService.checkOwner(userId);
+        return ResponseEntity.ok()
+                .contentType(format.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("bookings." + format.getExtension())
+                        .build()
+                        .toString())
+                .body(out -> bookingExportService.export(userId, format, out));
     }
-}
 
+    private ResponseEntity<List<BookingDto>> withNextCursor(List<BookingDto> page, Integer size) {
+        String nextCursor = BookingCursor.next(page, size);
+        if (nextCursor == null) {
+            return ResponseEntity.ok(page);
+        }
+        return ResponseEntity.ok().header(nextCursorHeader, nextCursor).body(page);
+    }
+}
@@ -0,0 +1,19 @@
+package ru.practicum.shareit.booking;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+
+import java.nio.charset.StandardCharsets;
+
+@Getter
+@RequiredArgsConstructor
+public enum BookingExportFormat {
+    // Одна запись JSON в строке
+    NDJSON(MediaType.APPLICATION_NDJSON, "ndjson"),
+    // Таблица с заголовком, разделитель — запятая
+    CSV(new MediaType("text", "csv", StandardCharsets.UTF_8), "csv");
+
+    private final MediaType mediaType;
+    private final String extension;
+}
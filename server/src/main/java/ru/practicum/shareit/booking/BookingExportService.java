@@ -0,0 +1,104 @@
+package ru.practicum.shareit.booking;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.utils.CheckUserService;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Выгрузка всех бронирований вещей владельца в NDJSON или CSV.
+ * Строки читаются из БД курсором и сразу пишутся в ответ, поэтому память не зависит от длины истории.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class BookingExportService {
+    private static final String CSV_HEADER = "id,start,end,status,item_id,item_name,booker_id,booker_name,booker_email";
+    private static final String CSV_LINE_END = "\r\n";
+
+    private final BookingRepository bookingRepository;
+    private final CheckUserService checkUserService;
+    private final ObjectMapper objectMapper;
+
+    public void checkOwner(Long ownerId) {
+        checkUserService.checkUser(ownerId);
+    }
+
+    // Поток закрывается вызывающим, здесь он только дописывается и сбрасывается
+    public void export(Long ownerId, BookingExportFormat format, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        long rows;
+        try (Stream<BookingDto> bookings = bookingRepository.streamByOwnerId(ownerId)) {
+            rows = switch (format) {
+                case NDJSON -> writeNdjson(bookings.iterator(), writer);
+                case CSV -> writeCsv(bookings.iterator(), writer);
+            };
+        }
+        writer.flush();
+        log.info("Выгружено {} бронирований владельца с id = {} в формате {}", rows, ownerId, format);
+    }
+
+    private long writeNdjson(Iterator<BookingDto> bookings, Writer writer) throws IOException {
+        // Без сброса после каждой записи: ответ уходит клиенту по мере заполнения буфера
+        ObjectWriter rowWriter = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        JsonGenerator generator = objectMapper.createGenerator(writer);
+        generator.setRootValueSeparator(null);
+        long rows = 0;
+        while (bookings.hasNext()) {
+            rowWriter.writeValue(generator, bookings.next());
+            generator.writeRaw('\n');
+            rows++;
+        }
+        generator.flush();
+        return rows;
+    }
+
+    private long writeCsv(Iterator<BookingDto> bookings, Writer writer) throws IOException {
+        writer.write(CSV_HEADER);
+        writer.write(CSV_LINE_END);
+        long rows = 0;
+        while (bookings.hasNext()) {
+            BookingDto booking = bookings.next();
+            writer.write(String.join(",",
+                    String.valueOf(booking.getId()),
+                    String.valueOf(booking.getStart()),
+                    String.valueOf(booking.getEnd()),
+                    booking.getStatus().name(),
+                    String.valueOf(booking.getItem().getId()),
+                    csvField(booking.getItem().getName()),
+                    String.valueOf(booking.getBooker().getId()),
+                    csvField(booking.getBooker().getName()),
+                    csvField(booking.getBooker().getEmail())));
+            writer.write(CSV_LINE_END);
+            rows++;
+        }
+        return rows;
+    }
+
+    // Поля с запятой, кавычкой или переводом строки берутся в кавычки, кавычки внутри удваиваются
+    static String csvField(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
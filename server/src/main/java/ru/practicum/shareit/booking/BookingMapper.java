@@ -9,6 +9,8 @@ import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.user.User;
 import ru.practicum.shareit.user.dto.UserDto;
 
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 
 @NoArgsConstructor(access = AccessLevel.PRIVATE)
 public class BookingMapper {
@@ -34,11 +36,17 @@ public class BookingMapper {
 
     public static Booking mapToBookingFromRequestDto(BookingRequestDto bookingRequestDto, User booker, Item item) {
         Booking booking = new Booking();
-        booking.setStart(bookingRequestDto.getStart());
-        booking.setEnd(bookingRequestDto.getEnd());
+        booking.setStart(toStoredPrecision(bookingRequestDto.getStart()));
+        booking.setEnd(toStoredPrecision(bookingRequestDto.getEnd()));
         booking.setItem(item);
         booking.setBooker(booker);
         booking.setStatus(Status.WAITING);
         return booking;
     }
+
+    // БД хранит время с точностью до микросекунд и округляет остальное вверх: без усечения конец бронирования
+    // в БД оказался бы позже, чем в расписании, и пересёкся бы со смежным бронированием
+    private static LocalDateTime toStoredPrecision(LocalDateTime time) {
+        return time != null ? time.truncatedTo(ChronoUnit.MICROS) : null;
+    }
 }
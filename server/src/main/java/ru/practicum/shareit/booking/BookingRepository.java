@@ -1,14 +1,20 @@
 package ru.practicum.shareit.booking;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
+import ru.practicum.shareit.booking.dto.BookingDto;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
-public interface BookingRepository extends JpaRepository<Booking, Long> {
+public interface BookingRepository extends JpaRepository<Booking, Long>, BookingRepositoryCustom {
 
     @Query("SELECT b FROM Booking b " +
             "JOIN FETCH b.booker " +
@@ -17,48 +23,48 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
             "WHERE b.id = :bookingId")
     Optional<Booking> findByIdWithBookerAndItem(@Param("bookingId") Long bookingId);
 
-    @Query("SELECT b FROM Booking b " +
-            "JOIN FETCH b.item i " +
-            "JOIN FETCH i.owner " +
-            "JOIN FETCH b.booker " +
-            "WHERE b.booker.id = :bookerId " +
-            "ORDER BY b.start DESC")
-    List<Booking> findByBookerIdWithDetails(@Param("bookerId") Long bookerId);
-
     @Query("SELECT b FROM Booking b " +
             "JOIN FETCH b.item i " +
             "WHERE b.booker.id = :bookerId " +
             "ORDER BY b.start DESC")
     List<Booking> findByBookerIdWithItem(@Param("bookerId") Long bookerId);
 
-    @Query("SELECT b FROM Booking b " +
-            "JOIN FETCH b.booker " +
-            "JOIN FETCH b.item " +
-            "WHERE b.item.owner.id = :ownerId " +
-            "ORDER BY b.start DESC")
-    List<Booking> findByItemOwnerIdWithDetails(@Param("ownerId") Long ownerId);
+    // Строки читаются курсором порциями по 500, поток нужно закрыть внутри транзакции
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT new ru.practicum.shareit.booking.dto.BookingDto(b.id, b.start, b.end, b.status, " +
+            "bk.id, bk.name, bk.email, i.id, i.name, i.description, i.available, i.owner.id) " +
+            "FROM Booking b " +
+            "JOIN b.booker bk " +
+            "JOIN b.item i " +
+            "WHERE i.owner.id = :ownerId " +
+            "ORDER BY b.start DESC, b.id DESC")
+    Stream<BookingDto> streamByOwnerId(@Param("ownerId") Long ownerId);
 
     @Query("SELECT b FROM Booking b " +
-            "JOIN FETCH b.item " +
-            "WHERE b.item.owner.id = :ownerId")
-    List<Booking> findBookingsByOwnerId(@Param("ownerId") Long ownerId);
-
-    List<Booking> findByBookerIdAndStartBeforeAndEndAfterOrderByStartDesc(Long bookerId, LocalDateTime start,
-                                                                          LocalDateTime end);
-
-    List<Booking> findByBookerIdAndEndBeforeOrderByStartDesc(Long bookerId, LocalDateTime now);
-
-    List<Booking> findByBookerIdAndStartAfterOrderByStartDesc(Long bookerId, LocalDateTime now);
-
-    List<Booking> findByBookerIdAndStatusOrderByStartDesc(Long bookerId, Status status);
-
-    List<Booking> findByItemOwner_IdAndStartBeforeAndEndAfterOrderByStartDesc(Long ownerId, LocalDateTime start,
-                                                                              LocalDateTime end);
-
-    List<Booking> findByItemOwner_IdAndEndBeforeOrderByStartDesc(Long ownerId, LocalDateTime now);
-
-    List<Booking> findByItemOwner_IdAndStartAfterOrderByStartDesc(Long ownerId, LocalDateTime now);
-
-    List<Booking> findByItemOwner_IdAndStatusOrderByStartDesc(Long ownerId, Status status);
+            "JOIN FETCH b.booker " +
+            "JOIN FETCH b.item i " +
+            "JOIN FETCH i.owner " +
+            "WHERE b.id = (SELECT l.id FROM Booking l " +
+            "WHERE l.item.id = :itemId AND l.status = :status AND l.end < :now " +
+            "ORDER BY l.start DESC, l.id DESC LIMIT 1) " +
+            "OR b.id = (SELECT n.id FROM Booking n " +
+            "WHERE n.item.id = :itemId AND n.status = :status AND n.start > :now " +
+            "ORDER BY n.start ASC, n.id ASC LIMIT 1)")
+    List<Booking> findLastAndNextByItemId(@Param("itemId") Long itemId,
+                                          @Param("status") Status status,
+                                          @Param("now") LocalDateTime now);
+
+    List<Booking> findByItemIdAndStatusInAndEndAfter(Long itemId, Collection<Status> statuses, LocalDateTime end);
+
+    // Пересечение с бронированиями вещи в БД; bookingId — проверяемое бронирование, оно само не учитывается.
+    // Для нового бронирования bookingId = null, а id в БД начинаются с 1. Проверка :bookingId IS NULL
+    // не годится: тип такого параметра PostgreSQL не выводит при подготовке запроса
+    @Query("SELECT COUNT(b) > 0 FROM Booking b " +
+            "WHERE b.item.id = :itemId AND b.status IN :statuses AND b.start < :end AND b.end > :start " +
+            "AND b.id <> COALESCE(:bookingId, 0)")
+    boolean existsOverlapping(@Param("itemId") Long itemId,
+                              @Param("statuses") Collection<Status> statuses,
+                              @Param("start") LocalDateTime start,
+                              @Param("end") LocalDateTime end,
+                              @Param("bookingId") Long bookingId);
 }
-
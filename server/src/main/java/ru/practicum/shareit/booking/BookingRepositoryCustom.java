@@ -0,0 +1,18 @@
+package ru.practicum.shareit.booking;
+
+import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.booking.dto.BookingDto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface BookingRepositoryCustom {
+
+    /**
+     * Страница бронирований пользователя в роли {@code role}, отобранных по {@code state} на момент {@code now},
+     * в порядке (start DESC, id DESC) строго после курсора {@code after}.
+     * Вещь и автор бронирования читаются тем же запросом сразу в DTO, без сущностей в контексте персистентности.
+     */
+    List<BookingDto> findBookings(BookingRole role, Long userId, BookingState state, LocalDateTime now,
+                                  BookingCursor after, Pageable page);
+}
@@ -0,0 +1,66 @@
+package ru.practicum.shareit.booking;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.user.User;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Один запрос на любое сочетание роли и {@link BookingState}: меняется только условие WHERE.
+ */
+@RequiredArgsConstructor
+class BookingRepositoryCustomImpl implements BookingRepositoryCustom {
+    private final EntityManager entityManager;
+
+    @Override
+    public List<BookingDto> findBookings(BookingRole role, Long userId, BookingState state, LocalDateTime now,
+                                         BookingCursor after, Pageable page) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<BookingDto> query = cb.createQuery(BookingDto.class);
+        Root<Booking> booking = query.from(Booking.class);
+        Join<Booking, Item> item = booking.join("item");
+        Join<Booking, User> booker = booking.join("booker");
+
+        Path<LocalDateTime> start = booking.get("start");
+        Path<Long> id = booking.get("id");
+        // Владелец нужен только по id, поэтому таблица пользователей для него не соединяется
+        Path<Long> ownerId = item.get("owner").get("id");
+        Path<Long> user = role == BookingRole.OWNER ? ownerId : booker.get("id");
+        query.select(cb.construct(BookingDto.class, id, start, booking.get("end"), booking.get("status"),
+                        booker.get("id"), booker.get("name"), booker.get("email"),
+                        item.get("id"), item.get("name"), item.get("description"), item.get("available"), ownerId))
+                .where(cb.equal(user, userId),
+                        byState(cb, booking, state, now),
+                        cb.or(cb.lessThan(start, after.getStart()),
+                                cb.and(cb.equal(start, after.getStart()), cb.lessThan(id, after.getId()))))
+                .orderBy(cb.desc(start), cb.desc(id));
+        return entityManager.createQuery(query)
+                .setFirstResult((int) page.getOffset())
+                .setMaxResults(page.getPageSize())
+                .getResultList();
+    }
+
+    private Predicate byState(CriteriaBuilder cb, Root<Booking> booking, BookingState state, LocalDateTime now) {
+        Path<LocalDateTime> start = booking.get("start");
+        Path<LocalDateTime> end = booking.get("end");
+        return switch (state) {
+            case ALL -> cb.conjunction();
+            case CURRENT -> cb.and(cb.lessThan(start, now), cb.greaterThan(end, now));
+            case PAST -> cb.lessThan(end, now);
+            case FUTURE -> cb.greaterThan(start, now);
+            case WAITING -> cb.equal(booking.get("status"), Status.WAITING);
+            case REJECTED -> cb.equal(booking.get("status"), Status.REJECTED);
+        };
+    }
+}
@@ -0,0 +1,8 @@
+package ru.practicum.shareit.booking;
+
+/**
+ * С чьей стороны запрашиваются бронирования: автора бронирования или владельца вещи.
+ */
+public enum BookingRole {
+    BOOKER, OWNER
+}
@@ -9,11 +9,13 @@ public interface BookingService {
 
     BookingDto createBooking(BookingRequestDto bookingRequestDto, Long bookerId);
 
+    List<BookingDto> createBookings(List<BookingRequestDto> bookingRequestDtos, Long bookerId);
+
     BookingDto approveBooking(Long bookingId, Boolean approved, Long ownerId);
 
     BookingDto findBooking(Long bookingId, Long bookerOrOwnerId);
 
-    List<BookingDto> findBookerBookings(BookingState state, Long userId);
+    List<BookingDto> findBookerBookings(BookingState state, Long userId, Integer from, Integer size, String cursor);
 
-    List<BookingDto> findOwnerBookings(BookingState state, Long userId);
+    List<BookingDto> findOwnerBookings(BookingState state, Long userId, Integer from, Integer size, String cursor);
 }
@@ -1,7 +1,9 @@
 package ru.practicum.shareit.booking;
 
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.booking.dto.BookingDto;
@@ -9,37 +11,79 @@ import ru.practicum.shareit.booking.dto.BookingRequestDto;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.exception.ValidationException;
 import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemRepository;
 import ru.practicum.shareit.user.User;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.EnumSet;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 import static ru.practicum.shareit.utils.LoggingUtils.logAndReturn;
 
 import ru.practicum.shareit.utils.CheckItemService;
 import ru.practicum.shareit.utils.CheckUserService;
+import ru.practicum.shareit.utils.OffsetPageable;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 @Transactional(readOnly = true)
 public class BookingServiceImpl implements BookingService {
+    static final int BULK_CHUNK_SIZE = 1000;
+
     private final BookingRepository bookingRepository;
     private final CheckUserService checkUserService;
     private final CheckItemService checkItemService;
+    private final BookingAdmissionService bookingAdmissionService;
+    private final ItemRepository itemRepository;
+    private final EntityManager entityManager;
 
     @Transactional
     public BookingDto createBooking(BookingRequestDto bookingRequestDto, Long bookerId) {
         User booker = checkUserService.checkUser(bookerId);
         Item item = checkItemService.checkItem(bookingRequestDto.getItemId());
+        Booking booking = bookingAdmissionService.admit(
+                BookingMapper.mapToBookingFromRequestDto(bookingRequestDto, booker, item), bookingRepository::save);
+        // Новое бронирование ждёт подтверждения: последнее и следующее бронирование вещи не меняются
+        itemRepository.incrementBookingCount(item.getId(), 1);
         return logAndReturn(
-                BookingMapper.mapToBookingDto(bookingRepository
-                        .save(BookingMapper.mapToBookingFromRequestDto(bookingRequestDto, booker, item))),
+                BookingMapper.mapToBookingDto(booking),
                 savedBooking -> log.info("Запрос бронирования с id = {} добавлен", savedBooking.getId())
         );
     }
 
+    @Transactional
+    public List<BookingDto> createBookings(List<BookingRequestDto> bookingRequestDtos, Long bookerId) {
+        User booker = checkUserService.checkUser(bookerId);
+        Map<Long, Item> items = checkItemService.checkItems(bookingRequestDtos.stream()
+                .map(BookingRequestDto::getItemId)
+                .collect(Collectors.toSet()));
+        // Все вещи пачки блокируются сразу в порядке id: две пачки с общими вещами не взаимоблокируются
+        itemRepository.lockByIds(items.keySet());
+        List<BookingDto> created = new ArrayList<>(bookingRequestDtos.size());
+        for (int i = 0; i < bookingRequestDtos.size(); i++) {
+            BookingRequestDto bookingRequestDto = bookingRequestDtos.get(i);
+            // Каждое бронирование проходит допуск, поэтому пересечения внутри пачки тоже отклоняются
+            created.add(BookingMapper.mapToBookingDto(bookingAdmissionService.admit(
+                    BookingMapper.mapToBookingFromRequestDto(bookingRequestDto, booker,
+                            items.get(bookingRequestDto.getItemId())),
+                    bookingRepository::save)));
+            if ((i + 1) % BULK_CHUNK_SIZE == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        // Счётчики обновляются одним запросом на вещь, а не на каждое бронирование
+        bookingRequestDtos.stream()
+                .collect(Collectors.groupingBy(BookingRequestDto::getItemId, Collectors.counting()))
+                .forEach(itemRepository::incrementBookingCount);
+        log.info("Пользователем с id = {} добавлено {} запросов бронирования", bookerId, created.size());
+        return created;
+    }
+
     @Transactional
     public BookingDto approveBooking(Long bookingId, Boolean approved, Long ownerId) {
         Booking booking = checkBooking(bookingId);
@@ -53,11 +97,13 @@ public class BookingServiceImpl implements BookingService {
             throw new ValidationException(String.format("Пользователь с id = %d не является владельцем вещи с id = %d",
                     ownerId, booking.getItem().getOwner().getId()));
         }
+        bookingAdmissionService.statusChanged(booking);
+        Booking savedBooking = bookingRepository.save(booking);
+        itemRepository.lockAndRefreshBookingSummary(List.of(savedBooking.getItem().getId()), LocalDateTime.now());
         return logAndReturn(
-                BookingMapper.mapToBookingDto(bookingRepository
-                        .save(bookingRepository.save(booking))), savedBooking ->
+                BookingMapper.mapToBookingDto(savedBooking), approvedBooking ->
                         log.info("Статус {} установлен бронированию с id = {}, владельцем вещи с id = {}",
-                                savedBooking.getStatus(), savedBooking.getId(),
+                                approvedBooking.getStatus(), approvedBooking.getId(),
                                 ownerId)
         );
     }
@@ -76,51 +122,27 @@ public class BookingServiceImpl implements BookingService {
         );
     }
 
-    public List<BookingDto> findBookerBookings(BookingState state, Long bookerId) {
-        checkState(state);
-        checkUserService.checkUser(bookerId);
-        List<Booking> bookings;
-        if (state == BookingState.ALL) {
-            bookings = bookingRepository.findByBookerIdWithDetails(bookerId);
-        } else {
-            LocalDateTime now = LocalDateTime.now();
-            bookings = switch (state) {
-                case CURRENT -> bookingRepository.findByBookerIdAndStartBeforeAndEndAfterOrderByStartDesc(bookerId, now,
-                        now);
-                case PAST -> bookingRepository.findByBookerIdAndEndBeforeOrderByStartDesc(bookerId, now);
-                case FUTURE -> bookingRepository.findByBookerIdAndStartAfterOrderByStartDesc(bookerId, now);
-                case WAITING -> bookingRepository.findByBookerIdAndStatusOrderByStartDesc(bookerId, Status.WAITING);
-                case REJECTED -> bookingRepository.findByBookerIdAndStatusOrderByStartDesc(bookerId, Status.REJECTED);
-                default -> throw new ValidationException(String.format("Некорректное состояние бронирования: %s",
-                        state));
-            };
-        }
+    public List<BookingDto> findBookerBookings(BookingState state, Long bookerId, Integer from, Integer size,
+                                               String cursor) {
+        List<BookingDto> bookings = findBookings(BookingRole.BOOKER, state, bookerId, from, size, cursor);
         log.info("Получено {} бронирований ({}) для пользователя с id = {}", bookings.size(), state, bookerId);
-        return bookings.stream().map(BookingMapper::mapToBookingDto).toList();
+        return bookings;
     }
 
-    public List<BookingDto> findOwnerBookings(BookingState state, Long ownerId) {
-        checkState(state);
-        checkUserService.checkUser(ownerId);
-        List<Booking> bookings;
-        if (state == BookingState.ALL) {
-            bookings = bookingRepository.findByItemOwnerIdWithDetails(ownerId);
-        } else {
-            LocalDateTime now = LocalDateTime.now();
-            bookings = switch (state) {
-                case CURRENT -> bookingRepository.findByItemOwner_IdAndStartBeforeAndEndAfterOrderByStartDesc(ownerId,
-                        now, now);
-                case PAST -> bookingRepository.findByItemOwner_IdAndEndBeforeOrderByStartDesc(ownerId, now);
-                case FUTURE -> bookingRepository.findByItemOwner_IdAndStartAfterOrderByStartDesc(ownerId, now);
-                case WAITING -> bookingRepository.findByItemOwner_IdAndStatusOrderByStartDesc(ownerId, Status.WAITING);
-                case REJECTED -> bookingRepository.findByItemOwner_IdAndStatusOrderByStartDesc(ownerId,
-                        Status.REJECTED);
-                default -> throw new ValidationException(String.format("Некорректное состояние бронирования: %s",
-                        state));
-            };
-        }
+    public List<BookingDto> findOwnerBookings(BookingState state, Long ownerId, Integer from, Integer size,
+                                              String cursor) {
+        List<BookingDto> bookings = findBookings(BookingRole.OWNER, state, ownerId, from, size, cursor);
         log.info("Получено {} бронирований ({}) для владельца с id = {}", bookings.size(), state, ownerId);
-        return bookings.stream().map(BookingMapper::mapToBookingDto).toList();
+        return bookings;
+    }
+
+    private List<BookingDto> findBookings(BookingRole role, BookingState state, Long userId, Integer from,
+                                          Integer size, String cursor) {
+        checkState(state);
+        checkUserService.checkUser(userId);
+        BookingCursor after = BookingCursor.decode(cursor);
+        Pageable page = toPage(from, size, cursor);
+        return bookingRepository.findBookings(role, userId, state, LocalDateTime.now(), after, page);
     }
 
     private Booking checkBooking(Long bookingId) {
@@ -143,4 +165,14 @@ public class BookingServiceImpl implements BookingService {
             throw new ValidationException(String.format("Передан некорректный статус бронирования: %s", state));
         }
     }
+
+    private Pageable toPage(Integer from, Integer size, String cursor) {
+        if (from == null || from < 0 || size == null || size <= 0) {
+            log.error("Некорректные параметры страницы: from = {}, size = {}", from, size);
+            throw new ValidationException(String.format("Некорректные параметры страницы: from = %d, size = %d",
+                    from, size));
+        }
+        // При переходе по курсору смещение не нужно: страница начинается сразу после курсора
+        return cursor == null || cursor.isBlank() ? OffsetPageable.of(from, size) : OffsetPageable.of(0, size);
+    }
 }
@@ -0,0 +1,109 @@
+package ru.practicum.shareit.booking;
+
+import lombok.Value;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Занятые интервалы одной вещи, отсортированные по началу.
+ * Рядом хранится префиксный максимум концов, поэтому проверка пересечения — один бинарный поиск.
+ * Интервалы полуоткрытые: бронирование, заканчивающееся в 12:00, не пересекается с начинающимся в 12:00.
+ * Закончившиеся до горизонта интервалы не хранятся.
+ * Класс не потокобезопасен, доступ сериализуется блокировкой вещи в {@link BookingAdmissionService}.
+ */
+class ItemSchedule {
+    private static final Comparator<Interval> ORDER = Comparator.comparing(Interval::getStart)
+            .thenComparing(Interval::getBookingId);
+
+    private final List<Interval> intervals = new ArrayList<>();
+    private LocalDateTime[] maxEnd = new LocalDateTime[0];
+    private LocalDateTime horizon;
+
+    ItemSchedule(List<Booking> bookings, LocalDateTime horizon) {
+        this.horizon = horizon;
+        bookings.forEach(booking -> intervals.add(new Interval(booking.getId(), booking.getStart(),
+                booking.getEnd())));
+        intervals.sort(ORDER);
+        rebuildMaxEnd(0);
+    }
+
+    boolean overlaps(LocalDateTime start, LocalDateTime end) {
+        int startingBefore = countStartingBefore(end);
+        return startingBefore > 0 && maxEnd[startingBefore - 1].isAfter(start);
+    }
+
+    // Сдвигает горизонт и удаляет интервалы, закончившиеся к этому моменту
+    void prune(LocalDateTime now) {
+        if (!now.isAfter(horizon)) {
+            return;
+        }
+        horizon = now;
+        if (intervals.removeIf(interval -> !interval.getEnd().isAfter(now))) {
+            rebuildMaxEnd(0);
+        }
+    }
+
+    boolean contains(Long bookingId) {
+        return intervals.stream().anyMatch(interval -> interval.getBookingId().equals(bookingId));
+    }
+
+    void add(Long bookingId, LocalDateTime start, LocalDateTime end) {
+        Interval interval = new Interval(bookingId, start, end);
+        int position = -Collections.binarySearch(intervals, interval, ORDER) - 1;
+        if (position < 0) {
+            return;
+        }
+        intervals.add(position, interval);
+        rebuildMaxEnd(position);
+    }
+
+    void remove(Long bookingId) {
+        for (int i = 0; i < intervals.size(); i++) {
+            if (intervals.get(i).getBookingId().equals(bookingId)) {
+                intervals.remove(i);
+                rebuildMaxEnd(i);
+                return;
+            }
+        }
+    }
+
+    int size() {
+        return intervals.size();
+    }
+
+    private int countStartingBefore(LocalDateTime end) {
+        int low = 0;
+        int high = intervals.size();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (intervals.get(middle).getStart().isBefore(end)) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private void rebuildMaxEnd(int from) {
+        if (maxEnd.length != intervals.size()) {
+            maxEnd = Arrays.copyOf(maxEnd, intervals.size());
+        }
+        for (int i = from; i < intervals.size(); i++) {
+            LocalDateTime end = intervals.get(i).getEnd();
+            maxEnd[i] = i == 0 || end.isAfter(maxEnd[i - 1]) ? end : maxEnd[i - 1];
+        }
+    }
+
+    @Value
+    private static class Interval {
+        Long bookingId;
+        LocalDateTime start;
+        LocalDateTime end;
+    }
+}
@@ -22,4 +22,14 @@ public class BookingDto {
     Status status;
     UserDto booker;
     ItemDto item;
+
+    /**
+     * Конструктор для проекций запросов: вложенные DTO собираются из плоских колонок.
+     */
+    public BookingDto(Long id, LocalDateTime start, LocalDateTime end, Status status,
+                      Long bookerId, String bookerName, String bookerEmail,
+                      Long itemId, String itemName, String itemDescription, Boolean itemAvailable, Long itemOwnerId) {
+        this(id, start, end, status, new UserDto(bookerId, bookerName, bookerEmail),
+                new ItemDto(itemId, itemName, itemDescription, itemAvailable, itemOwnerId));
+    }
 }
@@ -0,0 +1,80 @@
+package ru.practicum.shareit.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Разделение чтения и записи: включается, когда задан shareit.datasource.replica.url.
+ * Основной пул настраивается как обычно (spring.datasource.*), пул реплики — через
+ * shareit.datasource.replica.* и shareit.datasource.replica.hikari.*; логин и пароль по умолчанию те же.
+ * Без реплики источник данных создаёт Spring Boot, и все запросы идут в одну базу.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(prefix = "shareit.datasource.replica", name = "url")
+public class ReadReplicaConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    @ConfigurationProperties("shareit.datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(DataSourceProperties properties,
+                                              @Value("${shareit.datasource.replica.url}") String url,
+                                              @Value("${shareit.datasource.replica.username:#{null}}")
+                                              String username,
+                                              @Value("${shareit.datasource.replica.password:#{null}}")
+                                              String password) {
+        HikariDataSource dataSource = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .driverClassName(properties.determineDriverClassName())
+                .url(url)
+                .username(username != null ? username : properties.determineUsername())
+                .password(password != null ? password : properties.determinePassword())
+                .build();
+        dataSource.setPoolName("replica");
+        // Запись в реплику — ошибка маршрутизации, база должна её отклонить
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    @Bean
+    public ReadYourWrites readYourWrites(MeterRegistry meterRegistry,
+                                         @Value("${shareit.datasource.replica.read-your-writes.maximum-size:100000}")
+                                         long maximumSize,
+                                         @Value("${shareit.datasource.replica.read-your-writes.window:5s}")
+                                         Duration window) {
+        return new ReadYourWrites(meterRegistry, maximumSize, window);
+    }
+
+    @Bean
+    public RequestUserFilter requestUserFilter() {
+        return new RequestUserFilter();
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primary,
+                                 @Qualifier("replicaDataSource") DataSource replica,
+                                 ReadYourWrites readYourWrites, MeterRegistry meterRegistry) {
+        return new LazyConnectionDataSourceProxy(
+                new ReadWriteRoutingDataSource(primary, replica, readYourWrites, meterRegistry));
+    }
+}
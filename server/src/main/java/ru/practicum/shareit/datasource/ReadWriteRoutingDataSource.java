@@ -0,0 +1,88 @@
+package ru.practicum.shareit.datasource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+import static ru.practicum.shareit.utils.TransactionUtils.afterCommit;
+import static ru.practicum.shareit.utils.TransactionUtils.afterCompletion;
+
+/**
+ * Соединения для транзакций readOnly берутся у реплики, все остальные — у основной базы.
+ * Признак readOnly выставляется уже после начала транзакции, поэтому источник оборачивается
+ * в LazyConnectionDataSourceProxy: соединение запрашивается при первом запросе к базе.
+ * Вне транзакции (миграции, служебные запросы) используется основная база.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+    // Ресурс транзакции, читающей из реплики; снимается по завершении транзакции
+    private static final Object REPLICA_TRANSACTION = new Object();
+
+    private final ReadYourWrites readYourWrites;
+    private final Counter writes;
+    private final Counter reads;
+    private final Counter readsAfterWrite;
+
+    public ReadWriteRoutingDataSource(DataSource primary, DataSource replica, ReadYourWrites readYourWrites,
+                                      MeterRegistry meterRegistry) {
+        this.readYourWrites = readYourWrites;
+        setTargetDataSources(Map.of(Target.PRIMARY, primary, Target.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+        writes = counter(meterRegistry, "write", "Транзакции с записью, направленные в основную базу");
+        reads = counter(meterRegistry, "read", "Транзакции readOnly, направленные в реплику");
+        readsAfterWrite = counter(meterRegistry, "read-after-write",
+                "Транзакции readOnly, направленные в основную базу после недавней записи пользователя");
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            return Target.PRIMARY;
+        }
+        Long userId = ReadYourWrites.currentUser();
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            writes.increment();
+            afterCommit(() -> readYourWrites.recordWrite(userId));
+            return Target.PRIMARY;
+        }
+        if (readYourWrites.mustReadPrimary(userId)) {
+            readsAfterWrite.increment();
+            return Target.PRIMARY;
+        }
+        reads.increment();
+        markReplicaTransaction();
+        return Target.REPLICA;
+    }
+
+    /**
+     * Текущая транзакция читает из реплики: прочитанное может отставать от основной базы
+     * и не должно попадать в кэши, живущие дольше транзакции.
+     */
+    public static boolean isReplicaTransaction() {
+        return TransactionSynchronizationManager.hasResource(REPLICA_TRANSACTION);
+    }
+
+    private static void markReplicaTransaction() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()
+                && !TransactionSynchronizationManager.hasResource(REPLICA_TRANSACTION)) {
+            TransactionSynchronizationManager.bindResource(REPLICA_TRANSACTION, Boolean.TRUE);
+            afterCompletion(() -> TransactionSynchronizationManager.unbindResourceIfPossible(REPLICA_TRANSACTION));
+        }
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, String route, String description) {
+        return Counter.builder("shareit.datasource.transactions")
+                .description(description)
+                .tag("route", route)
+                .register(meterRegistry);
+    }
+
+    enum Target {
+        PRIMARY,
+        REPLICA
+    }
+}
@@ -0,0 +1,61 @@
+package ru.practicum.shareit.datasource;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+import java.time.Duration;
+
+/**
+ * Пользователи, недавно записавшие данные. Их чтения идут в основную базу,
+ * пока реплика могла ещё не получить записанное. Пользователь запроса берётся из заголовка
+ * X-Sharer-User-Id (RequestUserFilter) и хранится в потоке, обрабатывающем запрос.
+ * <p>
+ * Учёт ведётся в памяти экземпляра, поэтому чтение своих записей не гарантируется, а лишь обеспечивается
+ * в обычном случае: шлюз с маршрутизацией user-affinity направляет запросы пользователя на его экземпляр.
+ * Если экземпляр перегружен и запрос ушёл на соседа по кольцу, экземпляр исключён из балансировки
+ * или шлюз работает с маршрутизацией least-outstanding, чтение попадёт на экземпляр, не знающий о записи,
+ * и может не увидеть её, пока реплика не догонит основную базу. Данные, которые нельзя читать устаревшими,
+ * читаются в транзакциях с записью — они всегда идут в основную базу.
+ */
+public class ReadYourWrites {
+    private static final ThreadLocal<Long> CURRENT_USER = new ThreadLocal<>();
+
+    private final Cache<Long, Boolean> recentWriters;
+    private final boolean enabled;
+
+    public ReadYourWrites(MeterRegistry meterRegistry, long maximumSize, Duration window) {
+        this.enabled = window.isPositive();
+        this.recentWriters = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(enabled ? window : Duration.ofNanos(1))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, recentWriters, "read-your-writes");
+    }
+
+    public static Long currentUser() {
+        return CURRENT_USER.get();
+    }
+
+    static void setCurrentUser(Long userId) {
+        if (userId == null) {
+            CURRENT_USER.remove();
+        } else {
+            CURRENT_USER.set(userId);
+        }
+    }
+
+    // Чтения пользователя должны видеть его недавние записи
+    public boolean mustReadPrimary(Long userId) {
+        return enabled && userId != null && recentWriters.getIfPresent(userId) != null;
+    }
+
+    // Вызывается после коммита записи пользователя: окно отсчитывается от последней записи
+    public void recordWrite(Long userId) {
+        if (enabled && userId != null) {
+            recentWriters.put(userId, Boolean.TRUE);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package ru.practicum.shareit.datasource;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+// Запоминает пользователя запроса на время его обработки: по нему выбирается база для чтения
+public class RequestUserFilter extends OncePerRequestFilter {
+    static final String USER_ID_HEADER = "X-Sharer-User-Id";
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        ReadYourWrites.setCurrentUser(parseUserId(request.getHeader(USER_ID_HEADER)));
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            ReadYourWrites.setCurrentUser(null);
+        }
+    }
+
+    // Некорректный заголовок здесь не ошибка: его отклонит контроллер
+    private static Long parseUserId(String header) {
+        if (header == null) {
+            return null;
+        }
+        try {
+            return Long.valueOf(header.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
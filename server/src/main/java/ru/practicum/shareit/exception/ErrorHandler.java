@@ -25,4 +25,10 @@ public class ErrorHandler {
     public ErrorResponse handleDuplicated(final DuplicatedDataException e) {
         return new ErrorResponse("Дублирование данных", e.getMessage());
     }
+
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public ErrorResponse handleConflict(final ConflictException e) {
+        return new ErrorResponse("Конфликт данных", e.getMessage());
+    }
 }
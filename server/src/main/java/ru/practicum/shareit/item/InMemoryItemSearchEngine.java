@@ -0,0 +1,158 @@
+package ru.practicum.shareit.item;
+
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import ru.practicum.shareit.item.dto.ItemDto;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Инвертированный индекс доступных вещей в памяти процесса.
+ * Индекс обновляется {@link ItemSearchListener} при сохранении вещи, а при старте заполняется из БД.
+ * Подходит для одного экземпляра сервера: изменения, сделанные другими экземплярами, он не видит.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "shareit.search.engine", havingValue = "memory", matchIfMissing = true)
+public class InMemoryItemSearchEngine implements ItemSearchEngine {
+    private static final float NAME_WEIGHT = 2.0f;
+    private static final float DESCRIPTION_WEIGHT = 1.0f;
+
+    private final ItemRepository itemRepository;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Document> documents = new HashMap<>();
+    private final TreeMap<String, Map<Long, Float>> postings = new TreeMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        List<Item> items = itemRepository.findByAvailableTrue();
+        lock.writeLock().lock();
+        try {
+            // Вещи, проиндексированные до окончания загрузки, новее снимка из БД
+            items.stream()
+                    .filter(item -> !documents.containsKey(item.getId()))
+                    .forEach(item -> put(new Document(ItemMapper.mapToItemDto(item))));
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Поисковый индекс загружен: {} доступных вещей", items.size());
+    }
+
+    @Override
+    public List<ItemDto> search(String text, int from, int size) {
+        List<String> terms = ItemSearchEngine.tokenize(text);
+        if (terms.isEmpty()) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            Map<Long, Float> scores = null;
+            for (String term : terms) {
+                Map<Long, Float> termScores = score(term);
+                if (scores == null) {
+                    scores = termScores;
+                } else {
+                    scores.keySet().retainAll(termScores.keySet());
+                    scores.replaceAll((itemId, score) -> score + termScores.get(itemId));
+                }
+                if (scores.isEmpty()) {
+                    return List.of();
+                }
+            }
+            return scores.entrySet().stream()
+                    .sorted(Map.Entry.<Long, Float>comparingByValue(Comparator.reverseOrder())
+                            .thenComparing(Map.Entry.comparingByKey()))
+                    .skip(from)
+                    .limit(size)
+                    .map(entry -> documents.get(entry.getKey()).getItem())
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Индексирует вещь (или убирает её из индекса, если она недоступна).
+     * Возвращает действие, возвращающее индекс в прежнее состояние, — для отката транзакции.
+     */
+    public Runnable index(Item item) {
+        Document document = Boolean.TRUE.equals(item.getAvailable())
+                ? new Document(ItemMapper.mapToItemDto(item)) : null;
+        return replace(item.getId(), document);
+    }
+
+    public Runnable remove(Long itemId) {
+        return replace(itemId, null);
+    }
+
+    private Runnable replace(Long itemId, Document document) {
+        lock.writeLock().lock();
+        try {
+            Document previous = drop(itemId);
+            if (document != null) {
+                put(document);
+            }
+            return () -> replace(itemId, previous);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private Map<Long, Float> score(String prefix) {
+        Map<Long, Float> scores = new HashMap<>();
+        int total = documents.size();
+        postings.subMap(prefix, true, prefix + Character.MAX_VALUE, true).values().forEach(posting -> {
+            double idf = Math.log(1 + (total - posting.size() + 0.5) / (posting.size() + 0.5));
+            posting.forEach((itemId, weight) -> scores.merge(itemId, (float) (weight * idf), Float::sum));
+        });
+        return scores;
+    }
+
+    private void put(Document document) {
+        documents.put(document.getItem().getId(), document);
+        document.getWeights().forEach((token, weight) -> postings
+                .computeIfAbsent(token, key -> new HashMap<>())
+                .put(document.getItem().getId(), weight));
+    }
+
+    private Document drop(Long itemId) {
+        Document document = documents.remove(itemId);
+        if (document != null) {
+            document.getWeights().keySet().forEach(token -> {
+                Map<Long, Float> posting = postings.get(token);
+                posting.remove(itemId);
+                if (posting.isEmpty()) {
+                    postings.remove(token);
+                }
+            });
+        }
+        return document;
+    }
+
+    @Value
+    private static class Document {
+        ItemDto item;
+        Map<String, Float> weights;
+
+        Document(ItemDto item) {
+            this.item = item;
+            this.weights = new HashMap<>();
+            ItemSearchEngine.tokenize(item.getName())
+                    .forEach(token -> weights.merge(token, NAME_WEIGHT, Float::sum));
+            ItemSearchEngine.tokenize(item.getDescription())
+                    .forEach(token -> weights.merge(token, DESCRIPTION_WEIGHT, Float::sum));
+        }
+    }
+}
@@ -3,14 +3,15 @@ package ru.practicum.shareit.item;
 import jakarta.persistence.*;
 import lombok.*;
 import lombok.experimental.FieldDefaults;
+import ru.practicum.shareit.booking.Booking;
 import ru.practicum.shareit.request.ItemRequest;
 import ru.practicum.shareit.user.User;
 
 @NoArgsConstructor
-@AllArgsConstructor
 @EqualsAndHashCode(of = { "name", "description", "owner" })
 @FieldDefaults(level = AccessLevel.PRIVATE)
 @Entity
+@EntityListeners(ItemSearchListener.class)
 @Table(name = "items", schema = "public")
 @Getter
 @Setter
@@ -18,7 +19,8 @@ import ru.practicum.shareit.user.User;
 public class Item {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "items_seq")
+    @SequenceGenerator(name = "items_seq", sequenceName = "items_seq", allocationSize = 50)
     Long id;
 
     @Column(nullable = false)
@@ -35,9 +37,36 @@ public class Item {
     @ToString.Exclude
     User owner;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "request_id")
     @ToString.Exclude
     ItemRequest request;
+
+    // Сводка по бронированиям и отзывам только читается: её ведут запросы ItemRepository,
+    // поэтому сохранение вещи из DTO её не затирает
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "last_booking_id", insertable = false, updatable = false)
+    @ToString.Exclude
+    Booking lastBooking;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "next_booking_id", insertable = false, updatable = false)
+    @ToString.Exclude
+    Booking nextBooking;
+
+    @Column(name = "booking_count", insertable = false, updatable = false)
+    Long bookingCount;
+
+    @Column(name = "comment_count", insertable = false, updatable = false)
+    Long commentCount;
+
+    public Item(Long id, String name, String description, Boolean available, User owner, ItemRequest request) {
+        this.id = id;
+        this.name = name;
+        this.description = description;
+        this.available = available;
+        this.owner = owner;
+        this.request = request;
+    }
 }
 
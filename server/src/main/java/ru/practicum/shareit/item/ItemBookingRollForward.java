@@ -0,0 +1,41 @@
+package ru.practicum.shareit.item;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Сдвигает сводку бронирований вещей со временем: следующее бронирование начинается, текущее заканчивается
+ * и становится последним. Пересчитываются только вещи, у которых наступил момент roll_forward_at.
+ * Выбора ведущего нет: пересчёт запускается на каждом экземпляре сервера. Это безопасно, потому что пересчёт
+ * идемпотентен и выполняется под блокировкой строк вещей, — параллельные запуски лишь повторяют работу.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ItemBookingRollForward {
+    private final ItemRepository itemRepository;
+
+    @Value("${shareit.items.roll-forward.batch-size:500}")
+    private int batchSize;
+
+    // Каждая пачка пересчитывается в своей транзакции: блокировки строк вещей держатся недолго
+    @Scheduled(fixedDelayString = "${shareit.items.roll-forward.interval:PT1M}")
+    public void rollForward() {
+        LocalDateTime now = LocalDateTime.now();
+        long refreshed = 0;
+        List<Long> itemIds = itemRepository.findIdsToRollForward(now, 0, batchSize);
+        while (!itemIds.isEmpty()) {
+            refreshed += itemRepository.lockAndRefreshBookingSummary(itemIds, now);
+            itemIds = itemRepository.findIdsToRollForward(now, itemIds.getLast(), batchSize);
+        }
+        if (refreshed > 0) {
+            log.info("Сводка бронирований пересчитана для {} вещей", refreshed);
+        }
+    }
+}
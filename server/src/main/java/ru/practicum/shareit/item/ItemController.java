@@ -1,9 +1,13 @@
 package ru.practicum.shareit.item;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.shareit.item.dto.*;
+import ru.practicum.shareit.utils.IdempotencyService;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 
 @RestController
@@ -13,8 +17,11 @@ public class ItemController {
     private final String itemsIdPath = "/{id}";
     private final String searchPath = "/search";
     private final String commentPath = "/{itemId}/comment";
+    private final String importPath = "/import";
     private final String userIdHeader = "X-Sharer-User-Id";
     private final ItemService itemService;
+    private final ItemImportService itemImportService;
+    private final IdempotencyService idempotencyService;
 
     @GetMapping()
     public List<ItemWithBookingsCommentsDto> findAllFromUser(
@@ -29,14 +36,25 @@ public class ItemController {
     }
 
     @GetMapping(searchPath)
-    public List<ItemDto> findItemByText(@RequestParam(required = false) String text) {
-        return itemService.findByText(text);
+    public List<ItemDto> findItemByText(@RequestParam(required = false) String text,
+                                        @RequestParam(defaultValue = "0") Integer from,
+                                        @RequestParam(defaultValue = "10") Integer size) {
+        return itemService.findByText(text, from, size);
     }
 
     @PostMapping()
     public ItemDto create(@RequestBody ItemCreateDto item,
-                          @RequestHeader(value = userIdHeader, required = false) Long userId) {
-        return itemService.create(item, userId);
+                          @RequestHeader(value = userIdHeader, required = false) Long userId,
+                          @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
+        return idempotencyService.execute("createItem", userId, idempotencyKey, item,
+                () -> itemService.create(item, userId));
+    }
+
+    @PostMapping(value = importPath, consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ItemImportResultDto importItems(InputStream items,
+                                           @RequestHeader(value = userIdHeader, required = false) Long userId)
+            throws IOException {
+        return itemImportService.importItems(items, userId);
     }
 
     @PatchMapping(itemsIdPath)
@@ -0,0 +1,188 @@
+package ru.practicum.shareit.item;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import ru.practicum.shareit.item.dto.ItemCreateDto;
+import ru.practicum.shareit.item.dto.ItemImportErrorDto;
+import ru.practicum.shareit.item.dto.ItemImportResultDto;
+import ru.practicum.shareit.utils.CheckUserService;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Импорт вещей из NDJSON: по одной вещи в строке.
+ * Поток читается построчно и целиком в памяти не держится. Корректные строки сохраняются пачками,
+ * каждая пачка — в своей транзакции, поэтому ошибка в конце файла не откатывает уже загруженные вещи.
+ * Ошибочные строки попадают в отчёт и импорт не прерывают. В отчёт попадают только первые maxErrors ошибок,
+ * остальные лишь считаются. Строка длиннее maxLineLength символов отклоняется без чтения в память.
+ */
+@Slf4j
+@Service
+public class ItemImportService {
+    private final ItemService itemService;
+    private final CheckUserService checkUserService;
+    private final ObjectMapper objectMapper;
+    private final int maxErrors;
+    private final int maxLineLength;
+
+    public ItemImportService(ItemService itemService,
+                             CheckUserService checkUserService,
+                             ObjectMapper objectMapper,
+                             @Value("${shareit.items.import.max-errors:100}") int maxErrors,
+                             @Value("${shareit.items.import.max-line-length:65536}") int maxLineLength) {
+        this.itemService = itemService;
+        this.checkUserService = checkUserService;
+        this.objectMapper = objectMapper;
+        this.maxErrors = maxErrors;
+        this.maxLineLength = maxLineLength;
+    }
+
+    // Без общей транзакции: каждая пачка коммитится вызовом ItemService.createAll
+    public ItemImportResultDto importItems(InputStream ndjson, Long userId) throws IOException {
+        checkUserService.checkUser(userId);
+        Batch batch = new Batch(userId);
+        // Поток не закрываем: им владеет контейнер сервлетов
+        LineReader reader = new LineReader(new BufferedReader(new InputStreamReader(ndjson, StandardCharsets.UTF_8)),
+                maxLineLength);
+        long lineNumber = 0;
+        for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+            lineNumber++;
+            if (reader.isTooLong()) {
+                batch.reject(lineNumber, String.format("Строка длиннее %d символов", maxLineLength));
+            } else if (!line.isBlank()) {
+                batch.add(lineNumber, line);
+            }
+        }
+        batch.flush();
+        log.info("Импорт вещей пользователя с id = {}: добавлено {}, отклонено {} строк", userId, batch.created,
+                batch.failed);
+        return new ItemImportResultDto(batch.created, batch.failed, batch.errors);
+    }
+
+    // Те же правила, что у ItemCreateDto в шлюзе
+    private static String validate(ItemCreateDto item) {
+        if (item == null) {
+            return "Строка должна содержать объект вещи";
+        }
+        if (item.getName() == null || item.getName().isBlank()) {
+            return "Имя должно быть указано";
+        }
+        if (item.getDescription() == null || item.getDescription().isBlank()) {
+            return "Описание должно быть указано";
+        }
+        if (item.getAvailable() == null) {
+            return "Доступность должна быть указана";
+        }
+        return null;
+    }
+
+    private final class Batch {
+        private final Long userId;
+        private List<Long> lines = new ArrayList<>(ItemServiceImpl.BULK_CHUNK_SIZE);
+        private List<ItemCreateDto> items = new ArrayList<>(ItemServiceImpl.BULK_CHUNK_SIZE);
+        private final List<ItemImportErrorDto> errors = new ArrayList<>();
+        private long created;
+        private long failed;
+
+        Batch(Long userId) {
+            this.userId = userId;
+        }
+
+        void add(long line, String json) {
+            ItemCreateDto item;
+            try {
+                item = objectMapper.readValue(json, ItemCreateDto.class);
+            } catch (JsonProcessingException e) {
+                reject(line, "Некорректный JSON: " + e.getOriginalMessage());
+                return;
+            }
+            String error = validate(item);
+            if (error != null) {
+                reject(line, error);
+                return;
+            }
+            lines.add(line);
+            items.add(item);
+            if (items.size() == ItemServiceImpl.BULK_CHUNK_SIZE) {
+                flush();
+            }
+        }
+
+        void flush() {
+            if (items.isEmpty()) {
+                return;
+            }
+            try {
+                created += itemService.createAll(items, userId).size();
+            } catch (RuntimeException e) {
+                // Пачка откатилась целиком: сохраняем её строки по одной, чтобы найти ошибочные
+                log.warn("Пачка строк {} - {} не сохранена: {}", lines.getFirst(), lines.getLast(), e.getMessage());
+                for (int i = 0; i < items.size(); i++) {
+                    try {
+                        itemService.create(items.get(i), userId);
+                        created++;
+                    } catch (RuntimeException lineError) {
+                        reject(lines.get(i), lineError.getMessage());
+                    }
+                }
+            }
+            lines = new ArrayList<>(ItemServiceImpl.BULK_CHUNK_SIZE);
+            items = new ArrayList<>(ItemServiceImpl.BULK_CHUNK_SIZE);
+        }
+
+        private void reject(long line, String message) {
+            log.debug("Строка {} импорта отклонена: {}", line, message);
+            failed++;
+            if (errors.size() < maxErrors) {
+                errors.add(new ItemImportErrorDto(line, message));
+            }
+        }
+    }
+
+    // Чтение строк с ограничением длины: остаток слишком длинной строки пропускается, а не собирается в памяти
+    private static final class LineReader {
+        private final Reader reader;
+        private final int maxLength;
+        private final StringBuilder line = new StringBuilder();
+        private boolean tooLong;
+
+        LineReader(Reader reader, int maxLength) {
+            this.reader = reader;
+            this.maxLength = maxLength;
+        }
+
+        String readLine() throws IOException {
+            line.setLength(0);
+            tooLong = false;
+            int c = reader.read();
+            if (c < 0) {
+                return null;
+            }
+            while (c >= 0 && c != '\n') {
+                if (line.length() < maxLength) {
+                    line.append((char) c);
+                } else if (c != '\r') {
+                    tooLong = true;
+                }
+                c = reader.read();
+            }
+            int length = line.length();
+            return length > 0 && line.charAt(length - 1) == '\r' ? line.substring(0, length - 1) : line.toString();
+        }
+
+        // Последняя прочитанная строка длиннее лимита: возвращено только её начало
+        boolean isTooLong() {
+            return tooLong;
+        }
+    }
+}
@@ -3,14 +3,11 @@ package ru.practicum.shareit.item;
 import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
 
-import ru.practicum.shareit.booking.Booking;
-import ru.practicum.shareit.booking.BookingMapper;
 import ru.practicum.shareit.item.dto.*;
 import ru.practicum.shareit.request.ItemRequest;
 import ru.practicum.shareit.user.User;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 @NoArgsConstructor(access = AccessLevel.PRIVATE)
 public class ItemMapper {
@@ -24,33 +21,14 @@ public class ItemMapper {
         return dto;
     }
 
-    public static ItemWithCommentsDto mapToItemWithCommentsDto(Item item, List<Comment> comments) {
+    public static ItemWithCommentsDto mapToItemWithCommentsDto(Item item, List<CommentDto> comments) {
         ItemWithCommentsDto dto = new ItemWithCommentsDto();
         dto.setId(item.getId());
         dto.setName(item.getName());
         dto.setDescription(item.getDescription());
         dto.setAvailable(item.getAvailable());
         dto.setOwnerId(item.getOwner().getId());
-        dto.setComments(comments.stream()
-                .map(CommentMapper::mapToCommentDto)
-                .collect(Collectors.toList()));
-        return dto;
-    }
-
-    public static ItemWithBookingsCommentsDto mapToItemWithBookingsCommentsDto(
-            Item item, List<Booking> bookings, List<Comment> comments) {
-        ItemWithBookingsCommentsDto dto = new ItemWithBookingsCommentsDto();
-        dto.setId(item.getId());
-        dto.setName(item.getName());
-        dto.setDescription(item.getDescription());
-        dto.setAvailable(item.getAvailable());
-        dto.setOwnerId(item.getOwner().getId());
-        dto.setBookings(bookings.stream()
-                .map(BookingMapper::mapToBookingDto)
-                .collect(Collectors.toList()));
-        dto.setComments(comments.stream()
-                .map(CommentMapper::mapToCommentDto)
-                .collect(Collectors.toList()));
+        dto.setComments(comments);
         return dto;
     }
 
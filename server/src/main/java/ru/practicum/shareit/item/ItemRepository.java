@@ -1,9 +1,14 @@
 package ru.practicum.shareit.item;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.item.dto.ItemWithBookingsCommentsDto;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -11,8 +16,81 @@ public interface ItemRepository extends JpaRepository<Item, Long> {
     @Query("SELECT i FROM Item i JOIN FETCH i.owner WHERE i.id = :itemId")
     Optional<Item> findByIdWithOwner(@Param("itemId") Long itemId);
 
-    List<Item> findByNameContainingIgnoreCaseOrDescriptionContainingIgnoreCase(String name, String description);
+    @Query("SELECT i FROM Item i JOIN FETCH i.owner WHERE i.id IN :itemIds")
+    List<Item> findAllByIdWithOwner(@Param("itemIds") Collection<Long> itemIds);
 
-    List<Item> findByOwnerId(long userId);
+    @Query(value = "SELECT * FROM items i " +
+            "WHERE i.is_available " +
+            "AND to_tsvector('simple', i.name || ' ' || i.description) @@ to_tsquery('simple', :query) " +
+            "ORDER BY ts_rank(to_tsvector('simple', i.name || ' ' || i.description), " +
+            "to_tsquery('simple', :query)) DESC, i.id " +
+            "LIMIT :size OFFSET :from", nativeQuery = true)
+    List<Item> searchAvailable(@Param("query") String query, @Param("from") int from, @Param("size") int size);
+
+    List<Item> findByAvailableTrue();
+
+    // Сводка хранится в строке вещи, бронирования присоединяются по первичному ключу
+    @Query("SELECT new ru.practicum.shareit.item.dto.ItemWithBookingsCommentsDto(i.id, i.name, i.description, " +
+            "i.available, i.owner.id, lb.id, lb.booker.id, lb.start, lb.end, nb.id, nb.booker.id, nb.start, nb.end, " +
+            "i.bookingCount, i.commentCount) " +
+            "FROM Item i " +
+            "LEFT JOIN i.lastBooking lb " +
+            "LEFT JOIN i.nextBooking nb " +
+            "WHERE i.owner.id = :ownerId " +
+            "ORDER BY i.id")
+    List<ItemWithBookingsCommentsDto> findWithBookingSummaryByOwnerId(@Param("ownerId") long ownerId);
+
+    @Modifying(flushAutomatically = true)
+    @Query(value = "UPDATE items SET booking_count = booking_count + :count WHERE id = :itemId", nativeQuery = true)
+    void incrementBookingCount(@Param("itemId") Long itemId, @Param("count") long count);
+
+    @Modifying(flushAutomatically = true)
+    @Query(value = "UPDATE items SET comment_count = comment_count + 1 WHERE id = :itemId", nativeQuery = true)
+    void incrementCommentCount(@Param("itemId") Long itemId);
+
+    /**
+     * Пересчитывает последнее и следующее подтверждённое бронирование вещей на момент {@code now}
+     * и момент следующего пересчёта. Правила те же, что у BookingRepository.findLastAndNextByItemId.
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true)
+    @Query(value = "UPDATE items SET " +
+            "last_booking_id = (SELECT b.id FROM bookings b " +
+            "WHERE b.item_id = items.id AND b.status = 'APPROVED' AND b.end_date < :now " +
+            "ORDER BY b.start_date DESC, b.id DESC LIMIT 1), " +
+            "next_booking_id = (SELECT b.id FROM bookings b " +
+            "WHERE b.item_id = items.id AND b.status = 'APPROVED' AND b.start_date > :now " +
+            "ORDER BY b.start_date, b.id LIMIT 1), " +
+            "roll_forward_at = (SELECT MIN(CASE WHEN b.start_date > :now THEN b.start_date ELSE b.end_date END) " +
+            "FROM bookings b " +
+            "WHERE b.item_id = items.id AND b.status = 'APPROVED' AND b.end_date >= :now) " +
+            "WHERE items.id IN :itemIds", nativeQuery = true)
+    int refreshBookingSummary(@Param("itemIds") Collection<Long> itemIds, @Param("now") LocalDateTime now);
+
+    // Строки блокируются в порядке id, чтобы параллельные пересчёты пересекающихся пачек не взаимоблокировались
+    @Query(value = "SELECT i.id FROM items i WHERE i.id IN :itemIds ORDER BY i.id FOR UPDATE", nativeQuery = true)
+    List<Long> lockByIds(@Param("itemIds") Collection<Long> itemIds);
+
+    /**
+     * Пересчитывает сводку под блокировкой строк вещей. Без неё два параллельных подтверждения бронирований
+     * одной вещи пересчитывают сводку каждое по своему снимку и второе затирает результат первого:
+     * UPDATE, дождавшийся чужой блокировки строки, не перечитывает подзапросы. Запрос после SELECT ... FOR UPDATE
+     * выполняется уже по новому снимку и видит закоммиченные бронирования.
+     */
+    @Transactional
+    default int lockAndRefreshBookingSummary(Collection<Long> itemIds, LocalDateTime now) {
+        lockByIds(itemIds);
+        return refreshBookingSummary(itemIds, now);
+    }
+
+    // Постранично по id: вещь, пересчитанная в этом проходе, повторно не выбирается
+    @Query(value = "SELECT i.id FROM items i " +
+            "WHERE i.roll_forward_at <= :now AND i.id > :afterId " +
+            "ORDER BY i.id LIMIT :limit", nativeQuery = true)
+    List<Long> findIdsToRollForward(@Param("now") LocalDateTime now, @Param("afterId") long afterId,
+                                    @Param("limit") int limit);
+
+    @Query("SELECT i FROM Item i JOIN FETCH i.request r WHERE r.id IN :requestIds")
+    List<Item> findByRequestIdIn(@Param("requestIds") Collection<Long> requestIds);
 }
 
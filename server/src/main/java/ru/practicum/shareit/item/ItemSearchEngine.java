@@ -0,0 +1,27 @@
+package ru.practicum.shareit.item;
+
+import ru.practicum.shareit.item.dto.ItemDto;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Полнотекстовый поиск доступных вещей по названию и описанию.
+ * Реализация выбирается свойством shareit.search.engine: postgres или memory.
+ */
+public interface ItemSearchEngine {
+
+    /**
+     * Возвращает страницу доступных вещей, упорядоченных по убыванию релевантности.
+     * Каждое слово запроса должно совпасть с началом какого-либо слова вещи.
+     */
+    List<ItemDto> search(String text, int from, int size);
+
+    static List<String> tokenize(String text) {
+        return Arrays.stream(text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+"))
+                .filter(token -> !token.isEmpty())
+                .distinct()
+                .toList();
+    }
+}
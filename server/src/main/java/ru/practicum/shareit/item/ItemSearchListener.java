@@ -0,0 +1,30 @@
+package ru.practicum.shareit.item;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+
+import static ru.practicum.shareit.utils.TransactionUtils.afterRollback;
+
+/**
+ * Поддерживает {@link InMemoryItemSearchEngine} в актуальном состоянии при изменении вещей.
+ * Индекс обновляется при сбросе изменений в БД, поэтому поиск внутри той же транзакции видит их после flush,
+ * а при откате транзакции изменения индекса отменяются.
+ */
+@RequiredArgsConstructor
+public class ItemSearchListener {
+    private final ObjectProvider<InMemoryItemSearchEngine> searchEngine;
+
+    @PostPersist
+    @PostUpdate
+    public void saved(Item item) {
+        searchEngine.ifAvailable(engine -> afterRollback(engine.index(item)));
+    }
+
+    @PostRemove
+    public void removed(Item item) {
+        searchEngine.ifAvailable(engine -> afterRollback(engine.remove(item.getId())));
+    }
+}
@@ -9,10 +9,12 @@ public interface ItemService {
 
     ItemWithCommentsDto findById(Long id, Long userId);
 
-    List<ItemDto> findByText(String text);
+    List<ItemDto> findByText(String text, Integer from, Integer size);
 
     ItemDto create(ItemCreateDto item, Long userId);
 
+    List<ItemDto> createAll(List<ItemCreateDto> items, Long userId);
+
     ItemDto update(ItemUpdateDto newItem, Long userId, Long id);
 
     CommentDto createComment(CommentCreateDto comment, Long userId, Long itemId);
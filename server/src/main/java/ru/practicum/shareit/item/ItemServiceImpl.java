@@ -1,10 +1,10 @@
 package ru.practicum.shareit.item;
 
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import ru.practicum.shareit.booking.Booking;
 import ru.practicum.shareit.booking.BookingMapper;
 import ru.practicum.shareit.booking.BookingRepository;
 import ru.practicum.shareit.booking.Status;
@@ -18,8 +18,11 @@ import ru.practicum.shareit.utils.CheckItemService;
 import ru.practicum.shareit.utils.CheckUserService;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import static ru.practicum.shareit.utils.LoggingUtils.logAndReturn;
@@ -29,29 +32,21 @@ import static ru.practicum.shareit.utils.LoggingUtils.logAndReturn;
 @RequiredArgsConstructor
 @Transactional(readOnly = true)
 public class ItemServiceImpl implements ItemService {
+    static final int BULK_CHUNK_SIZE = 1000;
+
     private final ItemRepository itemRepository;
     private final CheckUserService checkUserService;
     private final BookingRepository bookingRepository;
     private final CommentRepository commentRepository;
     private final CheckItemService checkItemService;
     private final ItemRequestRepository itemRequestRepository;
+    private final ItemSearchEngine itemSearchEngine;
+    private final EntityManager entityManager;
 
     public List<ItemWithBookingsCommentsDto> findAllFromUser(Long userId) {
         checkUserService.checkUser(userId);
-        List<Item> userItems = itemRepository.findByOwnerId(userId);
-        List<Booking> bookings = bookingRepository.findBookingsByOwnerId(userId);
-        List<Comment> comments = commentRepository.findCommentsByOwnerId(userId);
-        Map<Long, List<Booking>> bookingsByItem = bookings.stream()
-                .collect(Collectors.groupingBy(booking -> booking.getItem().getId()));
-        Map<Long, List<Comment>> commentsByItem = comments.stream()
-                .collect(Collectors.groupingBy(comment -> comment.getItem().getId()));
-        List<ItemWithBookingsCommentsDto> itemDtos = userItems.stream()
-                .map(item -> ItemMapper.mapToItemWithBookingsCommentsDto(
-                        item,
-                        bookingsByItem.getOrDefault(item.getId(), List.of()),
-                        commentsByItem.getOrDefault(item.getId(), List.of())
-                ))
-                .toList();
+        // Последнее и следующее бронирование и счётчики хранятся в строке вещи: один запрос без группировки
+        List<ItemWithBookingsCommentsDto> itemDtos = itemRepository.findWithBookingSummaryByOwnerId(userId);
         log.info("Получено {} вещей пользователя", itemDtos.size());
         return itemDtos;
     }
@@ -62,32 +57,18 @@ public class ItemServiceImpl implements ItemService {
                     log.error("Вещь с id = {} не найдена", id);
                     return new NotFoundException(String.format("Вещь с id=%d не найдена", id));
                 });
-        List<Comment> comments = commentRepository.findCommentsByItemId(id);
+        List<CommentDto> comments = commentRepository.findCommentsByItemId(id);
         log.info("Получены комментарии для item {}: {}", id, comments);
         ItemWithCommentsDto itemWithCommentsDto = ItemMapper.mapToItemWithCommentsDto(item, comments);
         if (item.getOwner().getId().equals(userId)) {
-            List<Booking> bookings = bookingRepository
-                    .findByItemOwner_IdAndStatusOrderByStartDesc(item.getOwner().getId(), Status.APPROVED);
-            if (!bookings.isEmpty()) {
-                Booking lastBooking = bookings.stream()
-                        .filter(booking -> booking.getEnd().isBefore(LocalDateTime.now()))
-                        .findFirst()
-                        .orElse(null);
-                Booking nextBooking = bookings.stream()
-                        .filter(booking -> booking.getStart().isAfter(LocalDateTime.now()))
-                        .findFirst()
-                        .orElse(null);
-                itemWithCommentsDto.setLastBooking(lastBooking != null ?
-                        BookingMapper.mapToBookingDto(lastBooking) : null);
-                itemWithCommentsDto.setNextBooking(nextBooking != null ?
-                        BookingMapper.mapToBookingDto(nextBooking) : null);
-            } else {
-                itemWithCommentsDto.setLastBooking(null);
-                itemWithCommentsDto.setNextBooking(null);
-            }
-        } else {
-            itemWithCommentsDto.setLastBooking(null);
-            itemWithCommentsDto.setNextBooking(null);
+            LocalDateTime now = LocalDateTime.now();
+            bookingRepository.findLastAndNextByItemId(id, Status.APPROVED, now).forEach(booking -> {
+                if (booking.getEnd().isBefore(now)) {
+                    itemWithCommentsDto.setLastBooking(BookingMapper.mapToBookingDto(booking));
+                } else {
+                    itemWithCommentsDto.setNextBooking(BookingMapper.mapToBookingDto(booking));
+                }
+            });
         }
         return logAndReturn(itemWithCommentsDto,
                 foundItem -> log.info("Вещь с id = {} с комментариями в количестве {} найдена",
@@ -95,17 +76,17 @@ public class ItemServiceImpl implements ItemService {
         );
     }
 
-    public List<ItemDto> findByText(String text) {
+    public List<ItemDto> findByText(String text, Integer from, Integer size) {
+        if (from == null || size == null || from < 0 || size <= 0) {
+            log.error("Некорректные параметры страницы: from = {}, size = {}", from, size);
+            throw new ValidationException(String.format("Некорректные параметры страницы: from = %d, size = %d",
+                    from, size));
+        }
         if (text == null || text.isBlank()) {
             return List.of();
         }
-        List<ItemDto> itemDtos = itemRepository
-                .findByNameContainingIgnoreCaseOrDescriptionContainingIgnoreCase(text, text)
-                .stream()
-                .filter(Item::getAvailable)
-                .map(ItemMapper::mapToItemDto)
-                .toList();
-        log.info("Получено {} вещей по текстовой подстроке", itemDtos.size());
+        List<ItemDto> itemDtos = itemSearchEngine.search(text, from, size);
+        log.info("Получено {} вещей по текстовому запросу", itemDtos.size());
         return itemDtos;
     }
 
@@ -123,6 +104,30 @@ public class ItemServiceImpl implements ItemService {
         );
     }
 
+    @Transactional
+    public List<ItemDto> createAll(List<ItemCreateDto> itemDtos, Long userId) {
+        User owner = checkUserService.checkUser(userId);
+        Map<Long, ItemRequest> requests = itemRequestRepository.findAllById(itemDtos.stream()
+                        .map(ItemCreateDto::getRequestId)
+                        .filter(Objects::nonNull)
+                        .collect(Collectors.toSet()))
+                .stream()
+                .collect(Collectors.toMap(ItemRequest::getId, Function.identity()));
+        List<ItemDto> created = new ArrayList<>(itemDtos.size());
+        for (int from = 0; from < itemDtos.size(); from += BULK_CHUNK_SIZE) {
+            List<Item> chunk = itemDtos.subList(from, Math.min(from + BULK_CHUNK_SIZE, itemDtos.size())).stream()
+                    .map(itemDto -> ItemMapper.mapToItemFromCreateDto(itemDto, owner,
+                            requests.get(itemDto.getRequestId())))
+                    .toList();
+            itemRepository.saveAll(chunk).forEach(item -> created.add(ItemMapper.mapToItemDto(item)));
+            // Вставки уходят в БД пакетами, а контекст персистентности не растёт вместе с импортом
+            entityManager.flush();
+            entityManager.clear();
+        }
+        log.info("Пользователем с id = {} добавлено {} вещей", userId, created.size());
+        return created;
+    }
+
     @Transactional
     public ItemDto update(ItemUpdateDto itemDto, Long userId, Long id) {
         User owner = checkUserService.checkUser(userId);
@@ -163,11 +168,12 @@ public class ItemServiceImpl implements ItemService {
                 .orElseThrow(() -> new ValidationException(
                         String.format("Пользователь c id = %d не был или не является арендатором вещи c id = %d",
                                 userId, itemId)));
+        Comment savedComment = commentRepository.save(CommentMapper.mapToCommentFromCreate(comment, commentator, item));
+        itemRepository.incrementCommentCount(itemId);
         return logAndReturn(
-                CommentMapper.mapToCommentDto(
-                        commentRepository.save(CommentMapper.mapToCommentFromCreate(comment, commentator, item))),
-                savedComment -> log.info("Комментарий с id = {} пользователя " +
-                        "с id = {} вещи с id = {} добавлен", savedComment.getId(), userId, itemId)
+                CommentMapper.mapToCommentDto(savedComment),
+                commentDto -> log.info("Комментарий с id = {} пользователя " +
+                        "с id = {} вещи с id = {} добавлен", commentDto.getId(), userId, itemId)
         );
     }
 }
@@ -0,0 +1,34 @@
+package ru.practicum.shareit.item;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import ru.practicum.shareit.item.dto.ItemDto;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Поиск средствами PostgreSQL: tsvector по названию и описанию, частичный GIN-индекс по доступным вещам
+ * (миграция db/migration/postgresql/V3__create_item_search_index.sql) и сортировка по ts_rank.
+ */
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "shareit.search.engine", havingValue = "postgres")
+public class PostgresItemSearchEngine implements ItemSearchEngine {
+    private final ItemRepository itemRepository;
+
+    @Override
+    public List<ItemDto> search(String text, int from, int size) {
+        List<String> terms = ItemSearchEngine.tokenize(text);
+        if (terms.isEmpty()) {
+            return List.of();
+        }
+        String query = terms.stream()
+                .map(term -> term + ":*")
+                .collect(Collectors.joining(" & "));
+        return itemRepository.searchAvailable(query, from, size).stream()
+                .map(ItemMapper::mapToItemDto)
+                .toList();
+    }
+}
@@ -0,0 +1,16 @@
+package ru.practicum.shareit.item.dto;
+
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class ItemImportResultDto {
+    Long created;
+    Long failed;
+    List<ItemImportErrorDto> errors;
+}
@@ -2,9 +2,9 @@ package ru.practicum.shareit.item.dto;
 
 import lombok.*;
 import lombok.experimental.FieldDefaults;
-import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingShortDto;
 
-import java.util.List;
+import java.time.LocalDateTime;
 
 @Data
 @AllArgsConstructor
@@ -16,6 +16,23 @@ public class ItemWithBookingsCommentsDto {
     String description;
     Boolean available;
     Long ownerId;
-    List<BookingDto> bookings;
-    List<CommentDto> comments;
-}
\ No newline at end of file
+    BookingShortDto lastBooking;
+    BookingShortDto nextBooking;
+    Long bookingCount;
+    Long commentCount;
+
+    /**
+     * Конструктор для проекций запросов: бронирования приходят плоскими колонками,
+     * пустой LEFT JOIN даёт null вместо бронирования.
+     */
+    public ItemWithBookingsCommentsDto(Long id, String name, String description, Boolean available, Long ownerId,
+                                       Long lastBookingId, Long lastBookerId, LocalDateTime lastStart,
+                                       LocalDateTime lastEnd, Long nextBookingId, Long nextBookerId,
+                                       LocalDateTime nextStart, LocalDateTime nextEnd,
+                                       Long bookingCount, Long commentCount) {
+        this(id, name, description, available, ownerId,
+                lastBookingId == null ? null : new BookingShortDto(lastBookingId, lastBookerId, lastStart, lastEnd),
+                nextBookingId == null ? null : new BookingShortDto(nextBookingId, nextBookerId, nextStart, nextEnd),
+                bookingCount, commentCount);
+    }
+}
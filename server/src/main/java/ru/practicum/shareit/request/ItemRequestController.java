@@ -17,8 +17,9 @@ public class ItemRequestController {
     private final ItemRequestService itemRequestService;
 
     @GetMapping(allPath)
-    public List<ItemRequestDto> findAll() {
-        return itemRequestService.findAll();
+    public List<ItemRequestDto> findAll(@RequestParam(defaultValue = "0") Integer from,
+                                        @RequestParam(defaultValue = "10") Integer size) {
+        return itemRequestService.findAll(from, size);
     }
 
     @GetMapping(requestsIdPath)
@@ -2,6 +2,7 @@ package ru.practicum.shareit.request;
 
 import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
+import ru.practicum.shareit.item.Item;
 import ru.practicum.shareit.item.ItemMapper;
 import ru.practicum.shareit.item.dto.ItemResponseDto;
 import ru.practicum.shareit.request.dto.ItemRequestCreateDto;
@@ -27,6 +28,18 @@ public class ItemRequestMapper {
         return dto;
     }
 
+    public static ItemRequestDto mapToItemRequestDto(ItemRequest itemRequest, List<Item> items) {
+        ItemRequestDto dto = new ItemRequestDto();
+        dto.setId(itemRequest.getId());
+        dto.setDescription(itemRequest.getDescription());
+        dto.setCreated(itemRequest.getCreated());
+        dto.setRequestorId(itemRequest.getRequestor().getId());
+        dto.setItems(items.stream()
+                .map(ItemMapper::mapToItemResponseDto)
+                .toList());
+        return dto;
+    }
+
     public static ItemRequest mapToItemRequestFromCreateDto(ItemRequestCreateDto dto, User requestor) {
         ItemRequest itemRequest = new ItemRequest();
         itemRequest.setDescription(dto.getDescription());
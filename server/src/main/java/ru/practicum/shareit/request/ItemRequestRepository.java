@@ -1,6 +1,8 @@
 package ru.practicum.shareit.request;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -8,4 +10,7 @@ import java.util.List;
 @Repository
 public interface ItemRequestRepository extends JpaRepository<ItemRequest, Long> {
     List<ItemRequest> findByRequestorIdOrderByCreatedDesc(Long requestorId);
+
+    @Query("SELECT r FROM ItemRequest r ORDER BY r.created DESC, r.id DESC")
+    List<ItemRequest> findPage(Pageable pageable);
 }
@@ -12,5 +12,5 @@ public interface ItemRequestService {
 
     List<ItemRequestDto> findByRequestorId(Long requestorId);
 
-    List<ItemRequestDto> findAll();
+    List<ItemRequestDto> findAll(Integer from, Integer size);
 }
@@ -5,14 +5,19 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.exception.ValidationException;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemRepository;
 import ru.practicum.shareit.request.dto.ItemRequestCreateDto;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.user.User;
 
 import ru.practicum.shareit.utils.CheckUserService;
+import ru.practicum.shareit.utils.OffsetPageable;
 
-import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 import static ru.practicum.shareit.utils.LoggingUtils.logAndReturn;
 
@@ -21,8 +26,9 @@ import static ru.practicum.shareit.utils.LoggingUtils.logAndReturn;
 @RequiredArgsConstructor
 @Transactional(readOnly = true)
 public class ItemRequestServiceImpl implements ItemRequestService {
- private final ItemRequestRepository itemRequestRepository;
+    private final ItemRequestRepository itemRequestRepository;
     private final CheckUserService checkUserService;
+    private final ItemRepository itemRepository;
 
     @Transactional
     public ItemRequestDto createItemRequest(ItemRequestCreateDto itemRequestCreateDto, Long requestorId) {
@@ -48,21 +54,37 @@ public class ItemRequestServiceImpl implements ItemRequestService {
 
     public List<ItemRequestDto> findByRequestorId(Long requestorId) {
         checkUserService.checkUser(requestorId);
-        List<ItemRequestDto> itemRequestDtos = itemRequestRepository.findByRequestorIdOrderByCreatedDesc(requestorId)
-                .stream()
-                .map(ItemRequestMapper::mapToItemRequestDto)
-                .toList();
+        List<ItemRequestDto> itemRequestDtos = withItems(itemRequestRepository
+                .findByRequestorIdOrderByCreatedDesc(requestorId));
         log.info("Получено {} запросов пользователя c id = {}", itemRequestDtos.size(), requestorId);
         return itemRequestDtos;
     }
 
-    public List<ItemRequestDto> findAll() {
-        List<ItemRequestDto> itemRequestDtos = itemRequestRepository.findAll()
-                .stream()
-                .map(ItemRequestMapper::mapToItemRequestDto)
-                .sorted(Comparator.comparing(ItemRequestDto::getCreated).reversed())
-                .toList();
+    public List<ItemRequestDto> findAll(Integer from, Integer size) {
+        if (from == null || from < 0 || size == null || size <= 0) {
+            log.error("Некорректные параметры страницы: from = {}, size = {}", from, size);
+            throw new ValidationException(String.format("Некорректные параметры страницы: from = %d, size = %d",
+                    from, size));
+        }
+        List<ItemRequestDto> itemRequestDtos = withItems(itemRequestRepository
+                .findPage(OffsetPageable.of(from, size)));
         log.info("Получено {} запросов вещей", itemRequestDtos.size());
         return itemRequestDtos;
     }
+
+    private List<ItemRequestDto> withItems(List<ItemRequest> itemRequests) {
+        if (itemRequests.isEmpty()) {
+            return List.of();
+        }
+        // Ответы на все запросы страницы загружаются одним запросом вместо ленивой коллекции у каждого запроса
+        Map<Long, List<Item>> itemsByRequest = itemRepository.findByRequestIdIn(itemRequests.stream()
+                        .map(ItemRequest::getId)
+                        .toList())
+                .stream()
+                .collect(Collectors.groupingBy(item -> item.getRequest().getId()));
+        return itemRequests.stream()
+                .map(itemRequest -> ItemRequestMapper.mapToItemRequestDto(itemRequest,
+                        itemsByRequest.getOrDefault(itemRequest.getId(), List.of())))
+                .toList();
+    }
 }
@@ -9,6 +9,7 @@ import ru.practicum.shareit.user.dto.EmailHolder;
 import ru.practicum.shareit.user.dto.UserCreateDto;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.dto.UserUpdateDto;
+import ru.practicum.shareit.utils.CheckUserService;
 
 import java.util.List;
 
@@ -19,9 +20,11 @@ import static ru.practicum.shareit.utils.LoggingUtils.logAndReturn;
 @Transactional(readOnly = true)
 public class UserServiceImpl implements UserService {
     private final UserRepository userRepository;
+    private final CheckUserService checkUserService;
 
-    public UserServiceImpl(UserRepository userRepository) {
+    public UserServiceImpl(UserRepository userRepository, CheckUserService checkUserService) {
         this.userRepository = userRepository;
+        this.checkUserService = checkUserService;
     }
 
     public List<UserDto> findAll() {
@@ -68,6 +71,7 @@ public class UserServiceImpl implements UserService {
             oldUser.setName(userDto.getName());
             log.debug("Пользователю с id = {} установлено имя - {}", id, oldUser.getName());
         }
+        checkUserService.invalidate(id);
 
         return logAndReturn(
                 UserMapper.mapToUserDto(userRepository.save(UserMapper.mapToUserFromDto(oldUser))),
@@ -80,6 +84,7 @@ public class UserServiceImpl implements UserService {
     public UserDto delete(Long id) {
         UserDto userDto = findById(id);
         userRepository.delete(UserMapper.mapToUserFromDto(userDto));
+        checkUserService.invalidate(id);
         log.info("Пользователь с id = {}  - удален", id);
         return userDto;
     }
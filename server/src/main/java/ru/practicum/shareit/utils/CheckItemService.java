@@ -8,6 +8,11 @@ import ru.practicum.shareit.exception.ValidationException;
 import ru.practicum.shareit.item.Item;
 import ru.practicum.shareit.item.ItemRepository;
 
+import java.util.Collection;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
 @Slf4j
 @Service
 @RequiredArgsConstructor
@@ -28,4 +33,28 @@ public class CheckItemService {
         }
         return item;
     }
+
+    /**
+     * Проверяет сразу несколько вещей одним запросом к БД. Возвращает вещи с владельцами по id.
+     */
+    public Map<Long, Item> checkItems(Collection<Long> itemIds) {
+        if (itemIds.contains(null)) {
+            log.error("Id вещи не указан в одном из элементов: {}", itemIds);
+            throw new ValidationException("Id вещи должен быть указан");
+        }
+        Map<Long, Item> items = itemRepository.findAllByIdWithOwner(itemIds).stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+        for (Long itemId : itemIds) {
+            Item item = items.get(itemId);
+            if (item == null) {
+                throw new NotFoundException(String.format("Вещь с id=%d не найдена", itemId));
+            }
+            if (!item.getAvailable()) {
+                log.error("Вещь с id = {} не доступна для бронирования", itemId);
+                throw new ValidationException(String.format("Вещь c id = %d должна быть доступна для бронирования",
+                        itemId));
+            }
+        }
+        return items;
+    }
 }
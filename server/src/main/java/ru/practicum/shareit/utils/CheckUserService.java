@@ -1,25 +1,76 @@
 package ru.practicum.shareit.utils;
 
-import lombok.RequiredArgsConstructor;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import ru.practicum.shareit.datasource.ReadWriteRoutingDataSource;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.exception.ValidationException;
 import ru.practicum.shareit.user.User;
 import ru.practicum.shareit.user.UserRepository;
 
+import java.time.Duration;
+
+import static ru.practicum.shareit.utils.TransactionUtils.afterCommit;
+import static ru.practicum.shareit.utils.TransactionUtils.afterCompletion;
+
+/**
+ * Проверка существования пользователя с кэшем найденных пользователей.
+ * В кэш попадают только закоммиченные данные, прочитанные из основной базы, а UserServiceImpl сбрасывает запись
+ * при изменении или удалении пользователя. Прочитанное из реплики не кэшируется: реплика может отставать,
+ * и удалённый пользователь остался бы в кэше на весь срок жизни записи.
+ * Срок жизни записи ограничивает устаревание при нескольких экземплярах сервера.
+ */
 @Slf4j
 @Service
-@RequiredArgsConstructor
 public class CheckUserService {
     private final UserRepository userRepository;
+    private final Cache<Long, User> users;
+
+    public CheckUserService(UserRepository userRepository,
+                            MeterRegistry meterRegistry,
+                            @Value("${shareit.cache.users.maximum-size:10000}") long maximumSize,
+                            @Value("${shareit.cache.users.expire-after-write:10m}") Duration expireAfterWrite) {
+        this.userRepository = userRepository;
+        this.users = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, users, "users");
+    }
 
     public User checkUser(Long userId) {
         if (userId == null) {
             log.error("Id пользователя не указан, userId = {}", userId);
             throw new ValidationException(String.format("Id пользователя не указан, userId = %d", userId));
         }
-        return userRepository.findById(userId)
+        User cached = users.getIfPresent(userId);
+        if (cached != null) {
+            log.trace("Пользователь с id = {} найден в кэше", userId);
+            return copy(cached);
+        }
+        User user = userRepository.findById(userId)
                 .orElseThrow(() -> new NotFoundException(String.format("Пользователь с id = %d не найден", userId)));
+        if (!ReadWriteRoutingDataSource.isReplicaTransaction()) {
+            User snapshot = copy(user);
+            afterCommit(() -> users.put(userId, snapshot));
+        }
+        return user;
+    }
+
+    public void invalidate(Long userId) {
+        users.invalidate(userId);
+        // Повторный сброс после завершения транзакции: параллельный запрос мог успеть закэшировать старые данные
+        afterCompletion(() -> users.invalidate(userId));
+        log.debug("Пользователь с id = {} удален из кэша", userId);
+    }
+
+    private static User copy(User user) {
+        return new User(user.getId(), user.getName(), user.getEmail());
     }
 }
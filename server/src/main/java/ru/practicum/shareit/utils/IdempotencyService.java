@@ -0,0 +1,98 @@
+package ru.practicum.shareit.utils;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import ru.practicum.shareit.exception.ConflictException;
+import ru.practicum.shareit.exception.ValidationException;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+/**
+ * Повтор запросов на создание по заголовку Idempotency-Key.
+ * Ответ на первый запрос с ключом хранится ограниченное время, повтор получает его без повторной записи.
+ * Дубли, пришедшие пока первый запрос ещё выполняется, ждут его результата.
+ * Ошибки не запоминаются: после неудачи запрос с тем же ключом выполнится заново.
+ * <p>
+ * Ответы хранятся в памяти экземпляра сервера и между экземплярами не разделяются. Шлюз направляет запросы
+ * пользователя на один экземпляр, но при перегрузке или смене состава экземпляров повтор может попасть на другой
+ * и выполниться ещё раз. Защита от дублей здесь — оптимизация повторов, а не гарантия: операции, для которых
+ * дубль недопустим, должны проверяться в БД, как пересечения бронирований.
+ */
+@Slf4j
+@Service
+public class IdempotencyService {
+    public static final String HEADER = "Idempotency-Key";
+    static final int MAX_KEY_LENGTH = 255;
+
+    private final Cache<Key, Response> responses;
+
+    public IdempotencyService(MeterRegistry meterRegistry,
+                              @Value("${shareit.idempotency.maximum-size:100000}") long maximumSize,
+                              @Value("${shareit.idempotency.expire-after-write:24h}") Duration expireAfterWrite) {
+        this.responses = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, responses, "idempotency");
+    }
+
+    /**
+     * Выполняет действие один раз на ключ. Ключ действует в пределах операции и пользователя,
+     * а повтор должен нести тот же запрос. Вызывается из контроллера вне транзакции,
+     * поэтому ответ запоминается уже после коммита.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String operation, Long userId, String idempotencyKey, Object request, Supplier<T> action) {
+        if (idempotencyKey == null) {
+            return action.get();
+        }
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            throw new ValidationException(String.format("Ключ идемпотентности должен содержать от 1 до %d символов",
+                    MAX_KEY_LENGTH));
+        }
+        Key key = new Key(operation, userId, idempotencyKey);
+        Response own = new Response(request, new CompletableFuture<>());
+        Response existing = responses.asMap().putIfAbsent(key, own);
+        if (existing == null) {
+            try {
+                T result = action.get();
+                own.result().complete(result);
+                return result;
+            } catch (Throwable e) {
+                // Любая ошибка, включая Error, освобождает ключ и будит ждущих дублей
+                responses.asMap().remove(key, own);
+                own.result().completeExceptionally(e);
+                throw e;
+            }
+        }
+        if (!existing.request().equals(request)) {
+            throw new ConflictException(String.format("Ключ идемпотентности %s уже использован с другим запросом",
+                    idempotencyKey));
+        }
+        log.info("Повтор операции {} пользователя с id = {} по ключу {}", operation, userId, idempotencyKey);
+        try {
+            return (T) existing.result().join();
+        } catch (CompletionException e) {
+            // Дубль получает ту же ошибку, что и первый запрос
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    private record Key(String operation, Long userId, String idempotencyKey) {
+    }
+
+    private record Response(Object request, CompletableFuture<Object> result) {
+    }
+}
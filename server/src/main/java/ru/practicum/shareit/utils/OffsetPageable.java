@@ -0,0 +1,76 @@
+package ru.practicum.shareit.utils;
+
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+/**
+ * Страница, заданная смещением from и размером size, как их передаёт клиент.
+ * PageRequest.of(from / size, size) округляет смещение вниз до целой страницы
+ * и при from, не кратном size, возвращает не те строки.
+ */
+@ToString
+@EqualsAndHashCode
+public final class OffsetPageable implements Pageable {
+    private final long offset;
+    private final int size;
+
+    private OffsetPageable(long offset, int size) {
+        this.offset = offset;
+        this.size = size;
+    }
+
+    public static OffsetPageable of(long offset, int size) {
+        if (offset < 0 || size <= 0) {
+            throw new IllegalArgumentException(String.format("Некорректные параметры страницы: from = %d, size = %d",
+                    offset, size));
+        }
+        return new OffsetPageable(offset, size);
+    }
+
+    @Override
+    public int getPageNumber() {
+        return (int) (offset / size);
+    }
+
+    @Override
+    public int getPageSize() {
+        return size;
+    }
+
+    @Override
+    public long getOffset() {
+        return offset;
+    }
+
+    @Override
+    public Sort getSort() {
+        return Sort.unsorted();
+    }
+
+    @Override
+    public Pageable next() {
+        return new OffsetPageable(offset + size, size);
+    }
+
+    @Override
+    public Pageable previousOrFirst() {
+        return new OffsetPageable(Math.max(0, offset - size), size);
+    }
+
+    @Override
+    public Pageable first() {
+        return new OffsetPageable(0, size);
+    }
+
+    @Override
+    public Pageable withPage(int pageNumber) {
+        return new OffsetPageable((long) pageNumber * size, size);
+    }
+
+    @Override
+    public boolean hasPrevious() {
+        return offset > 0;
+    }
+}
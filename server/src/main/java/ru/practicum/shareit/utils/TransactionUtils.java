@@ -0,0 +1,51 @@
+package ru.practicum.shareit.utils;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.function.IntConsumer;
+
+/**
+ * Действия над состоянием в памяти, привязанные к исходу текущей транзакции.
+ * Вне транзакции afterCommit выполняет действие сразу, а остальные методы ничего не делают.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public class TransactionUtils {
+    public static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    public static void afterRollback(Runnable action) {
+        afterCompletion(status -> {
+            if (status != TransactionSynchronization.STATUS_COMMITTED) {
+                action.run();
+            }
+        });
+    }
+
+    public static void afterCompletion(Runnable action) {
+        afterCompletion(status -> action.run());
+    }
+
+    private static void afterCompletion(IntConsumer action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    action.accept(status);
+                }
+            });
+        }
+    }
+}
@@ -43,4 +43,3 @@ created TIMESTAMP WITHOUT TIME ZONE NOT NULL,
 CONSTRAINT fk_item_comment FOREIGN KEY (item_id) REFERENCES items(id) ON DELETE CASCADE,
 CONSTRAINT fk_author FOREIGN KEY (author_id) REFERENCES users(id) ON DELETE CASCADE
 );
-
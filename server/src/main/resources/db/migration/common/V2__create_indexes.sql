@@ -0,0 +1,19 @@
+-- Индексы под запросы репозиториев. IF NOT EXISTS — часть из них уже есть в базах,
+-- созданных до перехода на миграции.
+
+-- Бронирования пользователя: booker_id = ? ORDER BY start_date DESC, id DESC (курсорная пагинация)
+CREATE INDEX IF NOT EXISTS idx_bookings_booker_start ON bookings (booker_id, start_date DESC, id DESC);
+-- Бронирования вещи: расписание, последнее и следующее бронирование, бронирования вещей владельца
+CREATE INDEX IF NOT EXISTS idx_bookings_item_status_start ON bookings (item_id, status, start_date);
+
+-- Вещи владельца, вещи по запросам
+CREATE INDEX IF NOT EXISTS idx_items_owner ON items (owner_id);
+CREATE INDEX IF NOT EXISTS idx_items_request ON items (request_id);
+
+-- Отзывы к вещи и к вещам владельца; author_id — для каскадного удаления пользователя
+CREATE INDEX IF NOT EXISTS idx_comments_item ON comments (item_id);
+CREATE INDEX IF NOT EXISTS idx_comments_author ON comments (author_id);
+
+-- Свои запросы пользователя и общая лента запросов
+CREATE INDEX IF NOT EXISTS idx_requests_requestor_created ON requests (requestor_id, created DESC);
+CREATE INDEX IF NOT EXISTS idx_requests_created ON requests (created DESC);
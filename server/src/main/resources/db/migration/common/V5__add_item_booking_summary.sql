@@ -0,0 +1,34 @@
+-- Сводка по бронированиям и отзывам прямо в строке вещи: список вещей владельца читается одним запросом.
+-- Последнее и следующее бронирование считаются так же, как в BookingRepository.findLastAndNextByItemId.
+-- roll_forward_at — момент, когда сводка устареет (начнётся следующее или закончится текущее бронирование);
+-- такие вещи пересчитывает плановая задача ItemBookingRollForward.
+
+ALTER TABLE items ADD COLUMN IF NOT EXISTS last_booking_id BIGINT;
+ALTER TABLE items ADD COLUMN IF NOT EXISTS next_booking_id BIGINT;
+ALTER TABLE items ADD COLUMN IF NOT EXISTS booking_count BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE items ADD COLUMN IF NOT EXISTS comment_count BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE items ADD COLUMN IF NOT EXISTS roll_forward_at TIMESTAMP WITHOUT TIME ZONE;
+
+ALTER TABLE items ADD CONSTRAINT fk_items_last_booking
+    FOREIGN KEY (last_booking_id) REFERENCES bookings (id) ON DELETE SET NULL;
+ALTER TABLE items ADD CONSTRAINT fk_items_next_booking
+    FOREIGN KEY (next_booking_id) REFERENCES bookings (id) ON DELETE SET NULL;
+
+-- Удаление бронирования проверяет ссылки на него из items
+CREATE INDEX IF NOT EXISTS idx_items_last_booking ON items (last_booking_id);
+CREATE INDEX IF NOT EXISTS idx_items_next_booking ON items (next_booking_id);
+-- Вещи, сводку которых пора пересчитать
+CREATE INDEX IF NOT EXISTS idx_items_roll_forward ON items (roll_forward_at);
+
+UPDATE items SET
+    booking_count = (SELECT COUNT(*) FROM bookings b WHERE b.item_id = items.id),
+    comment_count = (SELECT COUNT(*) FROM comments c WHERE c.item_id = items.id),
+    last_booking_id = (SELECT b.id FROM bookings b
+                       WHERE b.item_id = items.id AND b.status = 'APPROVED' AND b.end_date < LOCALTIMESTAMP
+                       ORDER BY b.start_date DESC, b.id DESC LIMIT 1),
+    next_booking_id = (SELECT b.id FROM bookings b
+                       WHERE b.item_id = items.id AND b.status = 'APPROVED' AND b.start_date > LOCALTIMESTAMP
+                       ORDER BY b.start_date, b.id LIMIT 1),
+    roll_forward_at = (SELECT MIN(CASE WHEN b.start_date > LOCALTIMESTAMP THEN b.start_date ELSE b.end_date END)
+                       FROM bookings b
+                       WHERE b.item_id = items.id AND b.status = 'APPROVED' AND b.end_date >= LOCALTIMESTAMP);
@@ -0,0 +1,5 @@
+-- Общая лента запросов: ORDER BY created DESC, id DESC с OFFSET.
+-- Индекс только по created не задаёт порядок при равном created: PostgreSQL досортировывает каждую группу,
+-- H2 читает таблицу целиком. Индекс по обеим колонкам отдаёт строки сразу в нужном порядке.
+DROP INDEX IF EXISTS idx_requests_created;
+CREATE INDEX IF NOT EXISTS idx_requests_created_id ON requests (created DESC, id DESC);
@@ -0,0 +1,24 @@
+-- Идентификаторы выдаются последовательностями с шагом 50: Hibernate резервирует блок id одним вызовом
+-- (pooled-оптимизатор) и может пакетно вставлять строки. Identity отключает пакетную вставку.
+-- Последовательность остаётся и значением по умолчанию, чтобы вставки мимо Hibernate не конфликтовали.
+-- Первое значение — верхняя граница первого блока: Hibernate выдаст id 1..50.
+
+ALTER TABLE users ALTER COLUMN id DROP IDENTITY;
+CREATE SEQUENCE IF NOT EXISTS users_seq START WITH 50 INCREMENT BY 50;
+ALTER TABLE users ALTER COLUMN id SET DEFAULT NEXT VALUE FOR users_seq;
+
+ALTER TABLE requests ALTER COLUMN id DROP IDENTITY;
+CREATE SEQUENCE IF NOT EXISTS requests_seq START WITH 50 INCREMENT BY 50;
+ALTER TABLE requests ALTER COLUMN id SET DEFAULT NEXT VALUE FOR requests_seq;
+
+ALTER TABLE items ALTER COLUMN id DROP IDENTITY;
+CREATE SEQUENCE IF NOT EXISTS items_seq START WITH 50 INCREMENT BY 50;
+ALTER TABLE items ALTER COLUMN id SET DEFAULT NEXT VALUE FOR items_seq;
+
+ALTER TABLE bookings ALTER COLUMN id DROP IDENTITY;
+CREATE SEQUENCE IF NOT EXISTS bookings_seq START WITH 50 INCREMENT BY 50;
+ALTER TABLE bookings ALTER COLUMN id SET DEFAULT NEXT VALUE FOR bookings_seq;
+
+ALTER TABLE comments ALTER COLUMN id DROP IDENTITY;
+CREATE SEQUENCE IF NOT EXISTS comments_seq START WITH 50 INCREMENT BY 50;
+ALTER TABLE comments ALTER COLUMN id SET DEFAULT NEXT VALUE FOR comments_seq;
@@ -0,0 +1,2 @@
+CREATE INDEX IF NOT EXISTS idx_items_available_fts ON items
+    USING GIN (to_tsvector('simple', name || ' ' || description)) WHERE is_available;
@@ -0,0 +1,29 @@
+-- Идентификаторы выдаются последовательностями с шагом 50: Hibernate резервирует блок id одним вызовом
+-- (pooled-оптимизатор) и может пакетно вставлять строки. Identity отключает пакетную вставку.
+-- Последовательность остаётся и значением по умолчанию, чтобы вставки мимо Hibernate не конфликтовали.
+-- Первое значение — верхняя граница первого блока, блок начинается сразу после существующих id.
+
+ALTER TABLE users ALTER COLUMN id DROP IDENTITY IF EXISTS;
+CREATE SEQUENCE IF NOT EXISTS users_seq INCREMENT BY 50 OWNED BY users.id;
+SELECT setval('users_seq', COALESCE(MAX(id), 0) + 50, false) FROM users;
+ALTER TABLE users ALTER COLUMN id SET DEFAULT nextval('users_seq');
+
+ALTER TABLE requests ALTER COLUMN id DROP IDENTITY IF EXISTS;
+CREATE SEQUENCE IF NOT EXISTS requests_seq INCREMENT BY 50 OWNED BY requests.id;
+SELECT setval('requests_seq', COALESCE(MAX(id), 0) + 50, false) FROM requests;
+ALTER TABLE requests ALTER COLUMN id SET DEFAULT nextval('requests_seq');
+
+ALTER TABLE items ALTER COLUMN id DROP IDENTITY IF EXISTS;
+CREATE SEQUENCE IF NOT EXISTS items_seq INCREMENT BY 50 OWNED BY items.id;
+SELECT setval('items_seq', COALESCE(MAX(id), 0) + 50, false) FROM items;
+ALTER TABLE items ALTER COLUMN id SET DEFAULT nextval('items_seq');
+
+ALTER TABLE bookings ALTER COLUMN id DROP IDENTITY IF EXISTS;
+CREATE SEQUENCE IF NOT EXISTS bookings_seq INCREMENT BY 50 OWNED BY bookings.id;
+SELECT setval('bookings_seq', COALESCE(MAX(id), 0) + 50, false) FROM bookings;
+ALTER TABLE bookings ALTER COLUMN id SET DEFAULT nextval('bookings_seq');
+
+ALTER TABLE comments ALTER COLUMN id DROP IDENTITY IF EXISTS;
+CREATE SEQUENCE IF NOT EXISTS comments_seq INCREMENT BY 50 OWNED BY comments.id;
+SELECT setval('comments_seq', COALESCE(MAX(id), 0) + 50, false) FROM comments;
+ALTER TABLE comments ALTER COLUMN id SET DEFAULT nextval('comments_seq');
@@ -0,0 +1,283 @@
+package ru.practicum.shareit;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import ru.practicum.shareit.base.BaseSpringBootTest;
+import ru.practicum.shareit.booking.BookingCursor;
+import ru.practicum.shareit.booking.BookingRole;
+import ru.practicum.shareit.booking.BookingState;
+import ru.practicum.shareit.booking.Status;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.item.CommentRepository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Проверяет, что запросы репозиториев читают таблицы по индексам из миграций.
+ * SQL перехватывается у Hibernate, затем для каждого запроса строится план.
+ * На PostgreSQL план каждого запроса должен использовать названные для него индексы.
+ * По умолчанию тест запускается на H2, а H2 сам индексирует внешние ключи и часто выбирает эти индексы.
+ * Поэтому на H2 проверяется только отсутствие полного просмотра таблиц и то, что названные индексы
+ * созданы миграциями. Выбор индексов планировщиком проверяется на PostgreSQL: прогон на нём обязателен
+ * при изменении запросов и миграций. Для этого достаточно переопределить источник данных, например:
+ * SPRING_DATASOURCE_URL=jdbc:postgresql://localhost:5432/shareit SPRING_DATASOURCE_DRIVERCLASSNAME=org.postgresql.Driver
+ * mvn test -Dtest=QueryPlanIntegrationTest
+ */
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "ru.practicum.shareit.QueryPlanIntegrationTest$SqlRecorder")
+public class QueryPlanIntegrationTest extends BaseSpringBootTest {
+    private static final int USERS = 20;
+    private static final int ITEMS_PER_OWNER = 5;
+    private static final int BOOKINGS_PER_ITEM = 10;
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 6, 1, 12, 0);
+    private static final Pattern PARAMETER = Pattern.compile("\\?");
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private boolean postgres;
+    private long userId;
+    private long itemId;
+    private long requestId;
+
+    @BeforeEach
+    public void setUp() {
+        postgres = Boolean.TRUE.equals(jdbcTemplate.execute((ConnectionCallback<Boolean>) connection ->
+                connection.getMetaData().getDatabaseProductName().equals("PostgreSQL")));
+        seed();
+        SqlRecorder.STATEMENTS.clear();
+    }
+
+    @Test
+    public void testBookingListQueriesUseIndexes() {
+        // Связанные сущности загружаются тем же запросом: по одному запросу на каждое состояние
+        for (BookingState state : BookingState.values()) {
+            bookingRepository.findBookings(BookingRole.BOOKER, userId, state, NOW, BookingCursor.FIRST,
+                    PageRequest.of(0, 10));
+        }
+        assertThat(SqlRecorder.STATEMENTS).hasSize(BookingState.values().length);
+        assertIndexedAccess("idx_bookings_booker_start");
+
+        for (BookingState state : BookingState.values()) {
+            bookingRepository.findBookings(BookingRole.OWNER, userId, state, NOW, BookingCursor.FIRST,
+                    PageRequest.of(0, 10));
+        }
+        assertThat(SqlRecorder.STATEMENTS).hasSize(BookingState.values().length);
+        assertIndexedAccess("idx_items_owner", "idx_bookings_item_status_start");
+
+        bookingRepository.findByBookerIdWithItem(userId);
+        assertIndexedAccess("idx_bookings_booker_start");
+    }
+
+    @Test
+    public void testItemBookingQueriesUseIndexes() {
+        bookingRepository.findLastAndNextByItemId(itemId, Status.APPROVED, NOW);
+        assertIndexedAccess("idx_bookings_item_status_start");
+
+        bookingRepository.findByItemIdAndStatusInAndEndAfter(itemId, Set.of(Status.WAITING, Status.APPROVED), NOW);
+        assertIndexedAccess("idx_bookings_item_status_start");
+
+        bookingRepository.existsOverlapping(itemId, Set.of(Status.WAITING, Status.APPROVED), NOW, NOW.plusDays(1),
+                null);
+        assertIndexedAccess("idx_bookings_item_status_start");
+
+        bookingRepository.findByIdWithBookerAndItem(1L);
+        assertIndexedAccess();
+
+        try (Stream<BookingDto> bookings = bookingRepository.streamByOwnerId(userId)) {
+            bookings.forEach(booking -> { });
+        }
+        assertIndexedAccess("idx_items_owner", "idx_bookings_item_status_start");
+    }
+
+    @Test
+    public void testItemAndCommentQueriesUseIndexes() {
+        itemRepository.findByIdWithOwner(itemId);
+        assertIndexedAccess();
+
+        itemRepository.findByRequestIdIn(List.of(requestId));
+        assertIndexedAccess("idx_items_request");
+
+        commentRepository.findCommentsByItemId(itemId);
+        assertIndexedAccess("idx_comments_item");
+    }
+
+    @Test
+    public void testItemSearchUsesFullTextIndex() {
+        // Полнотекстовый поиск и его GIN-индекс есть только в PostgreSQL
+        assumeTrue(postgres, "Поиск по tsvector проверяется только на PostgreSQL");
+        itemRepository.searchAvailable("item:*", 0, 10);
+        assertIndexedAccess("idx_items_available_fts");
+    }
+
+    @Test
+    public void testItemBookingSummaryQueriesUseIndexes() {
+        itemRepository.findWithBookingSummaryByOwnerId(userId);
+        assertIndexedAccess("idx_items_owner");
+
+        itemRepository.lockByIds(List.of(itemId));
+        assertIndexedAccess();
+
+        itemRepository.refreshBookingSummary(List.of(itemId), NOW);
+        assertIndexedAccess("idx_bookings_item_status_start");
+
+        itemRepository.findIdsToRollForward(NOW, 0, 100);
+        assertIndexedAccess();
+    }
+
+    @Test
+    public void testUserAndRequestQueriesUseIndexes() {
+        userRepository.findByEmail("user1@example.com");
+        assertIndexedAccess();
+
+        itemRequestRepository.findByRequestorIdOrderByCreatedDesc(userId);
+        assertIndexedAccess("idx_requests_requestor_created");
+
+        // Страница общей ленты /requests/all не с начала
+        itemRequestRepository.findPage(PageRequest.of(1, 5));
+        assertIndexedAccess("idx_requests_created_id");
+    }
+
+    // Каждый перехваченный запрос читает таблицы без полного просмотра; на PostgreSQL его план использует
+    // все названные индексы. Проверенные запросы забываются
+    private void assertIndexedAccess(String... indexes) {
+        List<String> statements = List.copyOf(SqlRecorder.STATEMENTS);
+        SqlRecorder.STATEMENTS.clear();
+        assertThat(statements).isNotEmpty();
+        for (String index : indexes) {
+            assertThat(indexExists(index)).as("Индекс %s создан миграциями", index).isTrue();
+        }
+        if (postgres) {
+            // На маленьких таблицах полный просмотр дешевле любого индекса, поэтому запрещаем его:
+            // если план всё равно содержит Seq Scan, подходящего индекса нет.
+            // Общий план не зависит от значений параметров, поэтому их можно передать как NULL
+            jdbcTemplate.execute("SET LOCAL enable_seqscan = off");
+            jdbcTemplate.execute("SET LOCAL plan_cache_mode = force_generic_plan");
+        }
+        for (String sql : statements) {
+            String plan = String.join("\n", postgres ? explainPostgres(sql) : explainH2(sql));
+            assertThat(plan)
+                    .as("План запроса %s", sql)
+                    .doesNotContain(postgres ? "Seq Scan" : "tableScan");
+            if (postgres && indexes.length > 0) {
+                assertThat(plan)
+                        .as("План запроса %s", sql)
+                        .contains(indexes);
+            }
+        }
+    }
+
+    private boolean indexExists(String index) {
+        Integer count = postgres
+                ? jdbcTemplate.queryForObject("SELECT COUNT(*) FROM pg_indexes WHERE indexname = ?", Integer.class,
+                index)
+                : jdbcTemplate.queryForObject("SELECT COUNT(*) FROM INFORMATION_SCHEMA.INDEXES WHERE INDEX_NAME = ?",
+                Integer.class, index.toUpperCase(Locale.ROOT));
+        return count != null && count > 0;
+    }
+
+    private List<String> explainH2(String sql) {
+        return jdbcTemplate.query("EXPLAIN " + sql, statement -> {
+            for (int i = 1; i <= statement.getParameterMetaData().getParameterCount(); i++) {
+                statement.setObject(i, null);
+            }
+        }, (rs, rowNum) -> rs.getString(1));
+    }
+
+    private List<String> explainPostgres(String sql) {
+        Matcher matcher = PARAMETER.matcher(sql);
+        StringBuilder numbered = new StringBuilder();
+        int parameters = 0;
+        while (matcher.find()) {
+            matcher.appendReplacement(numbered, "\\$" + ++parameters);
+        }
+        jdbcTemplate.execute("PREPARE query_plan AS " + matcher.appendTail(numbered));
+        try {
+            String arguments = parameters == 0 ? ""
+                    : "(" + String.join(", ", Collections.nCopies(parameters, "NULL")) + ")";
+            return jdbcTemplate.queryForList("EXPLAIN EXECUTE query_plan" + arguments, String.class);
+        } finally {
+            jdbcTemplate.execute("DEALLOCATE query_plan");
+        }
+    }
+
+    private void seed() {
+        List<Object[]> users = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            users.add(new Object[]{"user" + i, "user" + i + "@example.com"});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO users (name, email) VALUES (?, ?)", users);
+        List<Long> userIds = jdbcTemplate.queryForList("SELECT id FROM users ORDER BY id", Long.class);
+        userId = userIds.getFirst();
+
+        List<Object[]> requests = new ArrayList<>();
+        for (Long requestorId : userIds) {
+            requests.add(new Object[]{"request", requestorId, Timestamp.valueOf(NOW)});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO requests (description, requestor_id, created) VALUES (?, ?, ?)",
+                requests);
+        requestId = jdbcTemplate.queryForObject("SELECT MIN(id) FROM requests", Long.class);
+
+        List<Object[]> items = new ArrayList<>();
+        for (Long ownerId : userIds) {
+            for (int i = 0; i < ITEMS_PER_OWNER; i++) {
+                items.add(new Object[]{"item" + i, "description", true, ownerId, i == 0 ? requestId : null});
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO items (name, description, is_available, owner_id, request_id) "
+                + "VALUES (?, ?, ?, ?, ?)", items);
+        List<Long> itemIds = jdbcTemplate.queryForList("SELECT id FROM items ORDER BY id", Long.class);
+        itemId = itemIds.getFirst();
+
+        List<Object[]> bookings = new ArrayList<>();
+        List<Object[]> comments = new ArrayList<>();
+        for (int i = 0; i < itemIds.size(); i++) {
+            Long bookerId = userIds.get((i + 1) % USERS);
+            for (int j = 0; j < BOOKINGS_PER_ITEM; j++) {
+                LocalDateTime start = NOW.plusDays(j - BOOKINGS_PER_ITEM / 2);
+                bookings.add(new Object[]{Timestamp.valueOf(start), Timestamp.valueOf(start.plusHours(1)),
+                        itemIds.get(i), bookerId, j % 2 == 0 ? Status.APPROVED.name() : Status.WAITING.name()});
+            }
+            comments.add(new Object[]{"comment", itemIds.get(i), bookerId, Timestamp.valueOf(NOW)});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO bookings (start_date, end_date, item_id, booker_id, status) "
+                + "VALUES (?, ?, ?, ?, ?)", bookings);
+        jdbcTemplate.batchUpdate("INSERT INTO comments (text, item_id, author_id, created) VALUES (?, ?, ?, ?)",
+                comments);
+    }
+
+    /**
+     * Запоминает SQL, который Hibernate отправляет в БД.
+     */
+    public static class SqlRecorder implements StatementInspector {
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+}
@@ -6,6 +6,7 @@ import ru.practicum.shareit.booking.BookingRepository;
 import ru.practicum.shareit.booking.BookingService;
 import ru.practicum.shareit.item.ItemRepository;
 import ru.practicum.shareit.item.ItemService;
+import ru.practicum.shareit.request.ItemRequestRepository;
 import ru.practicum.shareit.request.ItemRequestService;
 import ru.practicum.shareit.user.UserRepository;
 import ru.practicum.shareit.user.UserServiceImpl;
@@ -33,4 +34,7 @@ public class BaseSpringBootTest {
 
     @Autowired
     protected ItemRequestService itemRequestService;
+
+    @Autowired
+    protected ItemRequestRepository itemRequestRepository;
 }
@@ -1,13 +1,21 @@
 package ru.practicum.shareit.base;
 
+import org.junit.jupiter.api.BeforeEach;
+import org.mockito.ArgumentMatchers;
+import org.mockito.BDDMockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.test.web.servlet.MockMvc;
 import ru.practicum.shareit.annotation.MyWebMvcTest;
+import ru.practicum.shareit.booking.BookingExportService;
 import ru.practicum.shareit.booking.BookingService;
+import ru.practicum.shareit.item.ItemImportService;
 import ru.practicum.shareit.item.ItemService;
 import ru.practicum.shareit.request.ItemRequestService;
 import ru.practicum.shareit.user.UserService;
+import ru.practicum.shareit.utils.IdempotencyService;
+
+import java.util.function.Supplier;
 
 @MyWebMvcTest
 public class BaseWebMvcTest {
@@ -18,12 +26,29 @@ public class BaseWebMvcTest {
     @MockBean
     protected ItemService itemService;
 
+    @MockBean
+    protected ItemImportService itemImportService;
+
     @MockBean
     protected UserService userService;
 
     @MockBean
     protected BookingService bookingService;
 
+    @MockBean
+    protected BookingExportService bookingExportService;
+
     @MockBean
     protected ItemRequestService itemRequestService;
+
+    @MockBean
+    protected IdempotencyService idempotencyService;
+
+    // По умолчанию действие выполняется сразу, как без ключа идемпотентности
+    @BeforeEach
+    public void setUpIdempotency() {
+        BDDMockito.given(idempotencyService.execute(ArgumentMatchers.any(), ArgumentMatchers.any(),
+                        ArgumentMatchers.any(), ArgumentMatchers.any(), ArgumentMatchers.any()))
+                .willAnswer(invocation -> invocation.<Supplier<?>>getArgument(4).get());
+    }
 }
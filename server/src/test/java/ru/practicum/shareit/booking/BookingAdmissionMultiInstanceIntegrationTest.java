@@ -0,0 +1,135 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.practicum.shareit.ShareItServer;
+import ru.practicum.shareit.booking.dto.BookingRequestDto;
+import ru.practicum.shareit.exception.ConflictException;
+import ru.practicum.shareit.item.ItemService;
+import ru.practicum.shareit.item.dto.ItemCreateDto;
+import ru.practicum.shareit.user.UserServiceImpl;
+import ru.practicum.shareit.user.dto.UserCreateDto;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Два экземпляра сервера — два контекста приложения — над одной базой H2.
+ * У каждого своё расписание вещей в памяти, поэтому пересечение должна отклонить БД.
+ */
+public class BookingAdmissionMultiInstanceIntegrationTest {
+    private static final String URL = "jdbc:h2:mem:two-instances;DB_CLOSE_DELAY=-1";
+    private static final AtomicInteger USERS = new AtomicInteger();
+
+    private static ConfigurableApplicationContext first;
+    private static ConfigurableApplicationContext second;
+
+    private final LocalDateTime start = LocalDateTime.now().plusDays(10).truncatedTo(ChronoUnit.HOURS);
+
+    @BeforeAll
+    static void startInstances() {
+        first = start();
+        second = start();
+    }
+
+    @AfterAll
+    static void stopInstances() {
+        second.close();
+        first.close();
+    }
+
+    @Test
+    void testCreateBookingWhenOtherInstanceBookedPeriodAfterScheduleLoadedThenThrowConflictException() {
+        Long bookerId = createUser();
+        Long itemId = createItem();
+        // Второй экземпляр загружает расписание вещи, пока период ещё свободен
+        bookings(second).createBooking(request(itemId, start, start.plusHours(2)), bookerId);
+        bookings(first).createBooking(request(itemId, start.plusDays(1), start.plusDays(2)), bookerId);
+
+        assertThatThrownBy(() -> bookings(second).createBooking(
+                request(itemId, start.plusDays(1).plusHours(3), start.plusDays(3)), bookerId))
+                .isInstanceOf(ConflictException.class);
+        assertThat(bookingRepository().findByItemIdAndStatusInAndEndAfter(itemId,
+                BookingAdmissionService.OCCUPYING, LocalDateTime.now())).hasSize(2);
+    }
+
+    @Test
+    void testCreateBookingWhenInstancesBookSamePeriodConcurrentlyThenAdmitExactlyOne() throws Exception {
+        Long bookerId = createUser();
+        Long itemId = createItem();
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch ready = new CountDownLatch(1);
+        List<Future<Boolean>> results = new ArrayList<>();
+        try {
+            for (int i = 0; i < threads; i++) {
+                BookingService bookingService = bookings(i % 2 == 0 ? first : second);
+                results.add(executor.submit(() -> {
+                    ready.await();
+                    try {
+                        bookingService.createBooking(request(itemId, start, start.plusHours(2)), bookerId);
+                        return true;
+                    } catch (ConflictException e) {
+                        return false;
+                    }
+                }));
+            }
+            ready.countDown();
+            int admitted = 0;
+            for (Future<Boolean> result : results) {
+                admitted += result.get(30, TimeUnit.SECONDS) ? 1 : 0;
+            }
+            assertThat(admitted).isEqualTo(1);
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(bookingRepository().findByItemIdAndStatusInAndEndAfter(itemId,
+                BookingAdmissionService.OCCUPYING, LocalDateTime.now())).hasSize(1);
+    }
+
+    private static ConfigurableApplicationContext start() {
+        return new SpringApplicationBuilder(ShareItServer.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=" + URL);
+    }
+
+    private static BookingService bookings(ConfigurableApplicationContext context) {
+        return context.getBean(BookingService.class);
+    }
+
+    private static BookingRepository bookingRepository() {
+        return first.getBean(BookingRepository.class);
+    }
+
+    private static Long createUser() {
+        UserCreateDto user = new UserCreateDto();
+        user.setName("User");
+        user.setEmail("instances." + USERS.incrementAndGet() + "@example.com");
+        return first.getBean(UserServiceImpl.class).create(user).getId();
+    }
+
+    private static Long createItem() {
+        return first.getBean(ItemService.class)
+                .create(new ItemCreateDto("Дрель", "Аккумуляторная дрель", true, null), createUser())
+                .getId();
+    }
+
+    private static BookingRequestDto request(Long itemId, LocalDateTime start, LocalDateTime end) {
+        return new BookingRequestDto(start, end, itemId, null);
+    }
+}
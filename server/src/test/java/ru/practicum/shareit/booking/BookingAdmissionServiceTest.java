@@ -0,0 +1,222 @@
+package ru.practicum.shareit.booking;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.shareit.exception.ConflictException;
+import ru.practicum.shareit.exception.ValidationException;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.user.User;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.UnaryOperator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class BookingAdmissionServiceTest {
+
+    @Mock
+    private BookingRepository bookingRepository;
+
+    @Mock
+    private ItemRepository itemRepository;
+
+    private BookingAdmissionService admissionService;
+
+    private final AtomicLong ids = new AtomicLong(100);
+    private final UnaryOperator<Booking> save = booking -> {
+        booking.setId(ids.incrementAndGet());
+        return booking;
+    };
+    private final LocalDateTime noon = LocalDateTime.of(2030, 1, 1, 12, 0);
+    private User booker;
+    private Item item;
+
+    @BeforeEach
+    void setUp() {
+        admissionService = new BookingAdmissionService(bookingRepository, itemRepository, new SimpleMeterRegistry(),
+                100, Duration.ofHours(1));
+        booker = new User(1L, "Booker", "booker@example.com");
+        item = new Item(1L, "Item", "Description", true, new User(2L, "Owner", "owner@example.com"), null);
+    }
+
+    @Test
+    void testAdmitWhenPeriodIsFreeThenSave() {
+        when(bookingRepository.findByItemIdAndStatusInAndEndAfter(eq(1L), anyCollection(), any()))
+                .thenReturn(List.of());
+        Booking saved = admissionService.admit(booking(noon, noon.plusHours(2)), save);
+        assertThat(saved.getId()).isNotNull();
+    }
+
+    @Test
+    void testAdmitWhenPeriodOverlapsLoadedBookingThenThrowConflictException() {
+        Booking existing = booking(noon.minusDays(1), noon.plusHours(1));
+        existing.setId(1L);
+        when(bookingRepository.findByItemIdAndStatusInAndEndAfter(eq(1L), anyCollection(), any()))
+                .thenReturn(List.of(existing));
+        assertThatThrownBy(() -> admissionService.admit(booking(noon, noon.plusHours(2)), save))
+                .isInstanceOf(ConflictException.class)
+                .hasMessageContaining("уже забронирована");
+    }
+
+    @Test
+    void testAdmitWhenPeriodsOnlyTouchThenAdmitBoth() {
+        when(bookingRepository.findByItemIdAndStatusInAndEndAfter(eq(1L), anyCollection(), any()))
+                .thenReturn(List.of());
+        admissionService.admit(booking(noon, noon.plusHours(2)), save);
+        admissionService.admit(booking(noon.plusHours(2), noon.plusHours(4)), save);
+        admissionService.admit(booking(noon.minusHours(1), noon), save);
+        verify(bookingRepository, times(1)).findByItemIdAndStatusInAndEndAfter(eq(1L), anyCollection(), any());
+    }
+
+    @Test
+    void testAdmitWhenLongEarlierBookingCoversPeriodThenThrowConflictException() {
+        when(bookingRepository.findByItemIdAndStatusInAndEndAfter(eq(1L), anyCollection(), any()))
+                .thenReturn(List.of());
+        admissionService.admit(booking(noon, noon.plusDays(10)), save);
+        admissionService.admit(booking(noon.minusDays(2), noon.minusDays(1)), save);
+        assertThatThrownBy(() -> admissionService.admit(booking(noon.plusDays(5), noon.plusDays(6)), save))
+                .isInstanceOf(ConflictException.class);
+    }
+
+    @Test
+    void testStatusChangedWhenRejectedThenReleasePeriod() {
+        when(bookingRepository.findByItemIdAndStatusInAndEndAfter(eq(1L), anyCollection(), any()))
+                .thenReturn(List.of());
+        Booking first = admissionService.admit(booking(noon, noon.plusHours(2)), save);
+        first.setStatus(Status.REJECTED);
+        admissionService.statusChanged(first);
+        Booking second = admissionService.admit(booking(noon, noon.plusHours(2)), save);
+        assertThat(second.getId()).isNotEqualTo(first.getId());
+    }
+
+    @Test
+    void testStatusChangedWhenRejectedBookingApprovedOverTakenPeriodThenThrowConflictException() {
+        when(bookingRepository.findByItemIdAndStatusInAndEndAfter(eq(1L), anyCollection(), any()))
+                .thenReturn(List.of());
+        Booking first = admissionService.admit(booking(noon, noon.plusHours(2)), save);
+        first.setStatus(Status.REJECTED);
+        admissionService.statusChanged(first);
+        admissionService.admit(booking(noon, noon.plusHours(2)), save);
+        first.setStatus(Status.APPROVED);
+        assertThatThrownBy(() -> admissionService.statusChanged(first))
+                .isInstanceOf(ConflictException.class);
+    }
+
+    @Test
+    void testAdmitWhenEndNotAfterStartThenThrowValidationException() {
+        assertThatThrownBy(() -> admissionService.admit(booking(noon, noon), save))
+                .isInstanceOf(ValidationException.class);
+        verifyNoInteractions(bookingRepository);
+    }
+
+    @Test
+    void testAdmitWhenConcurrentRequestsForSamePeriodThenAdmitExactlyOne() throws Exception {
+        when(bookingRepository.findByItemIdAndStatusInAndEndAfter(eq(1L), anyCollection(), any()))
+                .thenReturn(List.of());
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> results = new ArrayList<>();
+        List<Long> admitted = Collections.synchronizedList(new ArrayList<>());
+        for (int i = 0; i < threads; i++) {
+            results.add(executor.submit(() -> {
+                start.await();
+                try {
+                    admitted.add(admissionService.admit(booking(noon, noon.plusHours(2)), save).getId());
+                    return true;
+                } catch (ConflictException e) {
+                    return false;
+                }
+            }));
+        }
+        start.countDown();
+        int successes = 0;
+        for (Future<Boolean> result : results) {
+            successes += result.get(5, TimeUnit.SECONDS) ? 1 : 0;
+        }
+        executor.shutdown();
+        assertThat(successes).isEqualTo(1);
+        assertThat(admitted).hasSize(1);
+    }
+
+    @Test
+    void testAdmitWhenDatabaseHasOverlapUnknownToScheduleThenThrowConflictException() {
+        when(bookingRepository.findByItemIdAndStatusInAndEndAfter(eq(1L), anyCollection(), any()))
+                .thenReturn(List.of());
+        // Бронирование сделано на другом экземпляре уже после загрузки расписания
+        when(bookingRepository.existsOverlapping(eq(1L), anyCollection(), eq(noon), eq(noon.plusHours(2)), isNull()))
+                .thenReturn(true);
+        assertThatThrownBy(() -> admissionService.admit(booking(noon, noon.plusHours(2)), save))
+                .isInstanceOf(ConflictException.class);
+
+        InOrder inOrder = inOrder(itemRepository, bookingRepository);
+        inOrder.verify(itemRepository).lockByIds(List.of(1L));
+        inOrder.verify(bookingRepository).existsOverlapping(any(), anyCollection(), any(), any(), any());
+    }
+
+    @Test
+    void testAdmitWhenScheduleOverlapsThenRejectWithoutLockingItem() {
+        when(bookingRepository.findByItemIdAndStatusInAndEndAfter(eq(1L), anyCollection(), any()))
+                .thenReturn(List.of());
+        admissionService.admit(booking(noon, noon.plusHours(2)), save);
+        clearInvocations(itemRepository, bookingRepository);
+
+        assertThatThrownBy(() -> admissionService.admit(booking(noon.plusHours(1), noon.plusHours(3)), save))
+                .isInstanceOf(ConflictException.class);
+        verifyNoInteractions(itemRepository);
+        verify(bookingRepository, never()).existsOverlapping(any(), anyCollection(), any(), any(), any());
+    }
+
+    @Test
+    void testStatusChangedWhenKnownBookingApprovedThenStillCheckDatabase() {
+        when(bookingRepository.findByItemIdAndStatusInAndEndAfter(eq(1L), anyCollection(), any()))
+                .thenReturn(List.of());
+        Booking booking = admissionService.admit(booking(noon, noon.plusHours(2)), save);
+        booking.setStatus(Status.APPROVED);
+        when(bookingRepository.existsOverlapping(1L, BookingAdmissionService.OCCUPYING, noon, noon.plusHours(2),
+                booking.getId())).thenReturn(true);
+
+        assertThatThrownBy(() -> admissionService.statusChanged(booking)).isInstanceOf(ConflictException.class);
+    }
+
+    @Test
+    void testPruneWhenIntervalEndedThenDropIt() {
+        LocalDateTime loadedAt = noon.minusDays(1);
+        Booking ended = booking(noon.minusHours(3), noon.minusHours(1));
+        ended.setId(1L);
+        Booking running = booking(noon.minusHours(1), noon.plusHours(1));
+        running.setId(2L);
+        ItemSchedule schedule = new ItemSchedule(List.of(ended, running), loadedAt);
+
+        schedule.prune(noon);
+        assertThat(schedule.size()).isEqualTo(1);
+        assertThat(schedule.contains(2L)).isTrue();
+        assertThat(schedule.overlaps(noon, noon.plusHours(2))).isTrue();
+    }
+
+    private Booking booking(LocalDateTime start, LocalDateTime end) {
+        return new Booking(null, start, end, item, booker, Status.WAITING);
+    }
+}
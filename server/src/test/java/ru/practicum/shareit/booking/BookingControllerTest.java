@@ -5,12 +5,16 @@ import org.junit.jupiter.api.Test;
 import org.mockito.BDDMockito;
 import org.mockito.Mockito;
 import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 import ru.practicum.shareit.base.BaseWebMvcTest;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingRequestDto;
+import ru.practicum.shareit.exception.NotFoundException;
 
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
@@ -43,6 +47,22 @@ public class BookingControllerTest extends BaseWebMvcTest {
                         .value(bookingDto.getStatus().toString()));
     }
 
+    @Test
+    public void testCreateBookingWhenIdempotencyKeyGivenThenPassItWithRequest() throws Exception {
+        BDDMockito.given(bookingService.createBooking(Mockito.any(BookingRequestDto.class),
+                Mockito.eq(1L))).willReturn(bookingDto);
+        mockMvc.perform(MockMvcRequestBuilders.post("/bookings")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"start\":\"" + bookingRequestDto.getStart()
+                                + "\",\"end\":\"" + bookingRequestDto.getEnd() + "\",\"itemId\":1,\"bookerId\":1}")
+                        .header("X-Sharer-User-Id", 1L)
+                        .header("Idempotency-Key", "key-1"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.id").value(bookingDto.getId()));
+        Mockito.verify(idempotencyService).execute(Mockito.eq("createBooking"), Mockito.eq(1L), Mockito.eq("key-1"),
+                Mockito.any(BookingRequestDto.class), Mockito.any());
+    }
+
     @Test
     public void testApproveBookingWhenServiceApprovesBookingThenReturnBooking() throws Exception {
         BDDMockito.given(bookingService.approveBooking(Mockito.eq(1L), Mockito.eq(true),
@@ -71,7 +91,7 @@ public class BookingControllerTest extends BaseWebMvcTest {
     public void testFindBookerBookingsWhenServiceReturnsBookingsThenReturnListOfBookings() throws Exception {
         List<BookingDto> bookings = Arrays.asList(bookingDto);
         BDDMockito.given(bookingService.findBookerBookings(Mockito.any(BookingState.class),
-                Mockito.eq(1L))).willReturn(bookings);
+                Mockito.eq(1L), Mockito.eq(0), Mockito.eq(10), Mockito.isNull())).willReturn(bookings);
         mockMvc.perform(MockMvcRequestBuilders.get("/bookings")
                         .param("state", "ALL")
                         .header("X-Sharer-User-Id", 1L))
@@ -85,7 +105,7 @@ public class BookingControllerTest extends BaseWebMvcTest {
     public void testFindOwnerBookingsWhenServiceReturnsBookingsThenReturnListOfBookings() throws Exception {
         List<BookingDto> bookings = Arrays.asList(bookingDto);
         BDDMockito.given(bookingService.findOwnerBookings(Mockito.any(BookingState.class),
-                Mockito.eq(1L))).willReturn(bookings);
+                Mockito.eq(1L), Mockito.eq(0), Mockito.eq(10), Mockito.isNull())).willReturn(bookings);
         mockMvc.perform(MockMvcRequestBuilders.get("/bookings/owner")
                         .param("state", "ALL")
                         .header("X-Sharer-User-Id", 1L))
@@ -94,4 +114,60 @@ public class BookingControllerTest extends BaseWebMvcTest {
                 .andExpect(MockMvcResultMatchers.jsonPath("$[0].status")
                         .value(bookingDto.getStatus().toString()));
     }
+
+    @Test
+    public void testFindBookerBookingsWhenPageIsFullThenReturnNextCursorHeader() throws Exception {
+        List<BookingDto> bookings = List.of(bookingDto);
+        BDDMockito.given(bookingService.findBookerBookings(Mockito.any(BookingState.class),
+                Mockito.eq(1L), Mockito.eq(0), Mockito.eq(1), Mockito.isNull())).willReturn(bookings);
+        mockMvc.perform(MockMvcRequestBuilders.get("/bookings")
+                        .param("state", "ALL")
+                        .param("size", "1")
+                        .header("X-Sharer-User-Id", 1L))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string("X-Next-Cursor",
+                        BookingCursor.next(bookings, 1)))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].id").value(bookingDto.getId()));
+    }
+
+    @Test
+    public void testFindOwnerBookingsWhenPageIsNotFullThenNoNextCursorHeader() throws Exception {
+        BDDMockito.given(bookingService.findOwnerBookings(Mockito.any(BookingState.class),
+                Mockito.eq(1L), Mockito.eq(0), Mockito.eq(10), Mockito.eq("abc"))).willReturn(List.of(bookingDto));
+        mockMvc.perform(MockMvcRequestBuilders.get("/bookings/owner")
+                        .param("cursor", "abc")
+                        .header("X-Sharer-User-Id", 1L))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().doesNotExist("X-Next-Cursor"));
+    }
+
+    @Test
+    public void testExportOwnerBookingsWhenFormatIsCsvThenStreamCsvAttachment() throws Exception {
+        Mockito.doAnswer(invocation -> {
+            invocation.<OutputStream>getArgument(2).write("id,start\r\n1,2024-01-01T10:00\r\n"
+                    .getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(bookingExportService).export(Mockito.eq(1L), Mockito.eq(BookingExportFormat.CSV), Mockito.any());
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.get("/bookings/owner/export")
+                        .param("format", "CSV")
+                        .header("X-Sharer-User-Id", 1L))
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(result))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string("Content-Type", "text/csv;charset=UTF-8"))
+                .andExpect(MockMvcResultMatchers.header().string("Content-Disposition",
+                        "attachment; filename=\"bookings.csv\""))
+                .andExpect(MockMvcResultMatchers.content().string("id,start\r\n1,2024-01-01T10:00\r\n"));
+    }
+
+    @Test
+    public void testExportOwnerBookingsWhenOwnerNotFoundThenReturnNotFoundBeforeStreaming() throws Exception {
+        Mockito.doThrow(new NotFoundException("Пользователь с id = 1 не найден"))
+                .when(bookingExportService).checkOwner(1L);
+        mockMvc.perform(MockMvcRequestBuilders.get("/bookings/owner/export")
+                        .header("X-Sharer-User-Id", 1L))
+                .andExpect(MockMvcResultMatchers.status().isNotFound());
+        Mockito.verify(bookingExportService, Mockito.never()).export(Mockito.any(), Mockito.any(), Mockito.any());
+    }
 }
@@ -0,0 +1,83 @@
+package ru.practicum.shareit.booking;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import ru.practicum.shareit.base.BaseSpringBootTest;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.user.User;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class BookingExportServiceIntegrationTest extends BaseSpringBootTest {
+    private static final LocalDateTime START = LocalDateTime.of(2024, 6, 1, 12, 0);
+
+    @Autowired
+    private BookingExportService bookingExportService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private User owner;
+    private Booking earlier;
+    private Booking later;
+
+    @BeforeEach
+    public void setUp() {
+        owner = userRepository.save(new User(null, "Owner", "owner@example.com"));
+        User booker = userRepository.save(new User(null, "Doe, \"Johnny\"", "booker@example.com"));
+        User stranger = userRepository.save(new User(null, "Stranger", "stranger@example.com"));
+        Item item = itemRepository.save(new Item(null, "Drill, cordless", "Drill", true, owner, null));
+        Item strangerItem = itemRepository.save(new Item(null, "Saw", "Saw", true, stranger, null));
+        earlier = bookingRepository.save(new Booking(null, START, START.plusHours(1), item, booker,
+                Status.APPROVED));
+        later = bookingRepository.save(new Booking(null, START.plusDays(1), START.plusDays(1).plusHours(1), item,
+                booker, Status.WAITING));
+        bookingRepository.save(new Booking(null, START, START.plusHours(1), strangerItem, booker, Status.APPROVED));
+        bookingRepository.flush();
+    }
+
+    @Test
+    public void testExportWhenNdjsonThenWriteOneOwnerBookingPerLineNewestFirst() throws IOException {
+        List<String> lines = export(BookingExportFormat.NDJSON).lines().toList();
+        assertThat(lines).hasSize(2);
+        JsonNode first = objectMapper.readTree(lines.get(0));
+        assertThat(first.get("id").asLong()).isEqualTo(later.getId());
+        assertThat(first.get("status").asText()).isEqualTo("WAITING");
+        assertThat(first.get("item").get("ownerId").asLong()).isEqualTo(owner.getId());
+        assertThat(objectMapper.readTree(lines.get(1)).get("id").asLong()).isEqualTo(earlier.getId());
+    }
+
+    @Test
+    public void testExportWhenCsvThenWriteHeaderAndQuoteSpecialCharacters() throws IOException {
+        String csv = export(BookingExportFormat.CSV);
+        assertThat(csv).startsWith("id,start,end,status,item_id,item_name,booker_id,booker_name,booker_email\r\n");
+        assertThat(csv.split("\r\n")).hasSize(3);
+        assertThat(csv).contains(earlier.getId() + ",2024-06-01T12:00,2024-06-01T13:00,APPROVED,"
+                + earlier.getItem().getId() + ",\"Drill, cordless\"," + earlier.getBooker().getId()
+                + ",\"Doe, \"\"Johnny\"\"\",booker@example.com\r\n");
+    }
+
+    @Test
+    public void testExportWhenOwnerHasNoBookingsThenWriteOnlyCsvHeader() throws IOException {
+        User newcomer = userRepository.save(new User(null, "Newcomer", "newcomer@example.com"));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        bookingExportService.export(newcomer.getId(), BookingExportFormat.CSV, out);
+        assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo(
+                "id,start,end,status,item_id,item_name,booker_id,booker_name,booker_email\r\n");
+    }
+
+    private String export(BookingExportFormat format) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        bookingExportService.export(owner.getId(), format, out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+}
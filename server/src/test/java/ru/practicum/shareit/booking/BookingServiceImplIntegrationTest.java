@@ -1,16 +1,24 @@
 package ru.practicum.shareit.booking;
 
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import ru.practicum.shareit.base.BaseSpringBootTest;
+import ru.practicum.shareit.exception.ConflictException;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.exception.ValidationException;
 import ru.practicum.shareit.user.User;
 import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.booking.dto.BookingRequestDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -18,6 +26,9 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 
 public class BookingServiceImplIntegrationTest extends BaseSpringBootTest {
 
+    @Autowired
+    private EntityManager entityManager;
+
     private User booker;
     private User itemOwner;
     private Item item;
@@ -32,8 +43,10 @@ public class BookingServiceImplIntegrationTest extends BaseSpringBootTest {
         item = new Item(null, "Item Name", "Item Description", true, itemOwner, null);
         itemRepository.save(item);
         bookingRequestDto = new BookingRequestDto();
-        bookingRequestDto.setStart(LocalDateTime.now().plusDays(1));
-        bookingRequestDto.setEnd(LocalDateTime.now().plusDays(2));
+        // Время в запросах API с точностью до секунд, как его передаёт клиент
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        bookingRequestDto.setStart(now.plusDays(1));
+        bookingRequestDto.setEnd(now.plusDays(2));
         bookingRequestDto.setItemId(item.getId());
         bookingRequestDto.setBookerId(booker.getId());
     }
@@ -83,27 +96,156 @@ public class BookingServiceImplIntegrationTest extends BaseSpringBootTest {
     @Test
     public void testFindBookerBookingsWhenBookingsExistThenReturnBookingDtos() {
         bookingService.createBooking(bookingRequestDto, booker.getId());
-        List<BookingDto> bookings = bookingService.findBookerBookings(BookingState.ALL, booker.getId());
+        List<BookingDto> bookings = bookingService.findBookerBookings(BookingState.ALL, booker.getId(), 0, 10,
+                null);
         assertThat(bookings).isNotEmpty();
     }
 
     @Test
     public void testFindOwnerBookingsWhenBookingsExistThenReturnBookingDtos() {
         BookingDto createdBooking = bookingService.createBooking(bookingRequestDto, booker.getId());
-        List<BookingDto> ownerBookings = bookingService.findOwnerBookings(BookingState.ALL, itemOwner.getId());
+        List<BookingDto> ownerBookings = bookingService.findOwnerBookings(BookingState.ALL, itemOwner.getId(), 0,
+                10, null);
         assertThat(ownerBookings).isNotEmpty();
         assertThat(ownerBookings.getFirst().getId()).isEqualTo(createdBooking.getId());
     }
 
     @Test
     public void testFindBookerBookingsWhenNoBookingsExistThenReturnEmptyList() {
-        List<BookingDto> bookings = bookingService.findBookerBookings(BookingState.ALL, booker.getId());
+        List<BookingDto> bookings = bookingService.findBookerBookings(BookingState.ALL, booker.getId(), 0, 10,
+                null);
         assertThat(bookings).isEmpty();
     }
 
     @Test
     public void testFindOwnerBookingsWhenNoBookingsExistThenReturnEmptyList() {
-        List<BookingDto> ownerBookings = bookingService.findOwnerBookings(BookingState.ALL, itemOwner.getId());
+        List<BookingDto> ownerBookings = bookingService.findOwnerBookings(BookingState.ALL, itemOwner.getId(), 0,
+                10, null);
         assertThat(ownerBookings).isEmpty();
     }
+
+    @Test
+    public void testFindBookerBookingsWhenPagedByCursorThenReturnEachBookingOnce() {
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        for (int i = 0; i < 5; i++) {
+            bookingRequestDto.setStart(now.plusDays(10 + i));
+            bookingRequestDto.setEnd(now.plusDays(10 + i).plusHours(1));
+            bookingService.createBooking(bookingRequestDto, booker.getId());
+        }
+        List<BookingDto> firstPage = bookingService.findBookerBookings(BookingState.FUTURE, booker.getId(), 0, 2,
+                null);
+        List<BookingDto> secondPage = bookingService.findBookerBookings(BookingState.FUTURE, booker.getId(), 0, 2,
+                BookingCursor.next(firstPage, 2));
+        List<BookingDto> lastPage = bookingService.findBookerBookings(BookingState.FUTURE, booker.getId(), 0, 2,
+                BookingCursor.next(secondPage, 2));
+        assertThat(firstPage).hasSize(2);
+        assertThat(secondPage).hasSize(2);
+        assertThat(lastPage).hasSize(1);
+        assertThat(BookingCursor.next(lastPage, 2)).isNull();
+        assertThat(firstPage.getFirst().getStart()).isAfter(secondPage.getFirst().getStart());
+        assertThat(secondPage.getLast().getStart()).isAfter(lastPage.getFirst().getStart());
+    }
+
+    @Test
+    public void testFindOwnerBookingsWhenOffsetGivenThenSkipFirstPage() {
+        for (int i = 0; i < 3; i++) {
+            bookingRequestDto.setStart(LocalDateTime.now().plusDays(10 + i));
+            bookingRequestDto.setEnd(LocalDateTime.now().plusDays(10 + i).plusHours(1));
+            bookingService.createBooking(bookingRequestDto, booker.getId());
+        }
+        List<BookingDto> secondPage = bookingService.findOwnerBookings(BookingState.WAITING, itemOwner.getId(), 2, 2,
+                null);
+        assertThat(secondPage).hasSize(1);
+    }
+
+    @Test
+    public void testFindOwnerBookingsWhenOffsetNotMultipleOfSizeThenSkipExactlyFrom() {
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        for (int i = 0; i < 4; i++) {
+            bookingRequestDto.setStart(now.plusDays(10 + i));
+            bookingRequestDto.setEnd(now.plusDays(10 + i).plusHours(1));
+            bookingService.createBooking(bookingRequestDto, booker.getId());
+        }
+        List<BookingDto> all = bookingService.findOwnerBookings(BookingState.WAITING, itemOwner.getId(), 0, 10,
+                null);
+        List<BookingDto> page = bookingService.findOwnerBookings(BookingState.WAITING, itemOwner.getId(), 1, 2,
+                null);
+        assertThat(page).extracting(BookingDto::getId)
+                .containsExactly(all.get(1).getId(), all.get(2).getId());
+    }
+
+    @Test
+    public void testFindBookingsWhenStateGivenThenFilterAndReadDtos() {
+        LocalDateTime now = LocalDateTime.now();
+        Booking past = bookingRepository.save(new Booking(null, now.minusDays(2), now.minusDays(1), item, booker,
+                Status.APPROVED));
+        Booking current = bookingRepository.save(new Booking(null, now.minusHours(1), now.plusHours(1), item, booker,
+                Status.APPROVED));
+        Booking rejected = bookingRepository.save(new Booking(null, now.plusDays(1), now.plusDays(2), item, booker,
+                Status.REJECTED));
+        bookingRepository.flush();
+        entityManager.clear();
+        PageRequest page = PageRequest.of(0, 10);
+
+        assertThat(bookingRepository.findBookings(BookingRole.OWNER, itemOwner.getId(), BookingState.PAST, now,
+                BookingCursor.FIRST, page)).extracting(BookingDto::getId).containsExactly(past.getId());
+        assertThat(bookingRepository.findBookings(BookingRole.BOOKER, booker.getId(), BookingState.CURRENT, now,
+                BookingCursor.FIRST, page)).extracting(BookingDto::getId).containsExactly(current.getId());
+        assertThat(bookingRepository.findBookings(BookingRole.OWNER, booker.getId(), BookingState.ALL, now,
+                BookingCursor.FIRST, page)).isEmpty();
+        List<BookingDto> found = bookingRepository.findBookings(BookingRole.BOOKER, booker.getId(),
+                BookingState.REJECTED, now, BookingCursor.FIRST, page);
+        assertThat(found).extracting(BookingDto::getId).containsExactly(rejected.getId());
+        assertThat(found.getFirst().getBooker()).isEqualTo(new UserDto(booker.getId(), booker.getName(),
+                booker.getEmail()));
+        assertThat(found.getFirst().getItem()).isEqualTo(new ItemDto(item.getId(), item.getName(),
+                item.getDescription(), item.getAvailable(), itemOwner.getId()));
+        // Проекция не кладёт сущности в контекст персистентности
+        assertThat(entityManager.unwrap(Session.class).getStatistics().getEntityCount()).isZero();
+    }
+
+    @Test
+    public void testCreateBookingWhenPeriodOverlapsThenThrowConflictException() {
+        bookingService.createBooking(bookingRequestDto, booker.getId());
+        BookingRequestDto overlapping = new BookingRequestDto(bookingRequestDto.getStart().plusHours(12),
+                bookingRequestDto.getEnd().plusHours(12), item.getId(), booker.getId());
+        assertThrows(ConflictException.class, () -> bookingService.createBooking(overlapping, booker.getId()));
+    }
+
+    @Test
+    public void testCreateBookingsWhenPeriodsAreFreeThenSaveAll() {
+        BookingRequestDto next = new BookingRequestDto(bookingRequestDto.getEnd(),
+                bookingRequestDto.getEnd().plusDays(1), item.getId(), booker.getId());
+        List<BookingDto> created = bookingService.createBookings(List.of(bookingRequestDto, next), booker.getId());
+        assertThat(created).extracting(BookingDto::getStatus).containsOnly(Status.WAITING);
+        assertThat(created).extracting(BookingDto::getId).doesNotContainNull().doesNotHaveDuplicates();
+        assertThat(bookingService.findBookerBookings(BookingState.ALL, booker.getId(), 0, 10, null)).hasSize(2);
+    }
+
+    @Test
+    public void testCreateBookingWhenAdjacentPeriodHasNanosecondsThenAdmitIt() {
+        // БД округлила бы конец первого бронирования вверх до микросекунд, и оно пересеклось бы со вторым
+        LocalDateTime boundary = bookingRequestDto.getEnd().withNano(999_999_999);
+        bookingRequestDto.setEnd(boundary);
+        bookingService.createBooking(bookingRequestDto, booker.getId());
+        BookingRequestDto next = new BookingRequestDto(boundary, boundary.plusDays(1), item.getId(), booker.getId());
+
+        assertThat(bookingService.createBooking(next, booker.getId()).getStart())
+                .isEqualTo(boundary.truncatedTo(ChronoUnit.MICROS));
+    }
+
+    @Test
+    public void testCreateBookingsWhenPeriodsOverlapWithinBatchThenThrowConflictException() {
+        BookingRequestDto overlapping = new BookingRequestDto(bookingRequestDto.getStart().plusHours(12),
+                bookingRequestDto.getEnd().plusHours(12), item.getId(), booker.getId());
+        assertThrows(ConflictException.class, () -> bookingService.createBookings(
+                List.of(bookingRequestDto, overlapping), booker.getId()));
+    }
+
+    @Test
+    public void testCreateBookingsWhenItemDoesNotExistThenThrowNotFoundException() {
+        bookingRequestDto.setItemId(999L);
+        assertThrows(NotFoundException.class, () -> bookingService.createBookings(List.of(bookingRequestDto),
+                booker.getId()));
+    }
 }
@@ -1,29 +1,39 @@
 package ru.practicum.shareit.booking;
 
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingRequestDto;
+import ru.practicum.shareit.exception.ConflictException;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.exception.ValidationException;
 import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemRepository;
 import ru.practicum.shareit.user.User;
 import ru.practicum.shareit.utils.CheckItemService;
 import ru.practicum.shareit.utils.CheckUserService;
+import ru.practicum.shareit.utils.OffsetPageable;
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.UnaryOperator;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
@@ -39,6 +49,15 @@ public class BookingServiceImplTest {
     @Mock
     private CheckItemService checkItemService;
 
+    @Mock
+    private BookingAdmissionService bookingAdmissionService;
+
+    @Mock
+    private ItemRepository itemRepository;
+
+    @Mock
+    private EntityManager entityManager;
+
     @InjectMocks
     private BookingServiceImpl bookingService;
 
@@ -55,8 +74,8 @@ public class BookingServiceImplTest {
         item = new Item(1L, "Item Name", "Item Description", true, itemOwner, null);
         booking = new Booking(1L, LocalDateTime.now().minusDays(1), LocalDateTime.now().plusDays(1),
                 item, booker, Status.APPROVED);
-        bookingRequestDto = new BookingRequestDto(LocalDateTime.now().plusDays(1), LocalDateTime.now().plusDays(2),
-                item.getId(), booker.getId());
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        bookingRequestDto = new BookingRequestDto(now.plusDays(1), now.plusDays(2), item.getId(), booker.getId());
     }
 
     @Test
@@ -64,12 +83,32 @@ public class BookingServiceImplTest {
         when(checkUserService.checkUser(booker.getId())).thenReturn(booker);
         when(checkItemService.checkItem(item.getId())).thenReturn(item);
         when(bookingRepository.save(any(Booking.class))).thenReturn(booking);
+        when(bookingAdmissionService.admit(any(Booking.class), any()))
+                .thenAnswer(invocation -> invocation.<UnaryOperator<Booking>>getArgument(1)
+                        .apply(invocation.getArgument(0)));
         BookingDto result = bookingService.createBooking(bookingRequestDto, booker.getId());
         assertThat(result).isNotNull();
         assertThat(result.getId()).isEqualTo(booking.getId());
         assertThat(result.getStart()).isEqualTo(booking.getStart());
         assertThat(result.getEnd()).isEqualTo(booking.getEnd());
         assertThat(result.getStatus()).isEqualTo(booking.getStatus());
+        verify(itemRepository).incrementBookingCount(item.getId(), 1);
+    }
+
+    @Test
+    void testCreateBookingsWhenValidRequestsThenAdmitEachBooking() {
+        BookingRequestDto next = new BookingRequestDto(bookingRequestDto.getEnd(),
+                bookingRequestDto.getEnd().plusDays(1), item.getId(), booker.getId());
+        when(checkUserService.checkUser(booker.getId())).thenReturn(booker);
+        when(checkItemService.checkItems(Set.of(item.getId()))).thenReturn(Map.of(item.getId(), item));
+        when(bookingAdmissionService.admit(any(Booking.class), any()))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+        List<BookingDto> result = bookingService.createBookings(List.of(bookingRequestDto, next), booker.getId());
+        assertThat(result).extracting(BookingDto::getStart)
+                .containsExactly(bookingRequestDto.getStart(), next.getStart());
+        verify(bookingAdmissionService, times(2)).admit(any(Booking.class), any());
+        verify(checkItemService, never()).checkItem(anyLong());
+        verify(itemRepository).incrementBookingCount(item.getId(), 2L);
     }
 
     @Test
@@ -96,7 +135,9 @@ public class BookingServiceImplTest {
         when(bookingRepository.save(any(Booking.class))).thenReturn(booking); // Настраиваем возврат сохраненного объекта
         BookingDto result = bookingService.approveBooking(booking.getId(), true, item.getOwner().getId());
         assertThat(result.getStatus()).isEqualTo(Status.APPROVED);
-        verify(bookingRepository, times(2)).save(booking);
+        verify(bookingRepository).save(booking);
+        verify(bookingAdmissionService).statusChanged(booking);
+        verify(itemRepository).lockAndRefreshBookingSummary(eq(List.of(item.getId())), any(LocalDateTime.class));
     }
 
     @Test
@@ -138,11 +179,15 @@ public class BookingServiceImplTest {
     @Test
     void testFindBookerBookingsForAllState() {
         when(checkUserService.checkUser(anyLong())).thenReturn(booker);
-        when(bookingRepository.findByBookerIdWithDetails(anyLong())).thenReturn(List.of(booking));
-        List<BookingDto> bookings = bookingService.findBookerBookings(BookingState.ALL, booker.getId());
+        when(bookingRepository.findBookings(eq(BookingRole.BOOKER), anyLong(), eq(BookingState.ALL),
+                any(LocalDateTime.class), any(BookingCursor.class), any(Pageable.class)))
+                .thenReturn(List.of(BookingMapper.mapToBookingDto(booking)));
+        List<BookingDto> bookings = bookingService.findBookerBookings(BookingState.ALL, booker.getId(), 0, 10,
+                null);
         assertThat(bookings).hasSize(1);
         assertThat(bookings.get(0).getId()).isEqualTo(booking.getId());
-        verify(bookingRepository).findByBookerIdWithDetails(eq(booker.getId()));
+        verify(bookingRepository).findBookings(eq(BookingRole.BOOKER), eq(booker.getId()), eq(BookingState.ALL),
+                any(LocalDateTime.class), eq(BookingCursor.FIRST), eq(OffsetPageable.of(0, 10)));
     }
 
     @Test
@@ -150,10 +195,11 @@ public class BookingServiceImplTest {
         LocalDateTime now = LocalDateTime.now();
         Booking currentBooking = new Booking(2L, now.minusHours(1), now.plusHours(1), item, booker, Status.APPROVED);
         when(checkUserService.checkUser(anyLong())).thenReturn(booker);
-        when(bookingRepository.findByBookerIdAndStartBeforeAndEndAfterOrderByStartDesc(
-                anyLong(), any(LocalDateTime.class), any(LocalDateTime.class)))
-                .thenReturn(List.of(currentBooking));
-        List<BookingDto> bookings = bookingService.findBookerBookings(BookingState.CURRENT, booker.getId());
+        when(bookingRepository.findBookings(eq(BookingRole.BOOKER), anyLong(), eq(BookingState.CURRENT),
+                any(LocalDateTime.class), any(BookingCursor.class), any(Pageable.class)))
+                .thenReturn(List.of(BookingMapper.mapToBookingDto(currentBooking)));
+        List<BookingDto> bookings = bookingService.findBookerBookings(BookingState.CURRENT, booker.getId(), 0, 10,
+                null);
         assertThat(bookings).hasSize(1);
         assertThat(bookings.get(0).getStatus()).isEqualTo(Status.APPROVED);
     }
@@ -163,9 +209,11 @@ public class BookingServiceImplTest {
         LocalDateTime past = LocalDateTime.now().minusDays(2);
         Booking pastBooking = new Booking(3L, past.minusDays(1), past, item, booker, Status.APPROVED);
         when(checkUserService.checkUser(anyLong())).thenReturn(booker);
-        when(bookingRepository.findByBookerIdAndEndBeforeOrderByStartDesc(anyLong(), any(LocalDateTime.class)))
-                .thenReturn(List.of(pastBooking));
-        List<BookingDto> bookings = bookingService.findBookerBookings(BookingState.PAST, booker.getId());
+        when(bookingRepository.findBookings(eq(BookingRole.BOOKER), anyLong(), eq(BookingState.PAST),
+                any(LocalDateTime.class), any(BookingCursor.class), any(Pageable.class)))
+                .thenReturn(List.of(BookingMapper.mapToBookingDto(pastBooking)));
+        List<BookingDto> bookings = bookingService.findBookerBookings(BookingState.PAST, booker.getId(), 0, 10,
+                null);
         assertThat(bookings).hasSize(1);
         assertThat(bookings.get(0).getEnd()).isBefore(LocalDateTime.now());
     }
@@ -175,9 +223,11 @@ public class BookingServiceImplTest {
         LocalDateTime future = LocalDateTime.now().plusDays(2);
         Booking futureBooking = new Booking(4L, future, future.plusDays(1), item, booker, Status.WAITING);
         when(checkUserService.checkUser(anyLong())).thenReturn(booker);
-        when(bookingRepository.findByBookerIdAndStartAfterOrderByStartDesc(anyLong(), any(LocalDateTime.class)))
-                .thenReturn(List.of(futureBooking));
-        List<BookingDto> bookings = bookingService.findBookerBookings(BookingState.FUTURE, booker.getId());
+        when(bookingRepository.findBookings(eq(BookingRole.BOOKER), anyLong(), eq(BookingState.FUTURE),
+                any(LocalDateTime.class), any(BookingCursor.class), any(Pageable.class)))
+                .thenReturn(List.of(BookingMapper.mapToBookingDto(futureBooking)));
+        List<BookingDto> bookings = bookingService.findBookerBookings(BookingState.FUTURE, booker.getId(), 0, 10,
+                null);
         assertThat(bookings).hasSize(1);
         assertThat(bookings.get(0).getStart()).isAfter(LocalDateTime.now());
     }
@@ -187,9 +237,11 @@ public class BookingServiceImplTest {
         Booking waitingBooking = new Booking(5L, LocalDateTime.now().plusDays(1), LocalDateTime.now().plusDays(2),
                 item, booker, Status.WAITING);
         when(checkUserService.checkUser(anyLong())).thenReturn(booker);
-        when(bookingRepository.findByBookerIdAndStatusOrderByStartDesc(anyLong(), eq(Status.WAITING)))
-                .thenReturn(List.of(waitingBooking));
-        List<BookingDto> bookings = bookingService.findBookerBookings(BookingState.WAITING, booker.getId());
+        when(bookingRepository.findBookings(eq(BookingRole.BOOKER), anyLong(), eq(BookingState.WAITING),
+                any(LocalDateTime.class), any(BookingCursor.class), any(Pageable.class)))
+                .thenReturn(List.of(BookingMapper.mapToBookingDto(waitingBooking)));
+        List<BookingDto> bookings = bookingService.findBookerBookings(BookingState.WAITING, booker.getId(), 0, 10,
+                null);
         assertThat(bookings).hasSize(1);
         assertThat(bookings.get(0).getStatus()).isEqualTo(Status.WAITING);
     }
@@ -199,9 +251,11 @@ public class BookingServiceImplTest {
         Booking rejectedBooking = new Booking(6L, LocalDateTime.now().plusDays(1), LocalDateTime.now().plusDays(2),
                 item, booker, Status.REJECTED);
         when(checkUserService.checkUser(anyLong())).thenReturn(booker);
-        when(bookingRepository.findByBookerIdAndStatusOrderByStartDesc(anyLong(), eq(Status.REJECTED)))
-                .thenReturn(List.of(rejectedBooking));
-        List<BookingDto> bookings = bookingService.findBookerBookings(BookingState.REJECTED, booker.getId());
+        when(bookingRepository.findBookings(eq(BookingRole.BOOKER), anyLong(), eq(BookingState.REJECTED),
+                any(LocalDateTime.class), any(BookingCursor.class), any(Pageable.class)))
+                .thenReturn(List.of(BookingMapper.mapToBookingDto(rejectedBooking)));
+        List<BookingDto> bookings = bookingService.findBookerBookings(BookingState.REJECTED, booker.getId(), 0, 10,
+                null);
         assertThat(bookings).hasSize(1);
         assertThat(bookings.get(0).getStatus()).isEqualTo(Status.REJECTED);
     }
@@ -209,21 +263,24 @@ public class BookingServiceImplTest {
     @Test
     void testFindBookerBookingsWithNoBookingsThenReturnEmptyList() {
         when(checkUserService.checkUser(anyLong())).thenReturn(booker);
-        when(bookingRepository.findByBookerIdWithDetails(anyLong())).thenReturn(Collections.emptyList());
-        List<BookingDto> bookings = bookingService.findBookerBookings(BookingState.ALL, booker.getId());
+        when(bookingRepository.findBookings(eq(BookingRole.BOOKER), anyLong(), eq(BookingState.ALL),
+                any(LocalDateTime.class), any(BookingCursor.class), any(Pageable.class))).thenReturn(Collections.emptyList());
+        List<BookingDto> bookings = bookingService.findBookerBookings(BookingState.ALL, booker.getId(), 0, 10,
+                null);
         assertThat(bookings).isEmpty();
     }
 
     @Test
     void testFindBookerBookingsWithNullStateThenThrowException() {
-        assertThatThrownBy(() -> bookingService.findBookerBookings(null, booker.getId()))
+        assertThatThrownBy(() -> bookingService.findBookerBookings(null, booker.getId(), 0, 10, null))
                 .isInstanceOf(ValidationException.class)
                 .hasMessageContaining("Статус бронирования не указан");
     }
 
     @Test
     void testFindBookerBookingsWithInvalidStateThenThrowException() {
-        assertThatThrownBy(() -> bookingService.findBookerBookings(BookingState.valueOf("INVALID"), booker.getId()))
+        assertThatThrownBy(() -> bookingService.findBookerBookings(BookingState.valueOf("INVALID"), booker.getId(),
+                0, 10, null))
                 .isInstanceOf(IllegalArgumentException.class)
                 .hasMessageContaining("No enum constant ru.practicum.shareit.booking.BookingState.INVALID");
     }
@@ -231,11 +288,15 @@ public class BookingServiceImplTest {
     @Test
     void testFindOwnerBookingsForAllState() {
         when(checkUserService.checkUser(anyLong())).thenReturn(itemOwner);
-        when(bookingRepository.findByItemOwnerIdWithDetails(anyLong())).thenReturn(List.of(booking));
-        List<BookingDto> bookings = bookingService.findOwnerBookings(BookingState.ALL, itemOwner.getId());
+        when(bookingRepository.findBookings(eq(BookingRole.OWNER), anyLong(), eq(BookingState.ALL),
+                any(LocalDateTime.class), any(BookingCursor.class), any(Pageable.class)))
+                .thenReturn(List.of(BookingMapper.mapToBookingDto(booking)));
+        List<BookingDto> bookings = bookingService.findOwnerBookings(BookingState.ALL, itemOwner.getId(), 0, 10,
+                null);
         assertThat(bookings).hasSize(1);
         assertThat(bookings.get(0).getId()).isEqualTo(booking.getId());
-        verify(bookingRepository).findByItemOwnerIdWithDetails(eq(itemOwner.getId()));
+        verify(bookingRepository).findBookings(eq(BookingRole.OWNER), eq(itemOwner.getId()), eq(BookingState.ALL),
+                any(LocalDateTime.class), eq(BookingCursor.FIRST), eq(OffsetPageable.of(0, 10)));
     }
 
     @Test
@@ -243,10 +304,11 @@ public class BookingServiceImplTest {
         LocalDateTime now = LocalDateTime.now();
         Booking currentBooking = new Booking(2L, now.minusHours(1), now.plusHours(1), item, booker, Status.APPROVED);
         when(checkUserService.checkUser(anyLong())).thenReturn(itemOwner);
-        when(bookingRepository.findByItemOwner_IdAndStartBeforeAndEndAfterOrderByStartDesc(
-                anyLong(), any(LocalDateTime.class), any(LocalDateTime.class)))
-                .thenReturn(List.of(currentBooking));
-        List<BookingDto> bookings = bookingService.findOwnerBookings(BookingState.CURRENT, itemOwner.getId());
+        when(bookingRepository.findBookings(eq(BookingRole.OWNER), anyLong(), eq(BookingState.CURRENT),
+                any(LocalDateTime.class), any(BookingCursor.class), any(Pageable.class)))
+                .thenReturn(List.of(BookingMapper.mapToBookingDto(currentBooking)));
+        List<BookingDto> bookings = bookingService.findOwnerBookings(BookingState.CURRENT, itemOwner.getId(), 0,
+                10, null);
         assertThat(bookings).hasSize(1);
         assertThat(bookings.get(0).getStatus()).isEqualTo(Status.APPROVED);
     }
@@ -254,8 +316,51 @@ public class BookingServiceImplTest {
     @Test
     void testFindOwnerBookingsWithNoBookingsThenReturnEmptyList() {
         when(checkUserService.checkUser(anyLong())).thenReturn(itemOwner);
-        when(bookingRepository.findByItemOwnerIdWithDetails(anyLong())).thenReturn(Collections.emptyList());
-        List<BookingDto> bookings = bookingService.findOwnerBookings(BookingState.ALL, itemOwner.getId());
+        when(bookingRepository.findBookings(eq(BookingRole.OWNER), anyLong(), eq(BookingState.ALL),
+                any(LocalDateTime.class), any(BookingCursor.class), any(Pageable.class))).thenReturn(Collections.emptyList());
+        List<BookingDto> bookings = bookingService.findOwnerBookings(BookingState.ALL, itemOwner.getId(), 0, 10,
+                null);
         assertThat(bookings).isEmpty();
     }
-}
\ No newline at end of file
+
+    @Test
+    void testFindBookerBookingsWithCursorThenSeekAfterCursor() {
+        BookingDto previous = BookingMapper.mapToBookingDto(booking);
+        String cursor = BookingCursor.next(List.of(previous), 1);
+        when(checkUserService.checkUser(anyLong())).thenReturn(booker);
+        when(bookingRepository.findBookings(eq(BookingRole.BOOKER), anyLong(), eq(BookingState.ALL),
+                any(LocalDateTime.class), any(BookingCursor.class), any(Pageable.class))).thenReturn(Collections.emptyList());
+        bookingService.findBookerBookings(BookingState.ALL, booker.getId(), 20, 5, cursor);
+        verify(bookingRepository).findBookings(eq(BookingRole.BOOKER), eq(booker.getId()), eq(BookingState.ALL),
+                any(LocalDateTime.class), argThat(after -> after.getStart().equals(booking.getStart())
+                        && after.getId().equals(booking.getId())), eq(OffsetPageable.of(0, 5)));
+    }
+
+    @Test
+    void testFindBookerBookingsWithInvalidCursorThenThrowException() {
+        when(checkUserService.checkUser(anyLong())).thenReturn(booker);
+        assertThatThrownBy(() -> bookingService.findBookerBookings(BookingState.ALL, booker.getId(), 0, 10,
+                "not-a-cursor"))
+                .isInstanceOf(ValidationException.class)
+                .hasMessageContaining("Некорректный курсор страницы");
+    }
+
+    @Test
+    void testFindOwnerBookingsWithInvalidSizeThenThrowException() {
+        when(checkUserService.checkUser(anyLong())).thenReturn(itemOwner);
+        assertThatThrownBy(() -> bookingService.findOwnerBookings(BookingState.ALL, itemOwner.getId(), 0, 0, null))
+                .isInstanceOf(ValidationException.class)
+                .hasMessageContaining("Некорректные параметры страницы");
+    }
+
+    @Test
+    void testCreateBookingWhenSlotIsTakenThenThrowConflictException() {
+        when(checkUserService.checkUser(booker.getId())).thenReturn(booker);
+        when(checkItemService.checkItem(item.getId())).thenReturn(item);
+        when(bookingAdmissionService.admit(any(Booking.class), any()))
+                .thenThrow(new ConflictException("Вещь с id = 1 уже забронирована"));
+        assertThatThrownBy(() -> bookingService.createBooking(bookingRequestDto, booker.getId()))
+                .isInstanceOf(ConflictException.class);
+        verify(bookingRepository, never()).save(any(Booking.class));
+    }
+}
@@ -0,0 +1,126 @@
+package ru.practicum.shareit.datasource;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+import ru.practicum.shareit.booking.BookingService;
+import ru.practicum.shareit.booking.BookingState;
+import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.user.UserServiceImpl;
+import ru.practicum.shareit.user.dto.UserCreateDto;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.utils.CheckUserService;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Основная база и реплика — две разные базы H2 без репликации между ними:
+ * записанное видно только при чтении из основной базы.
+ */
+@SpringBootTest
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:rw-primary",
+        "shareit.datasource.replica.url=" + ReadReplicaIntegrationTest.REPLICA_URL,
+        "shareit.datasource.replica.read-your-writes.window=1m"})
+public class ReadReplicaIntegrationTest {
+    static final String REPLICA_URL = "jdbc:h2:mem:rw-replica;DB_CLOSE_DELAY=-1";
+
+    @Autowired
+    private UserServiceImpl userService;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private CheckUserService checkUserService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeAll
+    static void migrateReplica() {
+        Flyway.configure()
+                .dataSource(REPLICA_URL, "shareit", "shareit")
+                .locations("classpath:db/migration/common", "classpath:db/migration/h2")
+                .load()
+                .migrate();
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReadYourWrites.setCurrentUser(null);
+    }
+
+    @Test
+    void testFindByIdWhenUserDidNotWriteThenReadFromReplica() {
+        UserDto created = userService.create(createDto("replica.reader@example.com"));
+        double reads = transactions("read");
+
+        ReadYourWrites.setCurrentUser(created.getId() + 1000);
+        assertThatThrownBy(() -> userService.findById(created.getId())).isInstanceOf(NotFoundException.class);
+        assertThat(transactions("read")).isEqualTo(reads + 1);
+    }
+
+    @Test
+    void testFindByIdWhenUserWroteRecentlyThenOnlyThisUserReadsFromPrimary() {
+        ReadYourWrites.setCurrentUser(42L);
+        double writes = transactions("write");
+        UserDto created = userService.create(createDto("primary.reader@example.com"));
+        assertThat(transactions("write")).isEqualTo(writes + 1);
+
+        // Другой пользователь не писал: читает реплику и записи ещё не видит
+        ReadYourWrites.setCurrentUser(43L);
+        double reads = transactions("read");
+        assertThatThrownBy(() -> userService.findById(created.getId())).isInstanceOf(NotFoundException.class);
+        assertThat(transactions("read")).isEqualTo(reads + 1);
+
+        ReadYourWrites.setCurrentUser(42L);
+        double readsAfterWrite = transactions("read-after-write");
+        assertThat(userService.findById(created.getId()).getEmail()).isEqualTo(created.getEmail());
+        assertThat(transactions("read-after-write")).isEqualTo(readsAfterWrite + 1);
+        assertThat(transactions("read")).isEqualTo(reads + 1);
+    }
+
+    @Test
+    void testCheckUserWhenReadFromReplicaThenDoNotCacheUser() throws SQLException {
+        // Реплика отстаёт: пользователь уже удалён в основной базе, а в реплике ещё есть
+        replica("INSERT INTO users (id, name, email) VALUES (900001, 'Stale', 'stale@example.com')");
+        ReadYourWrites.setCurrentUser(900001L);
+        double reads = transactions("read");
+        assertThat(bookingService.findBookerBookings(BookingState.ALL, 900001L, 0, 10, null)).isEmpty();
+        assertThat(transactions("read")).isEqualTo(reads + 1);
+
+        // Реплика догнала основную базу: найти пользователя можно было бы только в кэше
+        replica("DELETE FROM users WHERE id = 900001");
+        assertThatThrownBy(() -> checkUserService.checkUser(900001L)).isInstanceOf(NotFoundException.class);
+    }
+
+    private static void replica(String sql) throws SQLException {
+        try (Connection connection = DriverManager.getConnection(REPLICA_URL, "shareit", "shareit");
+             Statement statement = connection.createStatement()) {
+            statement.executeUpdate(sql);
+        }
+    }
+
+    private double transactions(String route) {
+        return meterRegistry.get("shareit.datasource.transactions").tag("route", route).counter().count();
+    }
+
+    private static UserCreateDto createDto(String email) {
+        UserCreateDto dto = new UserCreateDto();
+        dto.setName("Reader");
+        dto.setEmail(email);
+        return dto;
+    }
+}
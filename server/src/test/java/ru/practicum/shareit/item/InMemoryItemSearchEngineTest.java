@@ -0,0 +1,91 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.user.User;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class InMemoryItemSearchEngineTest {
+
+    @Mock
+    private ItemRepository itemRepository;
+
+    @InjectMocks
+    private InMemoryItemSearchEngine searchEngine;
+
+    private User owner;
+
+    @BeforeEach
+    void setUp() {
+        owner = new User(1L, "Owner", "owner@example.com");
+    }
+
+    @Test
+    void testSearchWhenWordInNameThenRankAboveDescription() {
+        searchEngine.index(item(1L, "Ящик", "Дрель внутри", true));
+        searchEngine.index(item(2L, "Дрель", "Аккумуляторная", true));
+        assertThat(ids(searchEngine.search("дрель", 0, 10))).containsExactly(2L, 1L);
+    }
+
+    @Test
+    void testSearchWhenPrefixGivenThenMatchAllWordsOfQuery() {
+        searchEngine.index(item(1L, "Drill", "Cordless drill", true));
+        searchEngine.index(item(2L, "Driller", "Corded", true));
+        assertThat(ids(searchEngine.search("DRI", 0, 10))).containsExactlyInAnyOrder(1L, 2L);
+        assertThat(ids(searchEngine.search("dri cordl", 0, 10))).containsExactly(1L);
+        assertThat(searchEngine.search("saw", 0, 10)).isEmpty();
+    }
+
+    @Test
+    void testSearchWhenItemIsUnavailableThenSkipIt() {
+        searchEngine.index(item(1L, "Drill", "Cordless", true));
+        searchEngine.index(item(1L, "Drill", "Cordless", false));
+        assertThat(searchEngine.search("drill", 0, 10)).isEmpty();
+    }
+
+    @Test
+    void testSearchWhenPageRequestedThenSkipAndLimit() {
+        for (long id = 1; id <= 5; id++) {
+            searchEngine.index(item(id, "Drill " + id, "Tool", true));
+        }
+        assertThat(ids(searchEngine.search("drill", 2, 2))).containsExactly(3L, 4L);
+    }
+
+    @Test
+    void testIndexWhenUndoneThenRestorePreviousVersion() {
+        searchEngine.index(item(1L, "Drill", "Cordless", true));
+        Runnable undo = searchEngine.index(item(1L, "Saw", "Electric", true));
+        assertThat(searchEngine.search("drill", 0, 10)).isEmpty();
+        undo.run();
+        assertThat(ids(searchEngine.search("drill", 0, 10))).containsExactly(1L);
+        assertThat(searchEngine.search("saw", 0, 10)).isEmpty();
+    }
+
+    @Test
+    void testLoadWhenItemAlreadyIndexedThenKeepNewerVersion() {
+        searchEngine.index(item(1L, "Saw", "Electric", true));
+        when(itemRepository.findByAvailableTrue()).thenReturn(List.of(item(1L, "Drill", "Cordless", true),
+                item(2L, "Hammer", "Steel", true)));
+        searchEngine.load();
+        assertThat(ids(searchEngine.search("saw", 0, 10))).containsExactly(1L);
+        assertThat(ids(searchEngine.search("hammer", 0, 10))).containsExactly(2L);
+    }
+
+    private Item item(Long id, String name, String description, boolean available) {
+        return new Item(id, name, description, available, owner, null);
+    }
+
+    private static List<Long> ids(List<ItemDto> items) {
+        return items.stream().map(ItemDto::getId).toList();
+    }
+}
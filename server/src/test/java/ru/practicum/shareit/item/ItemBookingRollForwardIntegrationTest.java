@@ -0,0 +1,49 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.base.BaseSpringBootTest;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingRequestDto;
+import ru.practicum.shareit.item.dto.ItemWithBookingsCommentsDto;
+import ru.practicum.shareit.user.User;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ItemBookingRollForwardIntegrationTest extends BaseSpringBootTest {
+
+    @Autowired
+    private ItemBookingRollForward itemBookingRollForward;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void testRollForwardWhenNextBookingHasPassedThenItBecomesLast() {
+        User owner = userRepository.save(new User(null, "Owner", "owner@example.com"));
+        User booker = userRepository.save(new User(null, "Booker", "booker@example.com"));
+        Item item = itemRepository.saveAndFlush(new Item(null, "Item", "Description", true, owner, null));
+        LocalDateTime now = LocalDateTime.now();
+        BookingDto booking = bookingService.createBooking(new BookingRequestDto(now.plusDays(1), now.plusDays(2),
+                item.getId(), booker.getId()), booker.getId());
+        bookingService.approveBooking(booking.getId(), true, owner.getId());
+        assertThat(itemService.findAllFromUser(owner.getId()).getFirst().getNextBooking().getId())
+                .isEqualTo(booking.getId());
+
+        // Время «проходит»: бронирование и момент пересчёта сдвигаются в прошлое
+        jdbcTemplate.update("UPDATE bookings SET start_date = ?, end_date = ? WHERE id = ?",
+                Timestamp.valueOf(now.minusDays(3)), Timestamp.valueOf(now.minusDays(2)), booking.getId());
+        jdbcTemplate.update("UPDATE items SET roll_forward_at = ? WHERE id = ?",
+                Timestamp.valueOf(now.minusDays(3)), item.getId());
+        itemBookingRollForward.rollForward();
+
+        ItemWithBookingsCommentsDto summary = itemService.findAllFromUser(owner.getId()).getFirst();
+        assertThat(summary.getLastBooking().getId()).isEqualTo(booking.getId());
+        assertThat(summary.getNextBooking()).isNull();
+        assertThat(summary.getBookingCount()).isEqualTo(1L);
+    }
+}
@@ -26,7 +26,8 @@ public class ItemControllerTest extends BaseWebMvcTest {
 
     @BeforeEach
     public void setUp() {
-        itemWithBookingsCommentsDto = new ItemWithBookingsCommentsDto(1L, "Item 1", "Description 1", true, 2L, null, null);
+        itemWithBookingsCommentsDto = new ItemWithBookingsCommentsDto(1L, "Item 1", "Description 1", true, 2L, null, null,
+                0L, 0L);
         itemWithCommentsDto = new ItemWithCommentsDto(1L, "Item 1", "Description 1", true, 2L, null, null, List.of());
         itemDto = new ItemDto(1L, "Item 1", "Description 1", true, 2L);
         itemCreateDto = new ItemCreateDto("Item 1", "Description 1", true, null);
@@ -61,7 +62,7 @@ public class ItemControllerTest extends BaseWebMvcTest {
     @Test
     public void testFindItemByTextWhenServiceReturnsItemsThenReturnListOfItems() throws Exception {
         List<ItemDto> items = Arrays.asList(itemDto);
-        BDDMockito.given(itemService.findByText("Item")).willReturn(items);
+        BDDMockito.given(itemService.findByText("Item", 0, 10)).willReturn(items);
         mockMvc.perform(MockMvcRequestBuilders.get("/items/search")
                         .param("text", "Item"))
                 .andExpect(MockMvcResultMatchers.status().isOk())
@@ -83,6 +84,20 @@ public class ItemControllerTest extends BaseWebMvcTest {
                 .andExpect(MockMvcResultMatchers.jsonPath("$.description").value(itemDto.getDescription()));
     }
 
+    @Test
+    public void testCreateWhenIdempotencyKeyGivenThenPassItWithRequest() throws Exception {
+        BDDMockito.given(itemService.create(Mockito.any(ItemCreateDto.class), Mockito.eq(1L))).willReturn(itemDto);
+        mockMvc.perform(MockMvcRequestBuilders.post("/items")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Item 1\",\"description\":\"Description 1\",\"available\":true}")
+                        .header("X-Sharer-User-Id", 1L)
+                        .header("Idempotency-Key", "key-1"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.id").value(itemDto.getId()));
+        Mockito.verify(idempotencyService).execute(Mockito.eq("createItem"), Mockito.eq(1L), Mockito.eq("key-1"),
+                Mockito.eq(new ItemCreateDto("Item 1", "Description 1", true, null)), Mockito.any());
+    }
+
     @Test
     public void testUpdateWhenServiceUpdatesItemThenReturnItem() throws Exception {
         BDDMockito.given(itemService.update(Mockito.any(ItemUpdateDto.class), Mockito.eq(1L), Mockito.eq(1L))).willReturn(itemDto);
@@ -108,4 +123,30 @@ public class ItemControllerTest extends BaseWebMvcTest {
                 .andExpect(MockMvcResultMatchers.jsonPath("$.text").value(commentDto.getText()))
                 .andExpect(MockMvcResultMatchers.jsonPath("$.authorName").value(commentDto.getAuthorName()));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testImportItemsWhenNdjsonGivenThenReturnReport() throws Exception {
+        ItemImportResultDto result = new ItemImportResultDto(1L, 1L,
+                List.of(new ItemImportErrorDto(2L, "Имя должно быть указано")));
+        BDDMockito.given(itemImportService.importItems(Mockito.any(), Mockito.eq(1L))).willReturn(result);
+        mockMvc.perform(MockMvcRequestBuilders.post("/items/import")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content("{\"name\":\"Item 1\",\"description\":\"Description 1\",\"available\":true}\n"
+                                + "{\"description\":\"Description 2\",\"available\":true}\n")
+                        .header("X-Sharer-User-Id", 1L))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.created").value(1))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.failed").value(1))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.errors[0].line").value(2));
+    }
+
+    @Test
+    public void testImportItemsWhenContentTypeIsJsonThenReturnUnsupportedMediaType() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.post("/items/import")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[]")
+                        .header("X-Sharer-User-Id", 1L))
+                .andExpect(MockMvcResultMatchers.status().isUnsupportedMediaType());
+        Mockito.verifyNoInteractions(itemImportService);
+    }
+}
@@ -0,0 +1,125 @@
+package ru.practicum.shareit.item;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.item.dto.ItemCreateDto;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemImportErrorDto;
+import ru.practicum.shareit.item.dto.ItemImportResultDto;
+import ru.practicum.shareit.utils.CheckUserService;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ItemImportServiceTest {
+    private static final String VALID = "{\"name\":\"Drill\",\"description\":\"Cordless drill\",\"available\":true}";
+
+    @Mock
+    private ItemService itemService;
+
+    @Mock
+    private CheckUserService checkUserService;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    private ItemImportService itemImportService;
+
+    @BeforeEach
+    void setUp() {
+        itemImportService = new ItemImportService(itemService, checkUserService, objectMapper, 3, 200);
+    }
+
+    @Test
+    void testImportItemsWhenSomeLinesAreInvalidThenSaveValidAndReportInvalid() throws IOException {
+        when(itemService.createAll(anyList(), eq(1L))).thenAnswer(invocation -> Collections.nCopies(
+                invocation.<List<ItemCreateDto>>getArgument(0).size(), new ItemDto()));
+        ItemImportResultDto result = itemImportService.importItems(ndjson(
+                VALID,
+                "{\"description\":\"No name\",\"available\":true}",
+                "",
+                "{\"name\":\"Saw\",\"description\":\"Hand saw\"}",
+                "{not json",
+                VALID), 1L);
+        assertThat(result.getCreated()).isEqualTo(2L);
+        assertThat(result.getFailed()).isEqualTo(3L);
+        assertThat(result.getErrors()).extracting(ItemImportErrorDto::getLine).containsExactly(2L, 4L, 5L);
+        assertThat(result.getErrors().get(0).getMessage()).isEqualTo("Имя должно быть указано");
+        assertThat(result.getErrors().get(1).getMessage()).isEqualTo("Доступность должна быть указана");
+        verify(itemService, times(1)).createAll(anyList(), eq(1L));
+    }
+
+    @Test
+    void testImportItemsWhenManyLinesAreInvalidThenReportFirstErrorsAndCountAll() throws IOException {
+        ItemImportResultDto result = itemImportService.importItems(ndjson("{bad", "{bad", "{bad", "{bad", "{bad"), 1L);
+        assertThat(result.getFailed()).isEqualTo(5L);
+        assertThat(result.getErrors()).extracting(ItemImportErrorDto::getLine).containsExactly(1L, 2L, 3L);
+        verifyNoInteractions(itemService);
+    }
+
+    @Test
+    void testImportItemsWhenLineIsTooLongThenRejectItAndContinue() throws IOException {
+        when(itemService.createAll(anyList(), eq(1L))).thenAnswer(invocation -> Collections.nCopies(
+                invocation.<List<ItemCreateDto>>getArgument(0).size(), new ItemDto()));
+        String tooLong = "{\"name\":\"" + "x".repeat(300) + "\",\"description\":\"d\",\"available\":true}";
+        ItemImportResultDto result = itemImportService.importItems(new ByteArrayInputStream(
+                (tooLong + "\r\n" + VALID + "\r\n").getBytes(StandardCharsets.UTF_8)), 1L);
+        assertThat(result.getCreated()).isEqualTo(1L);
+        assertThat(result.getErrors()).containsExactly(new ItemImportErrorDto(1L, "Строка длиннее 200 символов"));
+    }
+
+    @Test
+    void testImportItemsWhenLinesExceedChunkThenSaveInSeveralChunks() throws IOException {
+        when(itemService.createAll(anyList(), eq(1L))).thenAnswer(invocation -> Collections.nCopies(
+                invocation.<List<ItemCreateDto>>getArgument(0).size(), new ItemDto()));
+        ItemImportResultDto result = itemImportService.importItems(
+                ndjson(Collections.nCopies(ItemServiceImpl.BULK_CHUNK_SIZE + 1, VALID).toArray(String[]::new)), 1L);
+        assertThat(result.getCreated()).isEqualTo(ItemServiceImpl.BULK_CHUNK_SIZE + 1L);
+        assertThat(result.getErrors()).isEmpty();
+        verify(itemService).createAll(argThat((List<ItemCreateDto> items) ->
+                items.size() == ItemServiceImpl.BULK_CHUNK_SIZE), eq(1L));
+        verify(itemService).createAll(argThat((List<ItemCreateDto> items) -> items.size() == 1), eq(1L));
+    }
+
+    @Test
+    void testImportItemsWhenChunkFailsThenSaveLinesOneByOne() throws IOException {
+        when(itemService.createAll(anyList(), eq(1L))).thenThrow(new IllegalStateException("value too long"));
+        when(itemService.create(any(ItemCreateDto.class), eq(1L)))
+                .thenReturn(new ItemDto())
+                .thenThrow(new IllegalStateException("value too long"));
+        ItemImportResultDto result = itemImportService.importItems(ndjson(VALID, VALID), 1L);
+        assertThat(result.getCreated()).isEqualTo(1L);
+        assertThat(result.getErrors()).containsExactly(new ItemImportErrorDto(2L, "value too long"));
+    }
+
+    @Test
+    void testImportItemsWhenUserDoesNotExistThenThrowNotFoundException() {
+        when(checkUserService.checkUser(1L)).thenThrow(new NotFoundException("Пользователь не найден"));
+        assertThatThrownBy(() -> itemImportService.importItems(ndjson(VALID), 1L))
+                .isInstanceOf(NotFoundException.class);
+        verifyNoInteractions(itemService);
+    }
+
+    private static InputStream ndjson(String... lines) {
+        return new ByteArrayInputStream(String.join("\n", lines).getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -5,8 +5,11 @@ import org.junit.jupiter.api.Test;
 import ru.practicum.shareit.base.BaseSpringBootTest;
 import ru.practicum.shareit.booking.Booking;
 import ru.practicum.shareit.booking.Status;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingRequestDto;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.item.dto.*;
+import ru.practicum.shareit.request.ItemRequest;
 import ru.practicum.shareit.user.User;
 
 import java.time.LocalDateTime;
@@ -42,6 +45,8 @@ public class ItemServiceImplIntegrationTest extends BaseSpringBootTest {
         booking.setBooker(user);
         booking.setStatus(Status.APPROVED);
         bookingRepository.save(booking);
+        // Вставки с id из последовательности уходят в БД при сбросе, тогда же индексируется поиск
+        itemRepository.flush();
         itemCreateDto = new ItemCreateDto();
         itemCreateDto.setName("Item2");
         itemCreateDto.setDescription("Description2");
@@ -62,6 +67,22 @@ public class ItemServiceImplIntegrationTest extends BaseSpringBootTest {
         assertThat(items.getFirst().getDescription()).isEqualTo(item.getDescription());
     }
 
+    @Test
+    public void testFindAllFromUserWhenBookingApprovedThenReturnNextBookingAndCounters() {
+        User booker = userRepository.save(new User(null, "Booker", "booker@example.com"));
+        LocalDateTime now = LocalDateTime.now();
+        BookingDto booking = bookingService.createBooking(new BookingRequestDto(now.plusDays(1), now.plusDays(2),
+                item.getId(), booker.getId()), booker.getId());
+        bookingService.approveBooking(booking.getId(), true, user.getId());
+        itemService.createComment(commentCreateDto, user.getId(), item.getId());
+        ItemWithBookingsCommentsDto summary = itemService.findAllFromUser(user.getId()).getFirst();
+        assertThat(summary.getNextBooking().getId()).isEqualTo(booking.getId());
+        assertThat(summary.getNextBooking().getBookerId()).isEqualTo(booker.getId());
+        assertThat(summary.getLastBooking()).isNotNull();
+        assertThat(summary.getBookingCount()).isEqualTo(1L);
+        assertThat(summary.getCommentCount()).isEqualTo(1L);
+    }
+
     @Test
     public void testFindByIdWhenItemExistsThenReturnItem() {
         ItemWithCommentsDto foundItem = itemService.findById(item.getId(), user.getId());
@@ -77,12 +98,30 @@ public class ItemServiceImplIntegrationTest extends BaseSpringBootTest {
 
     @Test
     public void testFindByTextWhenItemsExistThenReturnListOfItems() {
-        List<ItemDto> items = itemService.findByText("Item1");
+        List<ItemDto> items = itemService.findByText("Item1", 0, 10);
         assertThat(items).hasSize(1);
         assertThat(items.getFirst().getName()).isEqualTo(item.getName());
         assertThat(items.getFirst().getDescription()).isEqualTo(item.getDescription());
     }
 
+    @Test
+    public void testFindByTextWhenItemBecomesUnavailableThenExcludeIt() {
+        itemService.update(itemUpdateDto, user.getId(), item.getId());
+        itemRepository.flush();
+        assertThat(itemService.findByText("Item1", 0, 10)).isEmpty();
+    }
+
+    @Test
+    public void testFindByTextWhenSeveralWordsThenMatchAllOfThemByPrefix() {
+        ItemDto created = itemService.create(new ItemCreateDto("Drill", "Cordless description1", true, null),
+                user.getId());
+        itemRepository.flush();
+        List<ItemDto> items = itemService.findByText("descr", 0, 10);
+        assertThat(items).extracting(ItemDto::getId).contains(item.getId(), created.getId());
+        assertThat(itemService.findByText("cordless descr", 0, 10)).extracting(ItemDto::getId)
+                .containsExactly(created.getId());
+    }
+
     @Test
     public void testCreateWhenItemIsValidThenReturnCreatedItem() {
         ItemDto createdItem = itemService.create(itemCreateDto, user.getId());
@@ -91,6 +130,27 @@ public class ItemServiceImplIntegrationTest extends BaseSpringBootTest {
         assertThat(createdItem.getDescription()).isEqualTo(itemCreateDto.getDescription());
     }
 
+    @Test
+    public void testCreateAllWhenItemsAreValidThenSaveThemWithRequests() {
+        ItemRequest request = itemRequestRepository.save(new ItemRequest(null, "Need a drill", LocalDateTime.now(),
+                user, null));
+        List<ItemCreateDto> itemDtos = List.of(
+                new ItemCreateDto("Drill", "Cordless drill", true, request.getId()),
+                new ItemCreateDto("Saw", "Hand saw", true, null),
+                new ItemCreateDto("Ladder", "Folding ladder", false, null));
+        List<ItemDto> created = itemService.createAll(itemDtos, user.getId());
+        assertThat(created).extracting(ItemDto::getName).containsExactly("Drill", "Saw", "Ladder");
+        assertThat(created).extracting(ItemDto::getId).doesNotContainNull().doesNotHaveDuplicates();
+        assertThat(itemRepository.findAllById(created.stream().map(ItemDto::getId).toList())).hasSize(3);
+        assertThat(itemRepository.findByRequestIdIn(List.of(request.getId()))).extracting(Item::getName)
+                .containsExactly("Drill");
+    }
+
+    @Test
+    public void testCreateAllWhenUserDoesNotExistThenThrowNotFoundException() {
+        assertThrows(NotFoundException.class, () -> itemService.createAll(List.of(itemCreateDto), 999L));
+    }
+
     @Test
     public void testUpdateWhenItemIsValidThenReturnUpdatedItem() {
         ItemDto updatedItem = itemService.update(itemUpdateDto, user.getId(), item.getId());
@@ -110,4 +170,23 @@ public class ItemServiceImplIntegrationTest extends BaseSpringBootTest {
         assertThat(createdComment).isNotNull();
         assertThat(createdComment.getText()).isEqualTo(commentCreateDto.getText());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testFindByIdWhenOwnerThenReturnLastAndNearestNextBookingOfThisItem() {
+        Item otherItem = new Item(null, "Other", "Other description", true, user, null);
+        itemRepository.save(otherItem);
+        LocalDateTime now = LocalDateTime.now();
+        Booking otherItemBooking = bookingRepository.save(new Booking(null, now.plusHours(1), now.plusHours(2),
+                otherItem, user, Status.APPROVED));
+        Booking farBooking = bookingRepository.save(new Booking(null, now.plusDays(5), now.plusDays(6), item, user,
+                Status.APPROVED));
+        Booking nearBooking = bookingRepository.save(new Booking(null, now.plusDays(3), now.plusDays(4), item, user,
+                Status.APPROVED));
+        bookingRepository.save(new Booking(null, now.plusDays(1), now.plusDays(2), item, user, Status.REJECTED));
+        ItemWithCommentsDto foundItem = itemService.findById(item.getId(), user.getId());
+        assertThat(foundItem.getLastBooking()).isNotNull();
+        assertThat(foundItem.getLastBooking().getItem().getId()).isEqualTo(item.getId());
+        assertThat(foundItem.getNextBooking().getId()).isEqualTo(nearBooking.getId());
+        assertThat(foundItem.getNextBooking().getId()).isNotIn(farBooking.getId(), otherItemBooking.getId());
+    }
+}
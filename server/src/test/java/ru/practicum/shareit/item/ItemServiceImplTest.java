@@ -1,5 +1,6 @@
 package ru.practicum.shareit.item;
 
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -12,6 +13,7 @@ import ru.practicum.shareit.booking.Status;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.exception.ValidationException;
 import ru.practicum.shareit.item.dto.*;
+import ru.practicum.shareit.request.ItemRequestRepository;
 import ru.practicum.shareit.user.User;
 import ru.practicum.shareit.utils.CheckItemService;
 import ru.practicum.shareit.utils.CheckUserService;
@@ -42,6 +44,15 @@ public class ItemServiceImplTest {
     @Mock
     private CheckItemService checkItemService;
 
+    @Mock
+    private ItemSearchEngine itemSearchEngine;
+
+    @Mock
+    private ItemRequestRepository itemRequestRepository;
+
+    @Mock
+    private EntityManager entityManager;
+
     @InjectMocks
     private ItemServiceImpl itemService;
 
@@ -76,29 +87,49 @@ public class ItemServiceImplTest {
 
     @Test
     void testFindAllFromUserWhenItemsExistThenReturnItemDtos() {
+        ItemWithBookingsCommentsDto summary = new ItemWithBookingsCommentsDto(1L, "Item Name", "Item Description",
+                true, 1L, booking.getId(), user.getId(), booking.getStart(), booking.getEnd(),
+                null, null, null, null, 3L, 1L);
         when(checkUserService.checkUser(1L)).thenReturn(user);
-        when(itemRepository.findByOwnerId(1L)).thenReturn(List.of(item));
-        when(bookingRepository.findBookingsByOwnerId(1L)).thenReturn(List.of(booking));
-        when(commentRepository.findCommentsByOwnerId(1L)).thenReturn(List.of(comment));
+        when(itemRepository.findWithBookingSummaryByOwnerId(1L)).thenReturn(List.of(summary));
         List<ItemWithBookingsCommentsDto> result = itemService.findAllFromUser(1L);
         assertThat(result).hasSize(1);
-        verify(itemRepository, times(1)).findByOwnerId(1L);
-        verify(bookingRepository, times(1)).findBookingsByOwnerId(1L);
-        verify(commentRepository, times(1)).findCommentsByOwnerId(1L);
+        assertThat(result.getFirst().getLastBooking().getId()).isEqualTo(booking.getId());
+        assertThat(result.getFirst().getNextBooking()).isNull();
+        assertThat(result.getFirst().getBookingCount()).isEqualTo(3L);
+        assertThat(result.getFirst().getCommentCount()).isEqualTo(1L);
+        verify(itemRepository, times(1)).findWithBookingSummaryByOwnerId(1L);
+        verifyNoInteractions(bookingRepository, commentRepository);
     }
 
     @Test
     void testFindByIdWhenItemExistsThenReturnItemDto() {
         when(itemRepository.findById(1L)).thenReturn(Optional.of(item));
-        when(commentRepository.findCommentsByItemId(1L)).thenReturn(List.of(comment));
-        when(bookingRepository.findByItemOwner_IdAndStatusOrderByStartDesc(1L, Status.APPROVED))
-                .thenReturn(List.of(booking));
+        when(commentRepository.findCommentsByItemId(1L)).thenReturn(List.of(CommentMapper.mapToCommentDto(comment)));
+        booking.setStart(LocalDateTime.now().minusDays(2));
+        booking.setEnd(LocalDateTime.now().minusDays(1));
+        Booking nextBooking = new Booking(2L, LocalDateTime.now().plusDays(1), LocalDateTime.now().plusDays(2), item,
+                user, Status.APPROVED);
+        when(bookingRepository.findLastAndNextByItemId(eq(1L), eq(Status.APPROVED), any(LocalDateTime.class)))
+                .thenReturn(List.of(booking, nextBooking));
         ItemWithCommentsDto result = itemService.findById(1L, 1L);
         assertThat(result.getId()).isEqualTo(itemDto.getId());
+        assertThat(result.getLastBooking().getId()).isEqualTo(booking.getId());
+        assertThat(result.getNextBooking().getId()).isEqualTo(nextBooking.getId());
         verify(itemRepository, times(1)).findById(1L);
         verify(commentRepository, times(1)).findCommentsByItemId(1L);
     }
 
+    @Test
+    void testFindByIdWhenUserIsNotOwnerThenSkipBookings() {
+        when(itemRepository.findById(1L)).thenReturn(Optional.of(item));
+        when(commentRepository.findCommentsByItemId(1L)).thenReturn(List.of());
+        ItemWithCommentsDto result = itemService.findById(1L, 2L);
+        assertThat(result.getLastBooking()).isNull();
+        assertThat(result.getNextBooking()).isNull();
+        verifyNoInteractions(bookingRepository);
+    }
+
     @Test
     void testFindByIdWhenItemDoesNotExistThenThrowNotFoundException() {
         when(itemRepository.findById(1L)).thenReturn(Optional.empty());
@@ -108,6 +139,27 @@ public class ItemServiceImplTest {
         verify(itemRepository, times(1)).findById(1L);
     }
 
+    @Test
+    void testFindByTextWhenTextIsPresentThenDelegateToSearchEngine() {
+        when(itemSearchEngine.search("drill", 10, 5)).thenReturn(List.of(itemDto));
+        List<ItemDto> result = itemService.findByText("drill", 10, 5);
+        assertThat(result).containsExactly(itemDto);
+    }
+
+    @Test
+    void testFindByTextWhenTextIsBlankThenReturnEmptyList() {
+        assertThat(itemService.findByText(" ", 0, 10)).isEmpty();
+        verifyNoInteractions(itemSearchEngine);
+    }
+
+    @Test
+    void testFindByTextWhenPageIsInvalidThenThrowValidationException() {
+        assertThatThrownBy(() -> itemService.findByText("drill", -1, 10))
+                .isInstanceOf(ValidationException.class);
+        assertThatThrownBy(() -> itemService.findByText("drill", 0, 0))
+                .isInstanceOf(ValidationException.class);
+    }
+
     @Test
     void testCreateWhenItemIsCreatedThenReturnItemDto() {
         when(checkUserService.checkUser(1L)).thenReturn(user);
@@ -117,6 +169,20 @@ public class ItemServiceImplTest {
         verify(itemRepository, times(1)).save(any(Item.class));
     }
 
+    @Test
+    void testCreateAllWhenItemsGivenThenSaveInOneBatch() {
+        Item second = new Item(2L, "Second Item", "Second Description", true, user, null);
+        when(checkUserService.checkUser(1L)).thenReturn(user);
+        when(itemRequestRepository.findAllById(anySet())).thenReturn(List.of());
+        when(itemRepository.saveAll(anyList())).thenReturn(List.of(item, second));
+        List<ItemDto> result = itemService.createAll(List.of(itemCreateDto, itemCreateDto), 1L);
+        assertThat(result).extracting(ItemDto::getId).containsExactly(1L, 2L);
+        verify(itemRepository, times(1)).saveAll(argThat((List<Item> items) -> items.size() == 2));
+        verify(itemRepository, never()).save(any(Item.class));
+        verify(entityManager).flush();
+        verify(entityManager).clear();
+    }
+
     @Test
     void testUpdateWhenItemIsUpdatedThenReturnUpdatedItemDto() {
         when(checkUserService.checkUser(1L)).thenReturn(user);
@@ -146,6 +212,7 @@ public class ItemServiceImplTest {
         CommentDto result = itemService.createComment(commentCreateDto, 1L, 1L);
         assertThat(result.getText()).isEqualTo(commentCreateDto.getText());
         verify(commentRepository, times(1)).save(any(Comment.class));
+        verify(itemRepository).incrementCommentCount(1L);
     }
 
     @Test
@@ -62,7 +62,7 @@ public class ItemRequestControllerTest extends BaseWebMvcTest {
     @Test
     public void testFindAllItemRequestsWhenServiceReturnsRequestsThenReturnListOfRequests() throws Exception {
         List<ItemRequestDto> requests = Arrays.asList(itemRequestDto);
-        BDDMockito.given(itemRequestService.findAll()).willReturn(requests);
+        BDDMockito.given(itemRequestService.findAll(0, 10)).willReturn(requests);
         mockMvc.perform(MockMvcRequestBuilders.get("/requests/all")
                         .header("X-Sharer-User-Id", 1L))
                 .andExpect(MockMvcResultMatchers.status().isOk())
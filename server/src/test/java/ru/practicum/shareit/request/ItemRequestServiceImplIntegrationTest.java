@@ -4,10 +4,14 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import ru.practicum.shareit.base.BaseSpringBootTest;
 import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.dto.ItemResponseDto;
 import ru.practicum.shareit.request.dto.ItemRequestCreateDto;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.user.User;
 
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -57,7 +61,37 @@ public class ItemRequestServiceImplIntegrationTest extends BaseSpringBootTest {
     @Test
     public void testFindAllWhenRequestsExistThenReturnListOfRequests() {
         itemRequestService.createItemRequest(itemRequestCreateDto, requestor.getId());
-        List<ItemRequestDto> requests = itemRequestService.findAll();
+        List<ItemRequestDto> requests = itemRequestService.findAll(0, 10);
         assertThat(requests).hasSize(1);
     }
+
+    @Test
+    public void testFindAllWhenSeveralPagesThenReturnNewestFirstWithItems() {
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        ItemRequest oldest = itemRequestRepository.save(new ItemRequest(null, "Oldest", now.minusDays(3), requestor,
+                null));
+        ItemRequest middle = itemRequestRepository.save(new ItemRequest(null, "Middle", now.minusDays(2), requestor,
+                null));
+        ItemRequest newest = itemRequestRepository.save(new ItemRequest(null, "Newest", now.minusDays(1), requestor,
+                null));
+        Item answer = itemRepository.save(new Item(null, "Hammer", "Steel hammer", true, requestor, middle));
+        List<ItemRequestDto> firstPage = itemRequestService.findAll(0, 2);
+        List<ItemRequestDto> secondPage = itemRequestService.findAll(2, 2);
+        assertThat(firstPage).extracting(ItemRequestDto::getId).containsExactly(newest.getId(), middle.getId());
+        assertThat(firstPage.getFirst().getItems()).isEmpty();
+        assertThat(firstPage.get(1).getItems()).extracting(ItemResponseDto::getId).containsExactly(answer.getId());
+        assertThat(secondPage).extracting(ItemRequestDto::getId).containsExactly(oldest.getId());
+    }
+
+    @Test
+    public void testFindAllWhenOffsetNotMultipleOfSizeThenSkipExactlyFrom() {
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        for (int i = 0; i < 4; i++) {
+            itemRequestRepository.save(new ItemRequest(null, "Request " + i, now.minusDays(i), requestor, null));
+        }
+        List<ItemRequestDto> all = itemRequestService.findAll(0, 10);
+        List<ItemRequestDto> page = itemRequestService.findAll(1, 2);
+        assertThat(page).extracting(ItemRequestDto::getId)
+                .containsExactly(all.get(1).getId(), all.get(2).getId());
+    }
 }
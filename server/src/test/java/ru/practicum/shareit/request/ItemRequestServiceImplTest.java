@@ -7,10 +7,15 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.exception.ValidationException;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.item.dto.ItemResponseDto;
 import ru.practicum.shareit.request.dto.ItemRequestCreateDto;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.user.User;
 import ru.practicum.shareit.utils.CheckUserService;
+import ru.practicum.shareit.utils.OffsetPageable;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -29,6 +34,9 @@ public class ItemRequestServiceImplTest {
     @Mock
     private CheckUserService checkUserService;
 
+    @Mock
+    private ItemRepository itemRepository;
+
     @InjectMocks
     private ItemRequestServiceImpl itemRequestService;
 
@@ -77,6 +85,7 @@ public class ItemRequestServiceImplTest {
     @Test
     void testFindByRequestorIdWhenRequestsExistThenReturnItemRequestDtos() {
         List<ItemRequest> requests = List.of(itemRequest);
+        itemRequestDto.setItems(List.of());
         List<ItemRequestDto> requestDtos = List.of(itemRequestDto);
         when(checkUserService.checkUser(1L)).thenReturn(requestor);
         when(itemRequestRepository.findByRequestorIdOrderByCreatedDesc(1L)).thenReturn(requests);
@@ -87,13 +96,29 @@ public class ItemRequestServiceImplTest {
     }
 
     @Test
-    void testFindAllWhenRequestsExistThenReturnItemRequestDtos() {
-        List<ItemRequest> requests = List.of(itemRequest);
-        List<ItemRequestDto> requestDtos = List.of(itemRequestDto);
-        when(itemRequestRepository.findAll()).thenReturn(requests);
-        List<ItemRequestDto> result = itemRequestService.findAll();
-        assertThat(result).isEqualTo(requestDtos);
-        verify(itemRequestRepository, times(1)).findAll();
+    void testFindAllWhenRequestsExistThenReturnItemRequestDtosWithItems() {
+        Item item = new Item(5L, "Book", "Good book", true, new User(2L, "Owner", "owner@example.com"),
+                itemRequest);
+        when(itemRequestRepository.findPage(OffsetPageable.of(10, 5))).thenReturn(List.of(itemRequest));
+        when(itemRepository.findByRequestIdIn(List.of(1L))).thenReturn(List.of(item));
+        List<ItemRequestDto> result = itemRequestService.findAll(10, 5);
+        itemRequestDto.setItems(List.of(new ItemResponseDto(5L, "Book", 2L)));
+        assertThat(result).containsExactly(itemRequestDto);
+        verify(itemRepository, times(1)).findByRequestIdIn(List.of(1L));
+    }
+
+    @Test
+    void testFindAllWhenPageIsEmptyThenSkipItemsQuery() {
+        when(itemRequestRepository.findPage(OffsetPageable.of(0, 10))).thenReturn(List.of());
+        assertThat(itemRequestService.findAll(0, 10)).isEmpty();
+        verifyNoInteractions(itemRepository);
+    }
+
+    @Test
+    void testFindAllWhenPageIsInvalidThenThrowValidationException() {
+        assertThrows(ValidationException.class, () -> itemRequestService.findAll(-1, 10));
+        assertThrows(ValidationException.class, () -> itemRequestService.findAll(0, 0));
+        verifyNoInteractions(itemRequestRepository);
     }
 
     @Test
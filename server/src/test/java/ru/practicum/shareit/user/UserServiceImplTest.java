@@ -11,6 +11,7 @@ import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.user.dto.UserCreateDto;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.dto.UserUpdateDto;
+import ru.practicum.shareit.utils.CheckUserService;
 
 import java.util.List;
 import java.util.Optional;
@@ -25,6 +26,9 @@ public class UserServiceImplTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private CheckUserService checkUserService;
+
     @InjectMocks
     private UserServiceImpl userService;
 
@@ -84,6 +88,7 @@ public class UserServiceImplTest {
         assertThat(result.getEmail()).isEqualTo(userUpdateDto.getEmail());
         verify(userRepository, times(1)).findById(1L);
         verify(userRepository, times(1)).save(any(User.class));
+        verify(checkUserService, times(1)).invalidate(1L);
     }
 
     @Test
@@ -93,6 +98,7 @@ public class UserServiceImplTest {
         assertThat(result).isEqualTo(userDto);
         verify(userRepository, times(1)).findById(1L);
         verify(userRepository, times(1)).delete(any(User.class));
+        verify(checkUserService, times(1)).invalidate(1L);
     }
 
     @Test
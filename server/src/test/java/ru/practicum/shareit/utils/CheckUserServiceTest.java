@@ -0,0 +1,81 @@
+package ru.practicum.shareit.utils;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.exception.ValidationException;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserRepository;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class CheckUserServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    private MeterRegistry meterRegistry;
+    private CheckUserService checkUserService;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        checkUserService = new CheckUserService(userRepository, meterRegistry, 100, Duration.ofMinutes(10));
+        user = new User(1L, "John Doe", "john.doe@example.com");
+    }
+
+    @Test
+    void testCheckUserWhenCalledTwiceThenQueryRepositoryOnce() {
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        checkUserService.checkUser(1L);
+        User cached = checkUserService.checkUser(1L);
+        assertThat(cached.getId()).isEqualTo(1L);
+        assertThat(cached.getEmail()).isEqualTo(user.getEmail());
+        verify(userRepository, times(1)).findById(1L);
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "users").tag("result", "hit")
+                .functionCounter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void testCheckUserWhenCachedUserChangedByCallerThenCacheKeepsOriginal() {
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        checkUserService.checkUser(1L);
+        checkUserService.checkUser(1L).setName("Changed");
+        assertThat(checkUserService.checkUser(1L).getName()).isEqualTo("John Doe");
+    }
+
+    @Test
+    void testCheckUserWhenInvalidatedThenQueryRepositoryAgain() {
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        checkUserService.checkUser(1L);
+        checkUserService.invalidate(1L);
+        checkUserService.checkUser(1L);
+        verify(userRepository, times(2)).findById(1L);
+    }
+
+    @Test
+    void testCheckUserWhenUserNotFoundThenThrowNotFoundExceptionAndDoNotCache() {
+        when(userRepository.findById(2L)).thenReturn(Optional.empty());
+        assertThatThrownBy(() -> checkUserService.checkUser(2L)).isInstanceOf(NotFoundException.class);
+        assertThatThrownBy(() -> checkUserService.checkUser(2L)).isInstanceOf(NotFoundException.class);
+        verify(userRepository, times(2)).findById(2L);
+    }
+
+    @Test
+    void testCheckUserWhenIdIsNullThenThrowValidationException() {
+        assertThatThrownBy(() -> checkUserService.checkUser(null)).isInstanceOf(ValidationException.class);
+        verifyNoInteractions(userRepository);
+    }
+}
@@ -0,0 +1,149 @@
+package ru.practicum.shareit.utils;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.exception.ConflictException;
+import ru.practicum.shareit.exception.ValidationException;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class IdempotencyServiceTest {
+    private IdempotencyService idempotencyService;
+    private AtomicInteger calls;
+
+    @BeforeEach
+    void setUp() {
+        idempotencyService = new IdempotencyService(new SimpleMeterRegistry(), 100, Duration.ofMinutes(10));
+        calls = new AtomicInteger();
+    }
+
+    @Test
+    void testExecuteWhenSameKeyRepeatedThenRunActionOnce() {
+        String first = idempotencyService.execute("create", 1L, "key", "request",
+                () -> "created " + calls.incrementAndGet());
+        String replay = idempotencyService.execute("create", 1L, "key", "request",
+                () -> "created " + calls.incrementAndGet());
+        assertThat(replay).isEqualTo(first).isEqualTo("created 1");
+        assertThat(calls).hasValue(1);
+    }
+
+    @Test
+    void testExecuteWhenNoKeyOrOtherUserThenRunActionEachTime() {
+        idempotencyService.execute("create", 1L, null, "request", calls::incrementAndGet);
+        idempotencyService.execute("create", 1L, null, "request", calls::incrementAndGet);
+        idempotencyService.execute("create", 1L, "key", "request", calls::incrementAndGet);
+        idempotencyService.execute("create", 2L, "key", "request", calls::incrementAndGet);
+        assertThat(calls).hasValue(4);
+    }
+
+    @Test
+    void testExecuteWhenKeyReusedWithOtherRequestThenThrowConflictException() {
+        idempotencyService.execute("create", 1L, "key", "request", calls::incrementAndGet);
+        assertThatThrownBy(() -> idempotencyService.execute("create", 1L, "key", "other", calls::incrementAndGet))
+                .isInstanceOf(ConflictException.class);
+        assertThat(calls).hasValue(1);
+    }
+
+    @Test
+    void testExecuteWhenActionFailedThenRunAgainOnRetry() {
+        assertThatThrownBy(() -> idempotencyService.execute("create", 1L, "key", "request", () -> {
+            throw new ConflictException("busy");
+        })).isInstanceOf(ConflictException.class);
+        assertThat(idempotencyService.execute("create", 1L, "key", "request", calls::incrementAndGet)).isEqualTo(1);
+    }
+
+    @Test
+    void testExecuteWhenKeyTooLongThenThrowValidationException() {
+        assertThatThrownBy(() -> idempotencyService.execute("create", 1L,
+                "k".repeat(IdempotencyService.MAX_KEY_LENGTH + 1), "request", calls::incrementAndGet))
+                .isInstanceOf(ValidationException.class);
+    }
+
+    @Test
+    void testExecuteWhenDuplicateArrivesInFlightThenWaitForFirstResult() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<Integer> first = executor.submit(() -> idempotencyService.execute("create", 1L, "key", "request",
+                    () -> {
+                        started.countDown();
+                        await(release);
+                        return calls.incrementAndGet();
+                    }));
+            assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+            Future<Integer> duplicate = executor.submit(() -> idempotencyService.execute("create", 1L, "key",
+                    "request", calls::incrementAndGet));
+            release.countDown();
+            assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo(1);
+            assertThat(duplicate.get(5, TimeUnit.SECONDS)).isEqualTo(1);
+            assertThat(calls).hasValue(1);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testExecuteWhenActionThrowsErrorThenDuplicateGetsItAndKeyIsReleased() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        StackOverflowError failure = new StackOverflowError();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Integer> first = executor.submit(() -> idempotencyService.execute("create", 1L, "key", "request",
+                    () -> {
+                        started.countDown();
+                        await(release);
+                        throw failure;
+                    }));
+            assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+            AtomicReference<Throwable> duplicateFailure = new AtomicReference<>();
+            Thread duplicate = new Thread(() -> {
+                try {
+                    idempotencyService.execute("create", 1L, "key", "request", calls::incrementAndGet);
+                } catch (Throwable e) {
+                    duplicateFailure.set(e);
+                }
+            });
+            duplicate.start();
+            awaitWaiting(duplicate);
+            release.countDown();
+
+            assertThatThrownBy(() -> first.get(5, TimeUnit.SECONDS)).hasCause(failure);
+            duplicate.join(5000);
+            assertThat(duplicate.isAlive()).isFalse();
+            assertThat(duplicateFailure).hasValue(failure);
+            assertThat(idempotencyService.execute("create", 1L, "key", "request", calls::incrementAndGet))
+                    .isEqualTo(1);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void awaitWaiting(Thread thread) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (thread.getState() != Thread.State.WAITING && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertThat(thread.getState()).isEqualTo(Thread.State.WAITING);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}